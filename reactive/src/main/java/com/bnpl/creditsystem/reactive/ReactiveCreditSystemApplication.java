@@ -0,0 +1,18 @@
+package com.bnpl.creditsystem.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Variante reactiva (WebFlux + R2DBC) de la API de customers y préstamos.
+ * Expone los mismos contratos de /v1/customers y /v1/loans sobre la misma base de datos,
+ * y comparte con la API servlet las reglas de precio y de crédito (paquete pricing), los DTOs y las excepciones.
+ */
+@SpringBootApplication
+public class ReactiveCreditSystemApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveCreditSystemApplication.class, args);
+	}
+
+}
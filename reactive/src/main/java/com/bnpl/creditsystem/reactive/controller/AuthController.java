@@ -0,0 +1,36 @@
+package com.bnpl.creditsystem.reactive.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bnpl.creditsystem.dto.AuthRequest;
+import com.bnpl.creditsystem.dto.AuthResponse;
+import com.bnpl.creditsystem.security.JwtService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Emite el mismo JWT que la API servlet (misma clave), así un token sirve para ambas variantes.
+ */
+@RestController
+@RequestMapping("/v1/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final JwtService jwtService;
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest authRequest) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword()))
+                .map(authentication -> ResponseEntity.ok(new AuthResponse(jwtService.generateToken((UserDetails) authentication.getPrincipal()))));
+    }
+}
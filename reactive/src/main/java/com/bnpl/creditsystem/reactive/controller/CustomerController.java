@@ -0,0 +1,52 @@
+package com.bnpl.creditsystem.reactive.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.reactive.service.CustomerService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mismo contrato que CustomerController de la API servlet: 201 con Location al registrar
+ * y ETag/304 en la consulta.
+ */
+@RestController
+@RequestMapping("/v1/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+
+    private final CustomerService customerService;
+
+    @PostMapping
+    public Mono<ResponseEntity<CustomerResponse>> createCustomer(@Valid @RequestBody CustomerRequest customerRequest, ServerWebExchange exchange) {
+        return customerService.registerCustomer(customerRequest)
+                .map(customer -> ResponseEntity.created(UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                        .path("/{id}").buildAndExpand(customer.getId()).toUri()).body(customer));
+    }
+
+    @GetMapping("/{customerId}")
+    public Mono<ResponseEntity<CustomerResponse>> getCustomerById(@PathVariable("customerId") UUID customerId, ServerWebExchange exchange) {
+        return customerService.findCustomerVersion(customerId).flatMap(version -> {
+            if (exchange.checkNotModified(ETags.of(version))) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).<CustomerResponse>build());
+            }
+            return customerService.findVersionedCustomerById(customerId)
+                    .map(customer -> ResponseEntity.ok().eTag(ETags.of(customer.version())).body(customer.body()));
+        });
+    }
+}
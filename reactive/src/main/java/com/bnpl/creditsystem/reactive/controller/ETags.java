@@ -0,0 +1,14 @@
+package com.bnpl.creditsystem.reactive.controller;
+
+/**
+ * ETags fuertes a partir de la versión (@Version) de una fila, con el mismo formato que la API servlet.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+}
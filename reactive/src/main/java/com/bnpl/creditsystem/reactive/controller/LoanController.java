@@ -0,0 +1,58 @@
+package com.bnpl.creditsystem.reactive.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.reactive.service.LoanService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mismo contrato que LoanController de la API servlet: creación (201 con Location), cotización
+ * y consulta con ETag/304.
+ */
+@RestController
+@RequestMapping("/v1/loans")
+@RequiredArgsConstructor
+public class LoanController {
+
+    private final LoanService loanService;
+
+    @PostMapping
+    public Mono<ResponseEntity<LoanResponse>> createLoan(@Valid @RequestBody LoanRequest request, ServerWebExchange exchange) {
+        return loanService.createLoan(request)
+                .map(loan -> ResponseEntity.created(UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                        .path("/{id}").buildAndExpand(loan.getId()).toUri()).body(loan));
+    }
+
+    @PostMapping("/quote")
+    public Mono<ResponseEntity<LoanQuoteResponse>> quoteLoan(@Valid @RequestBody LoanRequest request) {
+        return loanService.quoteLoan(request).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{loanId}")
+    public Mono<ResponseEntity<LoanResponse>> getLoanById(@PathVariable("loanId") UUID loanId, ServerWebExchange exchange) {
+        return loanService.findLoanVersion(loanId).flatMap(version -> {
+            if (exchange.checkNotModified(ETags.of(version))) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).<LoanResponse>build());
+            }
+            return loanService.findVersionedLoanById(loanId)
+                    .map(loan -> ResponseEntity.ok().eTag(ETags.of(loan.version())).body(loan.body()));
+        });
+    }
+}
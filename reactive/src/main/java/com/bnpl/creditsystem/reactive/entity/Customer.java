@@ -0,0 +1,45 @@
+package com.bnpl.creditsystem.reactive.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de la tabla customers (la misma que mapea la entidad JPA de la API servlet).
+ * El crédito disponible se actualiza con @Version, igual que en JPA.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("customers")
+public class Customer {
+
+    @Id
+    private UUID id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String secondLastName;
+
+    private LocalDate dateOfBirth;
+
+    private BigDecimal creditLineAmount;
+
+    private BigDecimal availableCreditLineAmount;
+
+    private LocalDateTime createdAt;
+
+    @Version
+    private Long version;
+}
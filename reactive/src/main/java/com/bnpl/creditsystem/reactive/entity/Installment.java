@@ -0,0 +1,32 @@
+package com.bnpl.creditsystem.reactive.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("installments")
+public class Installment {
+
+    @Id
+    private UUID id;
+
+    private BigDecimal amount;
+
+    private LocalDate scheduledPaymentDate;
+
+    private InstallmentStatus status;
+
+    private UUID loanId;
+}
@@ -0,0 +1,49 @@
+package com.bnpl.creditsystem.reactive.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.entity.LoanStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de la tabla loans. Las cuotas se guardan como filas en installments
+ * (la variante reactiva no usa el modo de calendario embebido).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("loans")
+public class Loan {
+
+    @Id
+    private UUID id;
+
+    private BigDecimal loanAmount;
+
+    private LocalDateTime createdAt;
+
+    private LoanStatus status;
+
+    private BigDecimal interestRate;
+
+    private BigDecimal commission;
+
+    private BigDecimal totalAmount;
+
+    private InstallmentPlan installmentPlan;
+
+    private UUID customerId;
+
+    @Version
+    private Long version;
+}
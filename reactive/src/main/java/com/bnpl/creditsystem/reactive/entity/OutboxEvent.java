@@ -0,0 +1,35 @@
+package com.bnpl.creditsystem.reactive.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.bnpl.creditsystem.entity.OutboxEventType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento del outbox. La secuencia la asigna la BD (identity), igual que en la API servlet,
+ * así el feed de eventos no distingue qué variante hizo el cambio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("outbox_events")
+public class OutboxEvent {
+
+    @Id
+    private Long sequence;
+
+    private OutboxEventType eventType;
+
+    private UUID aggregateId;
+
+    private String payload;
+
+    private LocalDateTime createdAt;
+}
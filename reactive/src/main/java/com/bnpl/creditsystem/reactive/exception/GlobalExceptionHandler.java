@@ -0,0 +1,83 @@
+package com.bnpl.creditsystem.reactive.exception;
+
+import java.time.Instant;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.bnpl.creditsystem.dto.ErrorResponseDto;
+import com.bnpl.creditsystem.exception.BusinessLogicException;
+import com.bnpl.creditsystem.exception.ResourceNotFoundException;
+
+/**
+ * Mismos códigos y cuerpo de error que el GlobalExceptionHandler de la API servlet,
+ * con las excepciones equivalentes de WebFlux y R2DBC.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    /**
+     * Validación de DTOs (@Valid): en WebFlux llega como WebExchangeBindException.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponseDto> handleValidationExceptions(WebExchangeBindException ex, ServerWebExchange exchange) {
+        final String errorMessage = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> "'" + error.getField() + "': " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        log.warn("Validation error: {}", errorMessage);
+
+        final String code;
+        final String error;
+
+        final String path = exchange.getRequest().getPath().value();
+        if (path.startsWith("/v1/customers")) {
+            code = "APZ000002";
+            error = "INVALID_CUSTOMER_REQUEST";
+        } else if (path.startsWith("/v1/loans")) {
+            code = "APZ000006";
+            error = "INVALID_LOAN_REQUEST";
+        } else {
+            code = "APZ000004"; // Fallback
+            error = "INVALID_REQUEST";
+        }
+        ErrorResponseDto errorResponse = new ErrorResponseDto(code, error, Instant.now().getEpochSecond(), errorMessage, path);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(BusinessLogicException.class)
+    public ResponseEntity<ErrorResponseDto> handleBusinessLogicException(BusinessLogicException ex, ServerWebExchange exchange) {
+        log.warn("Business logic error [{} - {}]: {}", ex.getStatus(), ex.getError(), ex.getMessage());
+        ErrorResponseDto errorResponse = new ErrorResponseDto(ex.getCode(), ex.getError(), Instant.now().getEpochSecond(),
+                ex.getMessage(), exchange.getRequest().getPath().value());
+        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleResourceNotFound(ResourceNotFoundException ex, ServerWebExchange exchange) {
+        log.warn("Resource not found: {}", ex.getMessage());
+        ErrorResponseDto errorResponse = new ErrorResponseDto(ex.getCode(), ex.getError(), Instant.now().getEpochSecond(),
+                ex.getMessage(), exchange.getRequest().getPath().value());
+        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    }
+
+    /**
+     * Conflicto de @Version al descontar el crédito: 409 para que el cliente reintente.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, ServerWebExchange exchange) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        ErrorResponseDto errorResponse = new ErrorResponseDto("APZ000009", "CONCURRENT_MODIFICATION", Instant.now().getEpochSecond(),
+                "The resource was modified by another request, please retry.", exchange.getRequest().getPath().value());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+}
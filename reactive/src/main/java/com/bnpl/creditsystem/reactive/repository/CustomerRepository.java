@@ -0,0 +1,19 @@
+package com.bnpl.creditsystem.reactive.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.bnpl.creditsystem.reactive.entity.Customer;
+
+import reactor.core.publisher.Mono;
+
+public interface CustomerRepository extends ReactiveCrudRepository<Customer, UUID> {
+
+    /**
+     * Solo la versión del customer, para responder 304 sin cargar la fila completa.
+     */
+    @Query("select version from customers where id = :id")
+    Mono<Long> findVersionById(UUID id);
+}
@@ -0,0 +1,14 @@
+package com.bnpl.creditsystem.reactive.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.bnpl.creditsystem.reactive.entity.Installment;
+
+import reactor.core.publisher.Flux;
+
+public interface InstallmentRepository extends ReactiveCrudRepository<Installment, UUID> {
+
+    Flux<Installment> findByLoanIdOrderByScheduledPaymentDate(UUID loanId);
+}
@@ -0,0 +1,19 @@
+package com.bnpl.creditsystem.reactive.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.bnpl.creditsystem.reactive.entity.Loan;
+
+import reactor.core.publisher.Mono;
+
+public interface LoanRepository extends ReactiveCrudRepository<Loan, UUID> {
+
+    /**
+     * Solo la versión del préstamo, para responder 304 sin cargar el préstamo ni sus cuotas.
+     */
+    @Query("select version from loans where id = :id")
+    Mono<Long> findVersionById(UUID id);
+}
@@ -0,0 +1,63 @@
+package com.bnpl.creditsystem.reactive.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.bnpl.creditsystem.security.JwtService;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Equivalente reactivo de JwtAuthFilter: valida el token Bearer con el mismo JwtService y deja la
+ * autenticación en el contexto de Reactor en lugar de un ThreadLocal.
+ * No es un @Component a propósito: WebFlux registraría cualquier WebFilter del contexto también fuera
+ * de la cadena de seguridad, y el filtro correría dos veces (ver SecurityConfig).
+ */
+@RequiredArgsConstructor
+public class JwtAuthWebFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final ReactiveUserDetailsService userDetailsService;
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        return authenticate(authHeader.substring(BEARER_PREFIX.length()))
+                .map(authentication -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+                .switchIfEmpty(Mono.fromSupplier(() -> chain.filter(exchange)))
+                .flatMap(filtered -> filtered);
+    }
+
+    /**
+     * Un token inválido o vencido deja la petición sin autenticar (la cadena de seguridad responde 403).
+     */
+    private Mono<Authentication> authenticate(String jwt) {
+        final String username;
+        try {
+            username = jwtService.extractUsername(jwt);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Mono.empty();
+        }
+        if (username == null) {
+            return Mono.empty();
+        }
+        return userDetailsService.findByUsername(username)
+                .filter(userDetails -> jwtService.isTokenValid(jwt, userDetails))
+                .map(userDetails -> new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.bnpl.creditsystem.reactive.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import com.bnpl.creditsystem.security.JwtService;
+
+@Configuration
+@EnableWebFluxSecurity
+@Import(JwtService.class) // El mismo servicio de tokens que la API servlet.
+public class SecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtService jwtService, ReactiveUserDetailsService userDetailsService) {
+        return http
+            // 1. Sin CSRF, login por formulario ni HTTP Basic: solo JWT.
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            // 2. Sin estado: no se guarda el contexto de seguridad entre peticiones.
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            // 3. Sin token, 403 como en la API servlet.
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers("/v1/auth/**").permitAll()
+                .anyExchange().authenticated()
+            )
+            .addFilterAt(new JwtAuthWebFilter(jwtService, userDetailsService), SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+}
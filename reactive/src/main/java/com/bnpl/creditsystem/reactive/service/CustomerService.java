@@ -0,0 +1,18 @@
+package com.bnpl.creditsystem.reactive.service;
+
+import java.util.UUID;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+
+import reactor.core.publisher.Mono;
+
+public interface CustomerService {
+
+    Mono<CustomerResponse> registerCustomer(CustomerRequest request);
+
+    Mono<Long> findCustomerVersion(UUID customerId);
+
+    Mono<VersionedResponse<CustomerResponse>> findVersionedCustomerById(UUID customerId);
+}
@@ -0,0 +1,79 @@
+package com.bnpl.creditsystem.reactive.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.entity.TimeOrderedUuids;
+import com.bnpl.creditsystem.exception.CustomerNotFoundException;
+import com.bnpl.creditsystem.exception.InvalidAgeException;
+import com.bnpl.creditsystem.pricing.CreditLinePolicy;
+import com.bnpl.creditsystem.reactive.entity.Customer;
+import com.bnpl.creditsystem.reactive.repository.CustomerRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Alta y consulta de customers sin bloquear hilos. Las reglas de edad y de línea de crédito
+ * son las mismas funciones que usa la API servlet (CreditLinePolicy).
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerServiceImpl implements CustomerService {
+    private static final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
+
+    private final CustomerRepository customerRepository;
+    private final R2dbcEntityTemplate template;
+    private final EventOutbox eventOutbox;
+
+    @Override
+    @Transactional // El customer y su evento en el outbox se guardan juntos o no se guarda ninguno.
+    public Mono<CustomerResponse> registerCustomer(CustomerRequest request) {
+        // 1. Calcular y validar la edad del customer.
+        int age = CreditLinePolicy.ageOn(request.getDateOfBirth(), LocalDate.now());
+        if (!CreditLinePolicy.isEligibleAge(age)) {
+            log.warn("Customer registration rejected: Age {} is out of allowed range ({} - {})", age, CreditLinePolicy.MIN_AGE, CreditLinePolicy.MAX_AGE);
+            return Mono.error(new InvalidAgeException(String.format("Customer must be between %d and %d years old.",
+                    CreditLinePolicy.MIN_AGE, CreditLinePolicy.MAX_AGE)));
+        }
+
+        // 2. Asignar la línea de crédito y guardar el customer con su evento.
+        BigDecimal creditLine = CreditLinePolicy.creditLineFor(age);
+        Customer customer = new Customer(TimeOrderedUuids.next(), request.getFirstName(), request.getLastName(), request.getSecondLastName(),
+                request.getDateOfBirth(), creditLine, creditLine, LocalDateTime.now(), null);
+        return template.insert(customer)
+                .map(this::toCustomerResponse)
+                .flatMap(response -> eventOutbox.record(OutboxEventType.CUSTOMER_REGISTERED, response.getId(), response).thenReturn(response))
+                .doOnNext(response -> log.info("Successfully saved new customer with ID: {}", response.getId()));
+    }
+
+    @Override
+    public Mono<Long> findCustomerVersion(UUID customerId) {
+        return customerRepository.findVersionById(customerId)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(String.valueOf(customerId))));
+    }
+
+    @Override
+    public Mono<VersionedResponse<CustomerResponse>> findVersionedCustomerById(UUID customerId) {
+        return customerRepository.findById(customerId)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(String.valueOf(customerId))))
+                .map(customer -> new VersionedResponse<>(customer.getVersion(), toCustomerResponse(customer)));
+    }
+
+    private CustomerResponse toCustomerResponse(Customer customer) {
+        return new CustomerResponse(customer.getId(), customer.getCreditLineAmount(), customer.getAvailableCreditLineAmount(), customer.getCreatedAt());
+    }
+}
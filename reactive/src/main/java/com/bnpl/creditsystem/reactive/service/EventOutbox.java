@@ -0,0 +1,41 @@
+package com.bnpl.creditsystem.reactive.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.reactive.entity.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Escribe eventos en la tabla outbox dentro de la transacción reactiva del llamador,
+ * con el mismo formato que la API servlet.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventOutbox {
+
+    private final R2dbcEntityTemplate template;
+    private final ObjectMapper objectMapper;
+
+    public Mono<Void> record(OutboxEventType type, UUID aggregateId, Object payload) {
+        return Mono.fromCallable(() -> new OutboxEvent(null, type, aggregateId, toJson(payload), LocalDateTime.now()))
+                .flatMap(template::insert)
+                .then();
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize outbox event payload", ex);
+        }
+    }
+}
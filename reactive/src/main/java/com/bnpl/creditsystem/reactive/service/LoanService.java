@@ -0,0 +1,21 @@
+package com.bnpl.creditsystem.reactive.service;
+
+import java.util.UUID;
+
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+
+import reactor.core.publisher.Mono;
+
+public interface LoanService {
+
+    Mono<LoanResponse> createLoan(LoanRequest request);
+
+    Mono<LoanQuoteResponse> quoteLoan(LoanRequest request);
+
+    Mono<Long> findLoanVersion(UUID loanId);
+
+    Mono<VersionedResponse<LoanResponse>> findVersionedLoanById(UUID loanId);
+}
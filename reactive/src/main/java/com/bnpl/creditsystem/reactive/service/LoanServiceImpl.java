@@ -0,0 +1,153 @@
+package com.bnpl.creditsystem.reactive.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.InstallmentResponse;
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
+import com.bnpl.creditsystem.entity.LoanStatus;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.entity.TimeOrderedUuids;
+import com.bnpl.creditsystem.exception.CustomerNotFoundException;
+import com.bnpl.creditsystem.exception.InsufficientCreditException;
+import com.bnpl.creditsystem.exception.LoanNotFoundException;
+import com.bnpl.creditsystem.pricing.LoanPricing;
+import com.bnpl.creditsystem.pricing.ScheduleTemplate;
+import com.bnpl.creditsystem.reactive.entity.Customer;
+import com.bnpl.creditsystem.reactive.entity.Installment;
+import com.bnpl.creditsystem.reactive.entity.Loan;
+import com.bnpl.creditsystem.reactive.repository.CustomerRepository;
+import com.bnpl.creditsystem.reactive.repository.InstallmentRepository;
+import com.bnpl.creditsystem.reactive.repository.LoanRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creación y consulta de préstamos sin bloquear hilos. El precio y el calendario de cuotas salen de las
+ * mismas funciones puras que usa la API servlet (LoanPricing y ScheduleTemplate), así ambas variantes
+ * generan préstamos idénticos para la misma solicitud.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanServiceImpl implements LoanService {
+    private static final Logger log = LoggerFactory.getLogger(LoanServiceImpl.class);
+
+    private final CustomerRepository customerRepository;
+    private final LoanRepository loanRepository;
+    private final InstallmentRepository installmentRepository;
+    private final R2dbcEntityTemplate template;
+    private final EventOutbox eventOutbox;
+
+    /**
+     * El crédito del customer se descuenta con @Version: si otra solicitud lo cambió al mismo tiempo,
+     * el UPDATE falla con OptimisticLockingFailureException (409) y no se guarda nada.
+     */
+    @Override
+    @Transactional
+    public Mono<LoanResponse> createLoan(LoanRequest request) {
+        return findCustomer(request.getCustomerId())
+                .flatMap(customer -> processLoan(request, customer));
+    }
+
+    private Mono<LoanResponse> processLoan(LoanRequest request, Customer customer) {
+        // 1. Validar que el monto de la compra no exceda el crédito disponible.
+        if (request.getAmount().compareTo(customer.getAvailableCreditLineAmount()) > 0) {
+            log.warn("Purchase rejected for customer ID {}: Insufficient credit. Requested: {}, Available: {}",
+                    customer.getId(), request.getAmount(), customer.getAvailableCreditLineAmount());
+            return Mono.error(new InsufficientCreditException("Insufficient credit line for this loan."));
+        }
+
+        // 2. Tasa, comisión, total y calendario con las reglas compartidas.
+        BigDecimal interestRate = LoanPricing.interestRateFor(customer.getFirstName());
+        InstallmentPlan plan = LoanPricing.resolvePlan(request.getInstallmentPlan());
+        LoanPricing.PricingPlan pricing = LoanPricing.price(request.getAmount(), interestRate, plan);
+        InstallmentSchedule schedule = ScheduleTemplate.of(plan).build(LocalDate.now(), pricing.installmentAmounts());
+
+        Loan loan = new Loan(TimeOrderedUuids.next(), request.getAmount(), LocalDateTime.now(), LoanStatus.ACTIVE, interestRate,
+                pricing.commission(), pricing.totalAmount(), plan, customer.getId(), null);
+        List<Installment> installments = new ArrayList<>(schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            installments.add(new Installment(TimeOrderedUuids.next(), schedule.amount(i), schedule.scheduledPaymentDate(i), schedule.status(i), loan.getId()));
+        }
+        customer.setAvailableCreditLineAmount(customer.getAvailableCreditLineAmount().subtract(request.getAmount()));
+
+        // 3. Descontar el crédito primero (falla rápido si hay conflicto de versión), luego guardar préstamo, cuotas y eventos.
+        LoanResponse loanResponse = toLoanResponse(loan, installments);
+        CustomerResponse customerResponse = new CustomerResponse(customer.getId(), customer.getCreditLineAmount(),
+                customer.getAvailableCreditLineAmount(), customer.getCreatedAt());
+        return template.update(customer)
+                .then(template.insert(loan))
+                .thenMany(Flux.fromIterable(installments).concatMap(template::insert))
+                .then(eventOutbox.record(OutboxEventType.LOAN_CREATED, loan.getId(), loanResponse))
+                .then(eventOutbox.record(OutboxEventType.CUSTOMER_CREDIT_CHANGED, customer.getId(), customerResponse))
+                .thenReturn(loanResponse)
+                .doOnNext(saved -> log.info("Successfully processed and saved new loan with ID: {}", saved.getId()));
+    }
+
+    /**
+     * Cotiza un préstamo sin efectos: no persiste nada ni descuenta crédito.
+     */
+    @Override
+    public Mono<LoanQuoteResponse> quoteLoan(LoanRequest request) {
+        return findCustomer(request.getCustomerId()).flatMap(customer -> {
+            if (request.getAmount().compareTo(customer.getAvailableCreditLineAmount()) > 0) {
+                return Mono.error(new InsufficientCreditException("Insufficient credit line for this loan."));
+            }
+            BigDecimal interestRate = LoanPricing.interestRateFor(customer.getFirstName());
+            LoanPricing.PricingPlan pricing = LoanPricing.price(request.getAmount(), interestRate, LoanPricing.resolvePlan(request.getInstallmentPlan()));
+            InstallmentSchedule schedule = ScheduleTemplate.of(pricing.plan()).build(LocalDate.now(), pricing.installmentAmounts());
+            List<InstallmentResponse> installments = new ArrayList<>(schedule.size());
+            for (int i = 0; i < schedule.size(); i++) {
+                installments.add(new InstallmentResponse(schedule.amount(i), schedule.scheduledPaymentDate(i), schedule.status(i)));
+            }
+            return Mono.just(new LoanQuoteResponse(customer.getId(), request.getAmount(), interestRate, pricing.totalAmount(),
+                    new LoanResponse.PaymentPlan(pricing.commission(), installments)));
+        });
+    }
+
+    @Override
+    public Mono<Long> findLoanVersion(UUID loanId) {
+        return loanRepository.findVersionById(loanId)
+                .switchIfEmpty(Mono.error(() -> new LoanNotFoundException(String.valueOf(loanId))));
+    }
+
+    @Override
+    public Mono<VersionedResponse<LoanResponse>> findVersionedLoanById(UUID loanId) {
+        return loanRepository.findById(loanId)
+                .switchIfEmpty(Mono.error(() -> new LoanNotFoundException(String.valueOf(loanId))))
+                .flatMap(loan -> installmentRepository.findByLoanIdOrderByScheduledPaymentDate(loanId).collectList()
+                        .map(installments -> new VersionedResponse<>(loan.getVersion(), toLoanResponse(loan, installments))));
+    }
+
+    private Mono<Customer> findCustomer(UUID customerId) {
+        return customerRepository.findById(customerId)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(String.valueOf(customerId))));
+    }
+
+    private LoanResponse toLoanResponse(Loan loan, List<Installment> installments) {
+        List<InstallmentResponse> installmentResponses = installments.stream()
+                .map(installment -> new InstallmentResponse(installment.getAmount(), installment.getScheduledPaymentDate(), installment.getStatus()))
+                .toList();
+        return new LoanResponse(loan.getId(), loan.getCustomerId(), loan.getLoanAmount(), loan.getStatus(), loan.getCreatedAt(),
+                new LoanResponse.PaymentPlan(loan.getCommission(), installmentResponses));
+    }
+}
@@ -0,0 +1,125 @@
+package com.bnpl.creditsystem.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.bnpl.creditsystem.dto.AuthResponse;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+import com.bnpl.creditsystem.entity.LoanStatus;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ReactiveApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private String token;
+
+    @BeforeEach
+    void login() {
+        token = webTestClient.post().uri("/v1/auth/login")
+                .bodyValue(Map.of("username", "testuser", "password", "testpass"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class).returnResult().getResponseBody().getToken();
+    }
+
+    @Test
+    @DisplayName("Debe registrar un customer, crear un préstamo con las reglas compartidas y responder 304 con el ETag")
+    void shouldCreateLoanWithSharedPricingRules() {
+        // 1. Customer de 35 años cuyo nombre empieza con C: línea de 8000 y tasa del 13%.
+        CustomerResponse customer = webTestClient.post().uri("/v1/customers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("firstName", "Carlos", "lastName", "Valdez", "secondLastName", "Valdez",
+                        "dateOfBirth", LocalDate.now().minusYears(35).toString()))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CustomerResponse.class).returnResult().getResponseBody();
+        assertThat(customer.getCreditLineAmount()).isEqualByComparingTo("8000");
+
+        // 2. Préstamo de 1000: comisión 130, 5 cuotas quincenales de 226.
+        LoanResponse loan = webTestClient.post().uri("/v1/loans")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("customerId", customer.getId(), "amount", 1000))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueMatches(HttpHeaders.LOCATION, ".*/v1/loans/" + "[0-9a-f-]{36}")
+                .expectBody(LoanResponse.class).returnResult().getResponseBody();
+        assertThat(loan.getStatus()).isEqualTo(LoanStatus.ACTIVE);
+        assertThat(loan.getPaymentPlan().getCommissionAmount()).isEqualByComparingTo("130");
+        assertThat(loan.getPaymentPlan().getInstallments()).hasSize(5)
+                .allSatisfy(installment -> {
+                    assertThat(installment.getAmount()).isEqualByComparingTo("226");
+                    assertThat(installment.getStatus()).isEqualTo(InstallmentStatus.PENDING);
+                });
+
+        // 3. El préstamo se lee de la BD con su ETag, y con If-None-Match responde 304.
+        String etag = webTestClient.get().uri("/v1/loans/{id}", loan.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoanResponse.class).value(found -> assertThat(found.getPaymentPlan()).isEqualTo(loan.getPaymentPlan()))
+                .returnResult().getResponseHeaders().getETag();
+        webTestClient.get().uri("/v1/loans/{id}", loan.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        // 4. El crédito disponible se descontó.
+        webTestClient.get().uri("/v1/customers/{id}", customer.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerResponse.class)
+                .value(found -> assertThat(found.getAvailableCreditLineAmount()).isEqualByComparingTo(new BigDecimal("7000")));
+    }
+
+    @Test
+    @DisplayName("Debe responder con los mismos errores que la API servlet")
+    void shouldReturnSameErrorsAsServletApi() {
+        // Sin token: 403.
+        webTestClient.get().uri("/v1/customers/{id}", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isForbidden();
+
+        // Customer inexistente: 404 con el código de la especificación.
+        webTestClient.post().uri("/v1/loans")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("customerId", UUID.randomUUID(), "amount", 100))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.code").isEqualTo("APZ000005");
+
+        // Edad fuera de rango y DTO inválido: 400.
+        webTestClient.post().uri("/v1/customers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("firstName", "Ana", "lastName", "Ruiz", "secondLastName", "Soto",
+                        "dateOfBirth", LocalDate.now().minusYears(17).toString()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("INVALID_CUSTOMER_REQUEST");
+        webTestClient.post().uri("/v1/loans")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("amount", -5))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.code").isEqualTo("APZ000006");
+    }
+}
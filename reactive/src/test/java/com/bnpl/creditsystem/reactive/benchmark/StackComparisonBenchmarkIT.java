@@ -0,0 +1,171 @@
+package com.bnpl.creditsystem.reactive.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark: API servlet (Tomcat + JPA) vs variante reactiva (Netty + R2DBC) con muchas conexiones abiertas.
+ * Cada conexión es un ciclo cerrado de peticiones (la siguiente sale cuando llega la respuesta anterior),
+ * así que con N conexiones hay N peticiones en vuelo. Se mide el throughput, la latencia (p50, p99, p99.9)
+ * y los errores de dos escenarios: GET /v1/loans/{id} (lectura) y POST /v1/loans/quote (cálculo de precio).
+ *
+ * No corre con la suite normal (sufijo IT) y necesita ambas variantes levantadas contra la misma BD,
+ * por ejemplo con docker compose up (servlet en 8080, reactiva en 8081). Para ejecutarlo:
+ * ./mvnw test -Dtest=StackComparisonBenchmarkIT -Dbenchmark.connections=100,1000,5000 -Dbenchmark.duration=PT30S
+ * Con miles de conexiones hay que subir el límite de descriptores de archivo (ulimit -n) del cliente y de los servidores.
+ * La API servlet limita las solicitudes por cliente y por customer, así que se levanta con
+ * APPLICATION_RATE_LIMIT_ENABLED=false para medir el stack y no el límite.
+ */
+class StackComparisonBenchmarkIT {
+
+    private static final String SERVLET_URL = System.getProperty("benchmark.servlet-url", "http://localhost:8080");
+    private static final String REACTIVE_URL = System.getProperty("benchmark.reactive-url", "http://localhost:8081");
+    private static final int[] CONNECTIONS = Arrays.stream(System.getProperty("benchmark.connections", "100,1000,5000").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).toArray();
+    private static final Duration DURATION = Duration.parse(System.getProperty("benchmark.duration", "PT30S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("benchmark.warmup", "PT10S"));
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Test
+    @DisplayName("Benchmark: throughput y latencia de la API servlet vs la reactiva con muchas conexiones")
+    void compareServletAndReactiveStacks() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (Stack stack : List.of(new Stack("servlet", SERVLET_URL), new Stack("reactive", REACTIVE_URL))) {
+            Fixture fixture = prepare(stack);
+            for (Scenario scenario : List.of(Scenario.READ, Scenario.QUOTE)) {
+                run(stack, scenario, fixture, Math.min(CONNECTIONS[0], 100), WARMUP);
+                for (int connections : CONNECTIONS) {
+                    results.add(run(stack, scenario, fixture, connections, DURATION));
+                }
+            }
+        }
+
+        System.out.printf("%n%-9s %-6s %7s %12s %10s %10s %10s %9s%n", "stack", "test", "conns", "req/s", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "errors");
+        results.forEach(Result::print);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.requests()).isPositive());
+    }
+
+    /**
+     * Un token, un customer y un préstamo por variante, creados por la misma API que se mide.
+     */
+    private Fixture prepare(Stack stack) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String token = extract(TOKEN, post(client, stack.url() + "/v1/auth/login", null,
+                "{\"username\":\"testuser\",\"password\":\"testpass\"}"));
+        String customerId = extract(ID, post(client, stack.url() + "/v1/customers", token,
+                "{\"firstName\":\"Carlos\",\"lastName\":\"Valdez\",\"secondLastName\":\"Valdez\",\"dateOfBirth\":\""
+                        + LocalDate.now().minusYears(35) + "\"}"));
+        String loanRequest = "{\"customerId\":\"" + customerId + "\",\"amount\":100}";
+        String loanId = extract(ID, post(client, stack.url() + "/v1/loans", token, loanRequest));
+        return new Fixture(token, loanId, loanRequest);
+    }
+
+    private Result run(Stack stack, Scenario scenario, Fixture fixture, int connections, Duration duration) {
+        // Un cliente nuevo por corrida para que las conexiones no se reutilicen entre corridas.
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(30)).build();
+        HttpRequest request = scenario == Scenario.READ
+                ? HttpRequest.newBuilder(URI.create(stack.url() + "/v1/loans/" + fixture.loanId()))
+                        .header("Authorization", "Bearer " + fixture.token()).GET().build()
+                : HttpRequest.newBuilder(URI.create(stack.url() + "/v1/loans/quote"))
+                        .header("Authorization", "Bearer " + fixture.token()).header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(fixture.loanRequest())).build();
+
+        ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            loops[i] = loop(client, request, deadline, latencies, errors);
+        }
+        CompletableFuture.allOf(loops).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(stack.name(), scenario.name().toLowerCase(), connections, latencies.getTotalCount(),
+                latencies.getTotalCount() / seconds, latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99),
+                latencies.getValueAtPercentile(99.9), errors.get());
+    }
+
+    /**
+     * Encadena las peticiones de una conexión sin anidar futures: cada respuesta dispara la siguiente
+     * y {@code done} se completa al pasar el deadline.
+     */
+    private CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline, ConcurrentHistogram latencies, AtomicLong errors) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        send(client, request, deadline, latencies, errors, done);
+        return done;
+    }
+
+    private void send(HttpClient client, HttpRequest request, long deadline, ConcurrentHistogram latencies, AtomicLong errors,
+                      CompletableFuture<Void> done) {
+        if (System.nanoTime() >= deadline) {
+            done.complete(null);
+            return;
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            if (ex != null || response.statusCode() != 200) {
+                errors.incrementAndGet();
+            } else {
+                latencies.recordValue((System.nanoTime() - sent) / 1_000);
+            }
+            send(client, request, deadline, latencies, errors, done);
+        });
+    }
+
+    private static String post(HttpClient client, String url, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("POST %s: %s", url, response.body()).isBetween(200, 201);
+        return response.body();
+    }
+
+    private static String extract(Pattern pattern, String json) {
+        Matcher matcher = pattern.matcher(json);
+        assertThat(matcher.find()).as("%s in %s", pattern, json).isTrue();
+        return matcher.group(1);
+    }
+
+    private enum Scenario {
+        READ, QUOTE
+    }
+
+    private record Stack(String name, String url) {
+    }
+
+    private record Fixture(String token, String loanId, String loanRequest) {
+    }
+
+    private record Result(String stack, String scenario, int connections, long requests, double throughput,
+                          long p50Micros, long p99Micros, long p999Micros, long errors) {
+
+        void print() {
+            System.out.printf("%-9s %-6s %7d %12.0f %10.1f %10.1f %10.1f %9d%n", stack, scenario, connections, throughput,
+                    p50Micros / 1000.0, p99Micros / 1000.0, p999Micros / 1000.0, errors);
+        }
+    }
+}
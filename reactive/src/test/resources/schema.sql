@@ -0,0 +1,42 @@
+-- Mismas tablas que genera JPA en la API servlet (solo las columnas que usa la variante reactiva, más installment_schedule).
+create table if not exists customers (
+    id uuid primary key,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    second_last_name varchar(255) not null,
+    date_of_birth date not null,
+    credit_line_amount numeric(38, 2) not null,
+    available_credit_line_amount numeric(38, 2) not null,
+    created_at timestamp not null,
+    version bigint
+);
+
+create table if not exists loans (
+    id uuid primary key,
+    loan_amount numeric(38, 2) not null,
+    created_at timestamp not null,
+    status varchar(255) not null,
+    interest_rate numeric(38, 2) not null,
+    commission numeric(38, 2) not null,
+    total_amount numeric(38, 2) not null,
+    installment_plan varchar(255) not null,
+    installment_schedule varbinary(1024),
+    customer_id uuid not null references customers (id),
+    version bigint
+);
+
+create table if not exists installments (
+    id uuid primary key,
+    amount numeric(38, 2) not null,
+    scheduled_payment_date date not null,
+    status varchar(255) not null,
+    loan_id uuid not null references loans (id)
+);
+
+create table if not exists outbox_events (
+    sequence bigint generated by default as identity primary key,
+    event_type varchar(255) not null,
+    aggregate_id uuid not null,
+    payload varchar(4000) not null,
+    created_at timestamp not null
+);
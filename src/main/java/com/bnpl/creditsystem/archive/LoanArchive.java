@@ -0,0 +1,353 @@
+package com.bnpl.creditsystem.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archivo frío de préstamos en disco local. Cada ejecución del archivado escribe un segmento inmutable
+ * (loans-*.seg) con los préstamos ordenados por ID y agrupados en bloques comprimidos con Deflate de ~64 KiB.
+ *
+ * El índice es disperso: solo guarda el primer ID de cada bloque (no uno por préstamo), así que el índice de
+ * todos los segmentos cabe en memoria. Buscar un préstamo es una búsqueda binaria en el índice, una lectura
+ * del bloque y descomprimirlo.
+ *
+ * Otras instancias escriben segmentos en el mismo directorio (volumen compartido): si una búsqueda no encuentra algún
+ * préstamo y el directorio cambió desde la última lectura, se cargan los segmentos nuevos y se vuelve a buscar.
+ *
+ * Formato del segmento:
+ *   bloques:  [tamaño descomprimido int][datos comprimidos], cada registro es [id 16 bytes][version long][largo int][JSON]
+ *   índice:   por bloque [primer id 16 bytes][offset long][tamaño comprimido int]
+ *   trailer:  [último id 16 bytes][número de bloques int][MAGIC long]
+ */
+@Component
+public class LoanArchive {
+    private static final Logger log = LoggerFactory.getLogger(LoanArchive.class);
+
+    private static final long MAGIC = 0x4C4F414E41524331L; // "LOANARC1"
+    private static final int TARGET_BLOCK_SIZE = 64 * 1024;
+    private static final int INDEX_ENTRY_SIZE = 16 + 8 + 4;
+    private static final int TRAILER_SIZE = 16 + 4 + 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final Duration MTIME_GRANULARITY = Duration.ofSeconds(2);
+
+    // Por ID de préstamo para las búsquedas binarias; igual que UUID.compareTo.
+    private static final Comparator<ArchivedLoan> BY_ID = Comparator.comparing(ArchivedLoan::id);
+
+    private final Path directory;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    // Segmentos ya cargados, por nombre de archivo.
+    private final Set<Path> loaded = ConcurrentHashMap.newKeySet();
+    // Fecha de modificación del directorio en la última lectura; cambia cuando se agrega un segmento.
+    private volatile FileTime scannedAt;
+
+    public LoanArchive(@Value("${application.loans.archive.directory:archive}") Path directory) {
+        this.directory = directory;
+        loadSegments();
+    }
+
+    /**
+     * Préstamo archivado: su JSON tal como lo responde la API y la versión que tenía (para el ETag).
+     */
+    public record ArchivedLoan(UUID id, long version, byte[] json) {
+    }
+
+    /**
+     * Escribe un segmento nuevo con los préstamos indicados y lo deja disponible para las búsquedas.
+     * Se escribe a un archivo temporal y se renombra al final, así nunca queda un segmento a medias.
+     */
+    public Path writeSegment(String name, List<ArchivedLoan> loans) throws IOException {
+        List<ArchivedLoan> sorted = new ArrayList<>(loans);
+        sorted.sort(BY_ID);
+        Files.createDirectories(directory);
+        Path target = directory.resolve("loans-" + name + SEGMENT_SUFFIX);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream indexOut = new DataOutputStream(index);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(TARGET_BLOCK_SIZE + 4096);
+            DataOutputStream blockOut = new DataOutputStream(block);
+            UUID firstInBlock = null;
+            int blocks = 0;
+            long offset = 0;
+
+            for (int i = 0; i < sorted.size(); i++) {
+                ArchivedLoan loan = sorted.get(i);
+                if (firstInBlock == null) {
+                    firstInBlock = loan.id();
+                }
+                writeId(blockOut, loan.id());
+                blockOut.writeLong(loan.version());
+                blockOut.writeInt(loan.json().length);
+                blockOut.write(loan.json());
+
+                if (block.size() >= TARGET_BLOCK_SIZE || i == sorted.size() - 1) {
+                    byte[] compressed = compress(block.toByteArray());
+                    ByteBuffer header = ByteBuffer.allocate(4).putInt(block.size()).flip();
+                    writeFully(channel, header);
+                    writeFully(channel, ByteBuffer.wrap(compressed));
+
+                    writeId(indexOut, firstInBlock);
+                    indexOut.writeLong(offset);
+                    indexOut.writeInt(compressed.length);
+                    offset += 4 + compressed.length;
+                    blocks++;
+                    block.reset();
+                    firstInBlock = null;
+                }
+            }
+
+            DataOutputStream trailer = new DataOutputStream(index);
+            writeId(trailer, sorted.isEmpty() ? new UUID(0, 0) : sorted.get(sorted.size() - 1).id());
+            trailer.writeInt(blocks);
+            trailer.writeLong(MAGIC);
+            writeFully(channel, ByteBuffer.wrap(index.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        register(target);
+        log.info("Archived {} loans into segment {}", sorted.size(), target.getFileName());
+        return target;
+    }
+
+    public Optional<ArchivedLoan> find(UUID loanId) {
+        return Optional.ofNullable(findAll(List.of(loanId)).get(loanId));
+    }
+
+    /**
+     * Busca varios préstamos en todos los segmentos; los que no están archivados no aparecen en el resultado.
+     */
+    public Map<UUID, ArchivedLoan> findAll(Collection<UUID> loanIds) {
+        Map<UUID, ArchivedLoan> found = new HashMap<>();
+        search(loanIds, found);
+        if (found.size() < loanIds.size() && loadNewSegments()) {
+            search(loanIds.stream().filter(loanId -> !found.containsKey(loanId)).toList(), found);
+        }
+        return found;
+    }
+
+    private void search(Collection<UUID> loanIds, Map<UUID, ArchivedLoan> found) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        try {
+            for (UUID loanId : loanIds) {
+                for (Segment segment : segments) {
+                    ArchivedLoan loan = segment.find(loanId);
+                    if (loan != null) {
+                        found.put(loanId, loan);
+                        break;
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the loan archive", ex);
+        }
+    }
+
+    private void loadSegments() {
+        loadNewSegments();
+        log.info("Loaded {} loan archive segments from {}", segments.size(), directory);
+    }
+
+    /**
+     * Carga los segmentos que otra instancia escribió desde la última lectura. Cuesta un stat del directorio
+     * si no cambió. Devuelve true si cargó alguno.
+     */
+    private synchronized boolean loadNewSegments() {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(directory);
+            if (modified.equals(scannedAt)) {
+                return false;
+            }
+            boolean added = false;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "loans-*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    added |= register(file);
+                }
+            }
+            // Un segmento que llega en el mismo tic del reloj del sistema de archivos no cambiaría la fecha: mientras
+            // la modificación sea reciente, la siguiente búsqueda fallida vuelve a listar.
+            scannedAt = modified.toInstant().isBefore(Instant.now().minus(MTIME_GRANULARITY)) ? modified : null;
+            return added;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not load the loan archive from " + directory, ex);
+        }
+    }
+
+    private boolean register(Path file) throws IOException {
+        if (!loaded.add(file.getFileName())) {
+            return false;
+        }
+        try {
+            segments.add(Segment.open(file));
+            return true;
+        } catch (IOException ex) {
+            loaded.remove(file.getFileName());
+            throw ex;
+        }
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            out.write(data);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void writeId(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Un segmento con su índice disperso en memoria: primer ID, offset y tamaño comprimido de cada bloque.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final UUID[] firstIds;
+        private final long[] offsets;
+        private final int[] lengths;
+        private final UUID lastId;
+
+        private Segment(Path file, UUID[] firstIds, long[] offsets, int[] lengths, UUID lastId) {
+            this.file = file;
+            this.firstIds = firstIds;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.lastId = lastId;
+        }
+
+        static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+                UUID lastId = new UUID(trailer.getLong(), trailer.getLong());
+                int blocks = trailer.getInt();
+                if (trailer.getLong() != MAGIC) {
+                    throw new IOException("Not a loan archive segment: " + file);
+                }
+
+                ByteBuffer index = read(channel, size - TRAILER_SIZE - (long) blocks * INDEX_ENTRY_SIZE, blocks * INDEX_ENTRY_SIZE);
+                UUID[] firstIds = new UUID[blocks];
+                long[] offsets = new long[blocks];
+                int[] lengths = new int[blocks];
+                for (int i = 0; i < blocks; i++) {
+                    firstIds[i] = new UUID(index.getLong(), index.getLong());
+                    offsets[i] = index.getLong();
+                    lengths[i] = index.getInt();
+                }
+                return new Segment(file, firstIds, offsets, lengths, lastId);
+            }
+        }
+
+        ArchivedLoan find(UUID loanId) throws IOException {
+            if (firstIds.length == 0 || loanId.compareTo(firstIds[0]) < 0 || loanId.compareTo(lastId) > 0) {
+                return null;
+            }
+            // Último bloque cuyo primer ID es menor o igual al buscado.
+            int low = 0;
+            int high = firstIds.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (firstIds[middle].compareTo(loanId) <= 0) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            DataInputStream records = new DataInputStream(new ByteArrayInputStream(readBlock(low)));
+            while (records.available() > 0) {
+                UUID id = new UUID(records.readLong(), records.readLong());
+                long version = records.readLong();
+                byte[] json = new byte[records.readInt()];
+                records.readFully(json);
+                int comparison = id.compareTo(loanId);
+                if (comparison == 0) {
+                    return new ArchivedLoan(id, version, json);
+                }
+                if (comparison > 0) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private byte[] readBlock(int block) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer data = read(channel, offsets[block], 4 + lengths[block]);
+                byte[] uncompressed = new byte[data.getInt()];
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(data);
+                    inflater.inflate(uncompressed);
+                } catch (DataFormatException ex) {
+                    throw new IOException("Corrupted block " + block + " in " + file, ex);
+                } finally {
+                    inflater.end();
+                }
+                return uncompressed;
+            }
+        }
+
+        private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of segment");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
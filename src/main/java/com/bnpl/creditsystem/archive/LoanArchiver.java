@@ -0,0 +1,165 @@
+package com.bnpl.creditsystem.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.entity.Loan;
+import com.bnpl.creditsystem.entity.LoanStatus;
+import com.bnpl.creditsystem.mapper.LoanJsonWriter;
+import com.bnpl.creditsystem.repository.InstallmentRepository;
+import com.bnpl.creditsystem.repository.LoanRepository;
+import com.bnpl.creditsystem.service.BatchJobLauncher;
+import com.bnpl.creditsystem.service.JobLeases;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mueve al archivo frío (LoanArchive) los préstamos COMPLETED con más de completed-older-than de antigüedad
+ * y los borra de la BD, en lotes de batch-size préstamos por segmento.
+ *
+ * El préstamo no guarda cuándo se completó, así que la antigüedad se mide desde createdAt; con el plan más
+ * largo (12 meses) conviene que completed-older-than sea de al menos un año más el margen deseado.
+ *
+ * Primero se escribe el segmento (con fsync) y después se borra de la BD: si el borrado falla el préstamo
+ * queda en los dos lados y las lecturas usan la BD, y la siguiente ejecución lo vuelve a archivar.
+ * Con sharding se repite en cada shard.
+ *
+ * Todas las instancias programan el archivado, pero solo corre en la que toma el lease "loan-archive" (JobLeases);
+ * el lease dura lease-duration y se renueva después de cada shard, así que debe cubrir el shard más lento.
+ */
+@Component
+@ConditionalOnProperty(name = "application.loans.archive.enabled", havingValue = "true")
+public class LoanArchiver {
+    private static final Logger log = LoggerFactory.getLogger(LoanArchiver.class);
+
+    static final String LEASE_NAME = "loan-archive";
+
+    private static final DateTimeFormatter SEGMENT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final LoanRepository loanRepository;
+    private final InstallmentRepository installmentRepository;
+    private final LoanJsonWriter loanJsonWriter;
+    private final LoanArchive loanArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final BatchJobLauncher batchJobLauncher;
+    private final JobLeases jobLeases;
+    private final Duration completedOlderThan;
+    private final Duration leaseDuration;
+    private final int batchSize;
+
+    public LoanArchiver(LoanRepository loanRepository,
+                        InstallmentRepository installmentRepository,
+                        LoanJsonWriter loanJsonWriter,
+                        LoanArchive loanArchive,
+                        TransactionTemplate transactionTemplate,
+                        ShardRouter shardRouter,
+                        BatchJobLauncher batchJobLauncher,
+                        JobLeases jobLeases,
+                        @Value("${application.loans.archive.completed-older-than:P400D}") Duration completedOlderThan,
+                        @Value("${application.loans.archive.batch-size:10000}") int batchSize,
+                        @Value("${application.loans.archive.lease-duration:PT6H}") Duration leaseDuration) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Archive batch-size must be at least 1");
+        }
+        this.loanRepository = loanRepository;
+        this.installmentRepository = installmentRepository;
+        this.loanJsonWriter = loanJsonWriter;
+        this.loanArchive = loanArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.batchJobLauncher = batchJobLauncher;
+        this.jobLeases = jobLeases;
+        this.completedOlderThan = completedOlderThan;
+        this.leaseDuration = leaseDuration;
+        this.batchSize = batchSize;
+    }
+
+    // Mueve lotes completos a disco: corre en BatchJobLauncher y no en el hilo del scheduler.
+    @Scheduled(fixedDelayString = "${application.loans.archive.interval:PT24H}")
+    public void archiveScheduled() {
+        batchJobLauncher.launch("loan-archive", this::archive);
+    }
+
+    public void archive() {
+        if (!jobLeases.tryAcquire(LEASE_NAME, leaseDuration)) {
+            log.info("Loan archive is running on another instance; skipping");
+            return;
+        }
+        try {
+            LocalDateTime createdBefore = LocalDateTime.now().minus(completedOlderThan);
+            for (String shard : shardRouter.shards()) {
+                int archived = shardRouter.callOnShard(shard, () -> archiveShard(shard, createdBefore));
+                if (archived > 0) {
+                    log.info("Archived {} completed loans from shard {}", archived, shard);
+                }
+                if (!jobLeases.tryAcquire(LEASE_NAME, leaseDuration)) {
+                    log.warn("Lost the loan archive lease after shard {}; stopping", shard);
+                    return;
+                }
+            }
+        } finally {
+            jobLeases.release(LEASE_NAME);
+        }
+    }
+
+    int archiveShard(String shard, LocalDateTime createdBefore) {
+        String runId = shard + "-" + LocalDateTime.now().format(SEGMENT_TIMESTAMP);
+        int archived = 0;
+        int segment = 0;
+        while (true) {
+            // Los préstamos archivados se borran, así que cada lote vuelve a pedir los primeros.
+            List<UUID> loanIds = loanRepository.findIdsByStatusAndCreatedAtBefore(
+                    LoanStatus.COMPLETED, createdBefore, PageRequest.of(0, batchSize));
+            if (loanIds.isEmpty()) {
+                return archived;
+            }
+
+            List<LoanArchive.ArchivedLoan> batch = new ArrayList<>(loanIds.size());
+            for (Loan loan : loanRepository.findAllWithInstallmentsByIdIn(loanIds)) {
+                batch.add(new LoanArchive.ArchivedLoan(loan.getId(), loan.getVersion(), toJson(loan)));
+            }
+            try {
+                loanArchive.writeSegment(runId + "-" + segment++, batch);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not write loan archive segment", ex);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                installmentRepository.deleteByLoanIdIn(loanIds);
+                loanRepository.deleteByIdIn(loanIds);
+            });
+            archived += loanIds.size();
+
+            if (loanIds.size() < batchSize) {
+                return archived;
+            }
+        }
+    }
+
+    private byte[] toJson(Loan loan) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try {
+            loanJsonWriter.write(loan, json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return json.toByteArray();
+    }
+}
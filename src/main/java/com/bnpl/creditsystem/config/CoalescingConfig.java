@@ -0,0 +1,49 @@
+package com.bnpl.creditsystem.config;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.service.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupadores de lecturas para los GET más consultados (ver SingleFlight).
+ */
+@Configuration
+public class CoalescingConfig {
+
+    @Value("${application.coalescing.window:PT0.5S}")
+    private Duration window;
+
+    @Value("${application.coalescing.maximum-size:10000}")
+    private long maximumSize;
+
+    // Versión de cada préstamo, para responder 304 sin cargar la entidad.
+    @Bean
+    public SingleFlight<UUID, Long> loanVersions(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("loan-version", window, maximumSize, meterRegistry);
+    }
+
+    // JSON ya serializado de cada préstamo, listo para copiarse a la respuesta.
+    @Bean
+    public SingleFlight<UUID, VersionedResponse<byte[]>> loanReads(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("loan", window, maximumSize, meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<UUID, Long> customerVersions(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("customer-version", window, maximumSize, meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("customer", window, maximumSize, meterRegistry);
+    }
+}
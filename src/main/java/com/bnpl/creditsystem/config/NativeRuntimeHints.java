@@ -0,0 +1,73 @@
+package com.bnpl.creditsystem.config;
+
+import java.util.List;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.entity.InstallmentScheduleConverter;
+import com.bnpl.creditsystem.entity.UuidV7Generator;
+
+/**
+ * Lo que la imagen nativa no puede descubrir sola por análisis estático: clases que las librerías cargan por nombre,
+ * archivos de ServiceLoader y tipos que se serializan fuera de los controllers. Spring AOT ya registra los beans,
+ * los controllers y las entidades; Caffeine e Hibernate traen su metadata en el GraalVM Reachability Metadata
+ * Repository (lo activa el native-maven-plugin). Lombok no necesita nada: solo existe al compilar.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * jjwt-impl resuelve sus builders y registros de algoritmos por nombre (Classes.newInstance / invokeStatic)
+     * desde jjwt-api, así que ninguna referencia directa los hace alcanzables.
+     */
+    static final List<String> JJWT_REFLECTIVE_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            // Serializador JSON que jjwt encuentra con ServiceLoader (jjwt-jackson).
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JJWT_REFLECTIVE_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        // Cache de segundo nivel: el proveedor JCache se pide por nombre y lee su reference.conf al crearse.
+        hints.reflection().registerType(TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("META-INF/services/javax.cache.spi.CachingProvider");
+        hints.resources().registerPattern("reference.conf");
+
+        // Hibernate instancia el generador de @UuidV7 y el converter de las cuotas con reflexión.
+        hints.reflection().registerType(UuidV7Generator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(InstallmentScheduleConverter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Payloads del outbox: se serializan con el ObjectMapper fuera de un controller, así que AOT no los ve.
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), LoanResponse.class, CustomerResponse.class);
+    }
+}
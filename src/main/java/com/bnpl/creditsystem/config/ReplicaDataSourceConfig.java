@@ -0,0 +1,79 @@
+package com.bnpl.creditsystem.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.bnpl.creditsystem.datasource.ReadYourWritesTracker;
+import com.bnpl.creditsystem.datasource.ReplicaLagMonitor;
+import com.bnpl.creditsystem.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Réplica de lectura (opcional). Con application.datasource.replica.enabled=true el DataSource de la
+ * aplicación pasa a ser un ReplicaRoutingDataSource: las transacciones de solo lectura van a la réplica
+ * y el resto al primario (spring.datasource.*). Los servicios solo indican qué customers y préstamos
+ * escriben y leen (ReadYourWritesTracker) para leer del primario lo que se acaba de escribir.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("application.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${application.datasource.replica.url}") String url,
+                                              @Value("${application.datasource.replica.username:}") String username,
+                                              @Value("${application.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        // Si no se indican, se usan las mismas credenciales que el primario.
+        dataSource.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+        dataSource.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${application.datasource.replica.lag-query}") String lagQuery,
+                                               @Value("${application.datasource.replica.max-lag:PT2S}") Duration maxLag,
+                                               @Value("${application.datasource.replica.max-check-age:PT5S}") Duration maxCheckAge) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag, maxCheckAge);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${application.datasource.replica.read-your-writes:PT5S}") Duration stickiness) {
+        return new ReadYourWritesTracker(stickiness, 100_000);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, readYourWritesTracker);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
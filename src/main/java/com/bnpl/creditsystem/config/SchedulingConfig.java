@@ -0,0 +1,10 @@
+package com.bnpl.creditsystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita los procesos periódicos (@Scheduled) de la aplicación, como la reconciliación de proyecciones.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,51 @@
+package com.bnpl.creditsystem.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bnpl.creditsystem.entity.Customer;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Cache de segundo nivel de Hibernate (JCache sobre Caffeine). Las regiones se crean aquí con su tamaño
+ * y expiración, y el CacheManager se le pasa a Hibernate; una región que no esté creada hace fallar el arranque
+ * (hibernate.javax.cache.missing_cache_strategy=fail) en lugar de crearse sin límite.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${application.customers.cache.maximum-size:100000}") long maximumSize,
+                                              @Value("${application.customers.cache.ttl:PT10M}") Duration ttl) {
+        // Un CacheManager propio (URI única) en lugar del compartido del proveedor: así cerrar un contexto
+        // de Spring no cierra las regiones de otro (p. ej. entre contextos de prueba).
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        CaffeineConfiguration<Object, Object> customers = new CaffeineConfiguration<>();
+        customers.setMaximumSize(OptionalLong.of(maximumSize));
+        // La expiración acota cuánto puede durar una copia vieja si otra instancia modificó al customer;
+        // aun así, la actualización con una versión vieja falla por el bloqueo optimista.
+        customers.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        customers.setStatisticsEnabled(true);
+        cacheManager.createCache(Customer.CACHE_REGION, customers);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
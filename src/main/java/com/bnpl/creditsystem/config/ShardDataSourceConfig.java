@@ -0,0 +1,141 @@
+package com.bnpl.creditsystem.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.bnpl.creditsystem.datasource.LoanShardDirectory;
+import com.bnpl.creditsystem.datasource.ShardRebalancer;
+import com.bnpl.creditsystem.datasource.ShardRing;
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sharding por customer (opcional). Con application.datasource.shards.enabled=true cada customer, sus
+ * préstamos, cuotas y eventos viven en uno de N shards elegido por hash consistente de su ID, y el
+ * DataSource de la aplicación pasa a ser un ShardRoutingDataSource. Sin sharding el ShardRouter no hace nada.
+ */
+@Configuration
+public class ShardDataSourceConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.datasource.shards.enabled", havingValue = "false", matchIfMissing = true)
+    public ShardRouter unshardedRouter() {
+        return ShardRouter.unsharded();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "application.datasource.shards.enabled", havingValue = "true")
+    static class Sharded {
+        private static final Logger log = LoggerFactory.getLogger(ShardDataSourceConfig.class);
+
+        /**
+         * Un pool por shard: application.datasource.shards.nodes.<nombre>.url (y opcionalmente username/password;
+         * si no se indican se usan las de spring.datasource). El orden de la lista no afecta al anillo.
+         */
+        @Bean
+        public Map<String, DataSource> shardDataSources(DataSourceProperties properties, Environment environment,
+                                                        @Value("${application.datasource.shards.names}") List<String> names,
+                                                        @Value("${application.datasource.shards.pool-size:10}") int poolSize,
+                                                        @Value("${application.datasource.replica.enabled:false}") boolean replicaEnabled) {
+            if (replicaEnabled) {
+                throw new IllegalStateException("Read replicas are not supported together with sharding");
+            }
+            Map<String, DataSource> shards = new LinkedHashMap<>();
+            for (String name : names) {
+                String prefix = "application.datasource.shards.nodes." + name + ".";
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName("shard-" + name);
+                dataSource.setDriverClassName(properties.determineDriverClassName());
+                dataSource.setJdbcUrl(environment.getRequiredProperty(prefix + "url"));
+                dataSource.setUsername(environment.getProperty(prefix + "username", properties.determineUsername()));
+                dataSource.setPassword(environment.getProperty(prefix + "password", properties.determinePassword()));
+                dataSource.setMaximumPoolSize(poolSize);
+                shards.put(name, dataSource);
+            }
+            return shards;
+        }
+
+        @Bean
+        public ShardRing shardRing(@Value("${application.datasource.shards.names}") List<String> names,
+                                   @Value("${application.datasource.shards.virtual-nodes:128}") int virtualNodes) {
+            return new ShardRing(names, virtualNodes);
+        }
+
+        /**
+         * El directorio vive en su propia BD (directory-url) o, si no se indica, en el primer shard.
+         */
+        @Bean
+        public LoanShardDirectory loanShardDirectory(@Qualifier("shardDataSources") Map<String, DataSource> shards,
+                                                     DataSourceProperties properties,
+                                                     @Value("${application.datasource.shards.directory-url:}") String directoryUrl,
+                                                     @Value("${application.datasource.shards.directory-cache-size:100000}") long cacheSize) {
+            DataSource dataSource;
+            if (directoryUrl.isEmpty()) {
+                dataSource = shards.values().iterator().next();
+            } else {
+                HikariDataSource directoryDataSource = new HikariDataSource();
+                directoryDataSource.setPoolName("shard-directory");
+                directoryDataSource.setDriverClassName(properties.determineDriverClassName());
+                directoryDataSource.setJdbcUrl(directoryUrl);
+                directoryDataSource.setUsername(properties.determineUsername());
+                directoryDataSource.setPassword(properties.determinePassword());
+                dataSource = directoryDataSource;
+            }
+            LoanShardDirectory directory = new LoanShardDirectory(dataSource, cacheSize);
+            directory.createTableIfMissing();
+            return directory;
+        }
+
+        @Bean
+        public ShardRouter shardRouter(ShardRing shardRing, LoanShardDirectory loanShardDirectory) {
+            return new ShardRouter(shardRing, loanShardDirectory);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("shardDataSources") Map<String, DataSource> shards,
+                                     @Value("${application.datasource.shards.names}") List<String> names) {
+            ShardRoutingDataSource routing = new ShardRoutingDataSource(shards, names.get(0));
+            routing.afterPropertiesSet();
+            return new LazyConnectionDataSourceProxy(routing);
+        }
+
+        /**
+         * Modo herramienta: con application.datasource.shards.rebalance=true la aplicación mueve los customers
+         * que no están en su shard dueño y termina. Con rebalance-dry-run=true solo reporta cuántos movería.
+         */
+        @Bean
+        @ConditionalOnProperty(name = "application.datasource.shards.rebalance", havingValue = "true")
+        public ApplicationRunner shardRebalanceRunner(@Qualifier("shardDataSources") Map<String, DataSource> shards,
+                                                      ShardRing shardRing,
+                                                      ApplicationContext context,
+                                                      @Value("${application.datasource.shards.rebalance-dry-run:false}") boolean dryRun) {
+            return args -> {
+                ShardRebalancer.Result result = new ShardRebalancer(shards, shardRing).rebalance(dryRun);
+                log.info("Shard rebalance {}: {} customers scanned, {} {}", dryRun ? "dry run finished" : "finished",
+                        result.scannedCustomers(), result.movedCustomers(), dryRun ? "would move" : "moved");
+                System.exit(SpringApplication.exit(context));
+            };
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.bnpl.creditsystem.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bnpl.creditsystem.dto.CashFlowResponse;
+
+import com.bnpl.creditsystem.service.CashFlowService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final CashFlowService cashFlowService;
+
+    /**
+     * @GetMapping Maneja las peticiones HTTP GET a v1/analytics/cashflow
+     * @param days número de días a proyectar a partir de hoy (90 por defecto)
+     * @return regresa el ingreso esperado por día según las cuotas pendientes
+     */
+    @GetMapping("/cashflow")
+    public ResponseEntity<CashFlowResponse> getCashFlow(@RequestParam(name = "days", defaultValue = "90") int days) {
+        return ResponseEntity.ok(cashFlowService.getProjectedInflows(days));
+    }
+}
@@ -0,0 +1,54 @@
+package com.bnpl.creditsystem.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bnpl.creditsystem.dto.BatchGetRequest;
+import com.bnpl.creditsystem.dto.BatchGetResponse;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+
+import com.bnpl.creditsystem.service.CustomerService;
+import com.bnpl.creditsystem.service.LoanService;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Endpoints de consulta múltiple ("recurso:batchGet"). Viven en su propio controlador porque
+ * el sufijo con ":" no se puede combinar con el @RequestMapping de LoanController/CustomerController
+ * (Spring agregaría una "/" entre ambos).
+ */
+@RestController
+@RequiredArgsConstructor
+public class BatchGetController {
+
+    private final LoanService loanService;
+    private final CustomerService customerService;
+
+    /**
+     * @PostMapping Maneja las peticiones HTTP POST a /v1/loans:batchGet.
+     * Devuelve los préstamos solicitados en el orden de la petición; los que no existen vienen con found = false.
+     * La respuesta se escribe directamente al stream (ver LoanJsonWriter).
+     */
+    @PostMapping("/v1/loans:batchGet")
+    public void batchGetLoans(@Valid @RequestBody BatchGetRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        loanService.writeLoansByIds(request.getIds(), response.getOutputStream());
+    }
+
+    /**
+     * @PostMapping Maneja las peticiones HTTP POST a /v1/customers:batchGet.
+     * Devuelve los customers solicitados en el orden de la petición; los que no existen vienen con found = false.
+     */
+    @PostMapping("/v1/customers:batchGet")
+    public ResponseEntity<BatchGetResponse<CustomerResponse>> batchGetCustomers(@Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(customerService.findCustomersByIds(request.getIds()));
+    }
+}
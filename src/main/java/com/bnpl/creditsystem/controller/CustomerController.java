@@ -11,11 +11,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.bnpl.creditsystem.dto.CustomerRequest;
 import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.CustomerSummaryResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 
 import com.bnpl.creditsystem.service.CustomerService;
 
@@ -49,9 +52,31 @@ public class CustomerController {
         return ResponseEntity.created(location).body(customerResponse);
     }
 
+    /**
+     * @GetMapping Maneja las peticiones HTTP GET a v1/customers/{customerId}
+     * Devuelve un ETag con la versión del customer. Si el header If-None-Match coincide con la versión
+     * actual, responde 304 Not Modified sin cargar la entidad.
+     */
     @GetMapping({"/{customerId}"})
-    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable("customerId") UUID customerId) {
-        CustomerResponse customerResponse = customerService.findCustomerById(customerId);
-        return ResponseEntity.ok(customerResponse);
+    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable("customerId") UUID customerId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(ETags.of(customerService.findCustomerVersion(customerId)))) {
+            return null; // Spring ya preparó la respuesta 304.
+        }
+        VersionedResponse<CustomerResponse> customer = customerService.findVersionedCustomerById(customerId);
+        return ResponseEntity.ok().eTag(ETags.of(customer.version())).body(customer.body());
+    }
+
+    /**
+     * @GetMapping Maneja las peticiones HTTP GET a v1/customers/{customerId}/summary
+     * Crédito usado, préstamos abiertos, próxima fecha de pago y saldo pendiente, leídos de una sola fila.
+     * El ETag es la versión del resumen, que cambia con cada préstamo o corrección.
+     */
+    @GetMapping("/{customerId}/summary")
+    public ResponseEntity<CustomerSummaryResponse> getCustomerSummary(@PathVariable("customerId") UUID customerId, WebRequest webRequest) {
+        VersionedResponse<CustomerSummaryResponse> summary = customerService.findCustomerSummary(customerId);
+        if (webRequest.checkNotModified(ETags.of(summary.version()))) {
+            return null; // Spring ya preparó la respuesta 304.
+        }
+        return ResponseEntity.ok().eTag(ETags.of(summary.version())).body(summary.body());
     }
-}
\ No newline at end of file
+}
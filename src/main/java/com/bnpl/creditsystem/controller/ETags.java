@@ -0,0 +1,14 @@
+package com.bnpl.creditsystem.controller;
+
+/**
+ * ETags fuertes a partir de la versión (@Version) de una entidad.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+}
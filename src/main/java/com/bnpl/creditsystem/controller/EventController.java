@@ -0,0 +1,47 @@
+package com.bnpl.creditsystem.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bnpl.creditsystem.dto.EventPageResponse;
+
+import com.bnpl.creditsystem.service.EventFeedService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final EventFeedService eventFeedService;
+
+    /**
+     * @GetMapping Maneja las peticiones HTTP GET a v1/events con Accept: text/event-stream.
+     * Abre un stream SSE que empieza después del offset indicado. Al reconectar, el header
+     * Last-Event-ID (el último número de secuencia recibido) tiene prioridad sobre el parámetro.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(name = "after", defaultValue = "0") long after,
+                                   @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return eventFeedService.subscribe(lastEventId != null ? lastEventId : after);
+    }
+
+    /**
+     * @GetMapping Maneja las peticiones HTTP GET a v1/events que esperan JSON.
+     * Devuelve una página de eventos posteriores al offset y el offset para pedir la siguiente.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EventPageResponse> getEvents(@RequestParam(name = "after", defaultValue = "0") long after,
+                                                       @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok(eventFeedService.readEvents(after, limit));
+    }
+}
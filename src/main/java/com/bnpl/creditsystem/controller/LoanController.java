@@ -1,8 +1,12 @@
 package com.bnpl.creditsystem.controller;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.UUID;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,14 +15,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
 import com.bnpl.creditsystem.dto.LoanRequest;
 import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 
+import com.bnpl.creditsystem.service.LoanGroupCommitter;
 import com.bnpl.creditsystem.service.LoanService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -28,6 +37,7 @@ import lombok.RequiredArgsConstructor;
 public class LoanController {
 
     private final LoanService loanService; // Inyectamos el contrato del servicio.
+    private final ObjectProvider<LoanGroupCommitter> loanGroupCommitter; // Solo existe con group commit activado.
 
     /**
      * @RequestBody convierte el JSON que nos llega en el cuerpo de la petición a un objeto LoanRequest.
@@ -35,10 +45,12 @@ public class LoanController {
      * @PostMapping manejará las peticiones HTTP POST a /v1/loan.
      * Al igual que antes, el controlador solo delega el trabajo al servicio.
      * Devuelve el código de estado HTTP 201 Created y en el body el resultado del servicio.
+     * Con group commit la solicitud espera a que su lote haga commit (ver LoanGroupCommitter).
     */
     @PostMapping
     public ResponseEntity<LoanResponse> createLoan(@Valid @RequestBody LoanRequest request) {
-        LoanResponse loanResponse = loanService.createLoan(request);
+        LoanGroupCommitter groupCommitter = loanGroupCommitter.getIfAvailable();
+        LoanResponse loanResponse = groupCommitter != null ? groupCommitter.createLoan(request) : loanService.createLoan(request);
 
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -49,14 +61,32 @@ public class LoanController {
         return ResponseEntity.created(location).body(loanResponse);
     }
 
+    /**
+     * @PostMapping manejará las peticiones HTTP POST a /v1/loans/quote.
+     * Calcula el plan de pagos que tendría el préstamo sin crearlo ni descontar crédito.
+     * Devuelve el código de estado HTTP 200 OK con la cotización.
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<LoanQuoteResponse> quoteLoan(@Valid @RequestBody LoanRequest request) {
+        return ResponseEntity.ok(loanService.quoteLoan(request));
+    }
+
     /**
      * @GetMapping Maneja las peticiones HTTP GET a v1/loan/{loanid}
+     * Devuelve un ETag con la versión del préstamo. Si el header If-None-Match coincide con la versión
+     * actual, responde 304 Not Modified sin cargar la entidad ni generar el JSON.
+     * La respuesta se escribe directamente al stream (ver LoanJsonWriter) en lugar de devolver un LoanResponse.
      * @param loanId toma el ID del prestamo para consultar su información
-     * @return regresa el objeto loan incluido su estatus
+     * @param response respuesta HTTP donde se escribe el objeto loan incluido su estatus
      */
     @GetMapping({"/{loanId}"})
-    public ResponseEntity<LoanResponse> getLoanById(@PathVariable("loanId") UUID loanId){
-        LoanResponse loanResponse = loanService.findLoanById(loanId);
-        return ResponseEntity.ok(loanResponse);
+    public void getLoanById(@PathVariable("loanId") UUID loanId, WebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (webRequest.checkNotModified(ETags.of(loanService.findLoanVersion(loanId)))) {
+            return;
+        }
+        VersionedResponse<byte[]> loan = loanService.findLoanJsonById(loanId);
+        response.setHeader(HttpHeaders.ETAG, ETags.of(loan.version()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(loan.body());
     }
-}
\ No newline at end of file
+}
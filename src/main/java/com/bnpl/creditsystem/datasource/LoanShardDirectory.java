@@ -0,0 +1,70 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Directorio de préstamos: relaciona cada préstamo con su customer para que las consultas que solo
+ * traen el ID del préstamo (GET /v1/loans/{id}, batchGet) sepan a qué shard ir.
+ *
+ * Se guarda el customer y no el shard: la relación nunca cambia, así que sobrevive a un rebalanceo
+ * (el shard se vuelve a calcular con el anillo) y se puede cachear sin invalidaciones.
+ * Solo se cachean las entradas que existen; un préstamo recién creado no queda oculto por un "no existe".
+ */
+public class LoanShardDirectory {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<UUID, UUID> customerIdsByLoanId;
+
+    public LoanShardDirectory(DataSource dataSource, long cacheSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.customerIdsByLoanId = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.getJdbcTemplate().execute(
+                "create table if not exists loan_directory (loan_id uuid primary key, customer_id uuid not null)");
+    }
+
+    /**
+     * Registra un préstamo nuevo. Se llama antes del commit en el shard: si falla, el préstamo no se
+     * crea; si después falla el commit, queda una entrada huérfana que solo produce un 404.
+     */
+    public void register(UUID loanId, UUID customerId) {
+        jdbcTemplate.update("insert into loan_directory (loan_id, customer_id) values (:loanId, :customerId)",
+                Map.of("loanId", loanId, "customerId", customerId));
+        customerIdsByLoanId.put(loanId, customerId);
+    }
+
+    public Optional<UUID> findCustomerId(UUID loanId) {
+        return Optional.ofNullable(findCustomerIds(Set.of(loanId)).get(loanId));
+    }
+
+    /**
+     * Resuelve varios préstamos con una sola consulta (IN) para los que no están en el cache.
+     */
+    public Map<UUID, UUID> findCustomerIds(Collection<UUID> loanIds) {
+        return customerIdsByLoanId.getAll(loanIds, this::load);
+    }
+
+    private Map<UUID, UUID> load(Set<? extends UUID> loanIds) {
+        Map<UUID, UUID> customerIds = new HashMap<>();
+        jdbcTemplate.query("select loan_id, customer_id from loan_directory where loan_id in (:loanIds)",
+                Map.of("loanIds", loanIds),
+                row -> {
+                    customerIds.put(row.getObject("loan_id", UUID.class), row.getObject("customer_id", UUID.class));
+                });
+        return customerIds;
+    }
+}
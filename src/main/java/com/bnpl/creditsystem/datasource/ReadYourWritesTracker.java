@@ -0,0 +1,91 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Recuerda qué customers y préstamos se escribieron recientemente (p. ej. al crear un préstamo) para que
+ * sus lecturas vayan al primario durante una ventana corta, sin importar quién las haga: la réplica puede
+ * no tener todavía el cambio, y una lectura vieja también llenaría el micro-cache de SingleFlight.
+ * Las lecturas de otros registros siguen yendo a la réplica aunque quien las haga escriba sin parar.
+ *
+ * - recordWrite: lo llama el servicio que escribió, con los IDs afectados; cuentan a partir del commit.
+ * - callReading: ejecuta una lectura (con sus propias transacciones) indicando qué IDs consulta,
+ *   igual que ShardRouter.callOnShard indica el shard.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Collection<UUID>> CURRENT_READ = new ThreadLocal<>();
+
+    private final Cache<UUID, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(Duration stickiness, long maximumSize) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public static <T> T callReading(UUID id, Supplier<T> action) {
+        return callReading(List.of(id), action);
+    }
+
+    public static <T> T callReading(Collection<UUID> ids, Supplier<T> action) {
+        Collection<UUID> previous = CURRENT_READ.get();
+        CURRENT_READ.set(ids);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_READ.remove();
+            } else {
+                CURRENT_READ.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Marca los IDs como recién escritos. Dentro de una transacción se marcan al hacer commit: antes el
+     * primario tampoco los muestra a otras conexiones, y un rollback no debe desviar lecturas.
+     */
+    public void recordWrite(UUID... ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(ids);
+            }
+        });
+    }
+
+    public boolean mustReadFromPrimary() {
+        Collection<UUID> ids = CURRENT_READ.get();
+        if (ids == null) {
+            return false;
+        }
+        for (UUID id : ids) {
+            if (recentWrites.getIfPresent(id) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remember(UUID... ids) {
+        for (UUID id : ids) {
+            recentWrites.put(id, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mide periódicamente el retraso de la réplica. Si supera el máximo permitido o la consulta falla,
+ * las lecturas se envían al primario hasta que la réplica se ponga al día.
+ *
+ * Una medición solo vale durante maxCheckAge: si el hilo del scheduler está ocupado o la consulta se cuelga,
+ * la última lectura "usable" deja de valer y las lecturas van al primario. La consulta tiene el mismo límite
+ * de tiempo, así una réplica que no responde cuenta como atrasada.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final long maxCheckAgeNanos;
+
+    // Hasta la primera medición las lecturas van al primario.
+    private volatile boolean replicaUsable;
+    // System.nanoTime() de la última medición.
+    private volatile long measuredAt;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, Duration maxCheckAge) {
+        this.replica = new JdbcTemplate(replica);
+        // En segundos (mínimo 1): lo que permite el driver JDBC.
+        this.replica.setQueryTimeout((int) Math.max(1, (maxCheckAge.toMillis() + 999) / 1000));
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.maxCheckAgeNanos = maxCheckAge.toNanos();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable && System.nanoTime() - measuredAt <= maxCheckAgeNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${application.datasource.replica.lag-check-interval:PT1S}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lagSeconds = replica.queryForObject(lagQuery, Double.class);
+            usable = lagSeconds != null && lagSeconds <= maxLagSeconds;
+            if (!usable && replicaUsable) {
+                log.warn("Replica lag {}s exceeds {}s, routing reads to the primary", lagSeconds, maxLagSeconds);
+            }
+        } catch (DataAccessException ex) {
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica lag check failed, routing reads to the primary: {}", ex.getMessage());
+            }
+        }
+        if (usable && !replicaUsable) {
+            log.info("Replica is within {}s of the primary, routing read-only transactions to it", maxLagSeconds);
+        }
+        measuredAt = System.nanoTime();
+        replicaUsable = usable;
+    }
+}
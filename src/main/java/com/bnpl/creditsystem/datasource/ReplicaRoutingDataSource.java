@@ -0,0 +1,45 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envía las transacciones @Transactional(readOnly = true) a la réplica y todo lo demás al primario.
+ * Las lecturas regresan al primario si la réplica está atrasada (ReplicaLagMonitor) o si consultan un
+ * customer o préstamo que se acaba de escribir (ReadYourWritesTracker), para que se vea el cambio.
+ *
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión se pide hasta el primer
+ * statement, cuando la transacción ya sabe si es de solo lectura.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (readYourWritesTracker.mustReadFromPrimary() || !replicaLagMonitor.isReplicaUsable()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
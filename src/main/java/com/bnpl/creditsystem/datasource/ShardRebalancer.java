@@ -0,0 +1,132 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Herramienta de rebalanceo: recorre los customers de cada shard y mueve a su shard dueño (según el anillo
+ * actual) los que quedaron en otro, p. ej. después de agregar un shard a la configuración.
+ *
+ * Cada customer se mueve con sus préstamos, cuotas y resumen de crédito: primero se copia al destino en una
+ * transacción y después se borra del origen en otra. Si el proceso se interrumpe, volver a ejecutarlo es seguro:
+ * un customer que ya existe en el destino no se vuelve a copiar, solo se borra del origen.
+ *
+ * De sus eventos del outbox (los del customer y los de sus préstamos) se mueven los que el relay aún no publicó;
+ * en el destino reciben una secuencia nueva y se publican desde ahí. Los ya publicados se quedan en el origen
+ * como historial del feed hasta que los borra la retención.
+ *
+ * Debe ejecutarse sin escrituras en curso (ventana de mantenimiento): un préstamo creado en el origen
+ * después de copiar al customer se perdería al borrarlo.
+ */
+public class ShardRebalancer {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    // Eventos del customer y de sus préstamos que el relay aún no publica.
+    private static final String PENDING_EVENTS = "from outbox_events where feed_position is null "
+            + "and (aggregate_id = ? or aggregate_id in (select id from loans where customer_id = ?))";
+
+    private final Map<String, DataSource> shards;
+    private final ShardRing ring;
+
+    public ShardRebalancer(Map<String, DataSource> shards, ShardRing ring) {
+        this.shards = shards;
+        this.ring = ring;
+    }
+
+    public record Result(long scannedCustomers, long movedCustomers) {
+    }
+
+    /**
+     * @param dryRun si es true solo cuenta los customers que se moverían.
+     */
+    public Result rebalance(boolean dryRun) {
+        long scanned = 0;
+        long moved = 0;
+        for (Map.Entry<String, DataSource> source : shards.entrySet()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(source.getValue());
+            UUID after = null;
+            while (true) {
+                // Paginación por llave (keyset) para no cargar todos los IDs del shard en memoria.
+                List<UUID> customerIds = after == null
+                        ? jdbcTemplate.queryForList("select id from customers order by id limit " + PAGE_SIZE, UUID.class)
+                        : jdbcTemplate.queryForList("select id from customers where id > ? order by id limit " + PAGE_SIZE, UUID.class, after);
+                for (UUID customerId : customerIds) {
+                    scanned++;
+                    String owner = ring.shardFor(customerId);
+                    if (!owner.equals(source.getKey())) {
+                        if (!dryRun) {
+                            moveCustomer(customerId, source.getValue(), shards.get(owner));
+                        }
+                        moved++;
+                        log.debug("Customer {} {} from shard {} to {}", customerId, dryRun ? "would move" : "moved", source.getKey(), owner);
+                    }
+                }
+                if (customerIds.size() < PAGE_SIZE) {
+                    break;
+                }
+                after = customerIds.get(customerIds.size() - 1);
+            }
+            log.info("Shard {} rebalanced: {} customers scanned so far, {} {}", source.getKey(), scanned, moved, dryRun ? "to move" : "moved");
+        }
+        return new Result(scanned, moved);
+    }
+
+    private void moveCustomer(UUID customerId, DataSource source, DataSource target) {
+        JdbcTemplate from = new JdbcTemplate(source);
+        JdbcTemplate to = new JdbcTemplate(target);
+
+        new TransactionTemplate(new DataSourceTransactionManager(target)).executeWithoutResult(status -> {
+            Integer existing = to.queryForObject("select count(*) from customers where id = ?", Integer.class, customerId);
+            if (existing != null && existing > 0) {
+                return;
+            }
+            copyRows(from, to, "customers", "select * from customers where id = ?", customerId);
+            copyRows(from, to, "loans", "select * from loans where customer_id = ?", customerId);
+            copyRows(from, to, "installments",
+                    "select i.* from installments i join loans l on l.id = i.loan_id where l.customer_id = ?", customerId);
+            copyRows(from, to, "customer_credit_summaries", "select * from customer_credit_summaries where customer_id = ?", customerId);
+            // Sin sequence ni feed_position: el destino asigna los suyos.
+            for (Map<String, Object> event : from.queryForList(
+                    "select event_type, aggregate_id, payload, created_at " + PENDING_EVENTS + " order by sequence", customerId, customerId)) {
+                to.update("insert into outbox_events (event_type, aggregate_id, payload, created_at) values (?, ?, ?, ?)",
+                        event.values().toArray());
+            }
+        });
+
+        new TransactionTemplate(new DataSourceTransactionManager(source)).executeWithoutResult(status -> {
+            from.update("delete " + PENDING_EVENTS, customerId, customerId);
+            from.update("delete from customer_credit_summaries where customer_id = ?", customerId);
+            from.update("delete from installments where loan_id in (select id from loans where customer_id = ?)", customerId);
+            from.update("delete from loans where customer_id = ?", customerId);
+            from.update("delete from customers where id = ?", customerId);
+        });
+    }
+
+    /**
+     * Copia las filas tal cual, columna por columna, sin depender del mapeo de las entidades.
+     */
+    private static void copyRows(JdbcTemplate from, JdbcTemplate to, String table, String select, UUID customerId) {
+        for (Map<String, Object> row : from.queryForList(select, customerId)) {
+            StringJoiner columns = new StringJoiner(", ");
+            StringJoiner placeholders = new StringJoiner(", ");
+            for (String column : row.keySet()) {
+                columns.add(column);
+                placeholders.add("?");
+            }
+            to.update("insert into " + table + " (" + columns + ") values (" + placeholders + ")", row.values().toArray());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Anillo de hash consistente: asigna cada customer a un shard según el hash de su ID.
+ * Cada shard ocupa varios puntos del anillo (nodos virtuales) para repartir la carga de forma pareja;
+ * al agregar un shard solo se mueven al nuevo los customers de los tramos que le tocan (~1/N).
+ *
+ * La posición de un shard depende de su nombre, no del orden en la lista, así que renombrar un shard
+ * equivale a reemplazarlo.
+ */
+public class ShardRing {
+
+    private final List<String> shards;
+    // Puntos del anillo ordenados y el shard dueño de cada uno (mismos índices).
+    private final long[] points;
+    private final String[] owners;
+
+    public ShardRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard and one virtual node per shard");
+        }
+        this.shards = List.copyOf(shards);
+
+        long[][] entries = new long[shards.size() * virtualNodes][];
+        int next = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                entries[next++] = new long[] {hash(shards.get(shard) + "#" + node), shard};
+            }
+        }
+        Arrays.sort(entries, (left, right) -> Long.compare(left[0], right[0]));
+
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = shards.get((int) entries[i][1]);
+        }
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * Shard dueño del customer: el primer punto del anillo igual o mayor al hash del ID (circular).
+     */
+    public String shardFor(UUID customerId) {
+        long hash = mix(customerId.getMostSignificantBits() ^ mix(customerId.getLeastSignificantBits()));
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    private static long hash(String value) {
+        // FNV-1a de 64 bits con mezcla final para que nombres parecidos queden lejos en el anillo.
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizador de MurmurHash3 (fmix64). Los UUID v7 empiezan con el timestamp, así que hay que
+     * mezclar todos los bits para que los customers de un mismo periodo no caigan en el mismo shard.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
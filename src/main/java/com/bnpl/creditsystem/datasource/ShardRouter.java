@@ -0,0 +1,170 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decide en qué shard se ejecuta el trabajo de base de datos del hilo actual.
+ * ShardRoutingDataSource lee el shard elegido cuando la transacción pide su primera conexión,
+ * así que el shard debe elegirse antes del primer query de la transacción:
+ *
+ * - bindToCustomer: dentro de una transacción (@Transactional), fija el shard del customer hasta que termine.
+ * - callOnCustomerShard / callOnLoanShard / callOnShard: ejecutan una acción (con sus propias
+ *   transacciones, p. ej. un método de repositorio) en un shard y después restauran el anterior.
+ *
+ * Sin sharding (unsharded) todos los métodos ejecutan la acción directamente sobre el único DataSource.
+ */
+public class ShardRouter {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final ShardRing ring;
+    private final LoanShardDirectory directory;
+
+    public ShardRouter(ShardRing ring, LoanShardDirectory directory) {
+        this.ring = ring;
+        this.directory = directory;
+    }
+
+    public static ShardRouter unsharded() {
+        return new ShardRouter(null, null);
+    }
+
+    /**
+     * Shard elegido para el hilo actual, o null si no se eligió ninguno.
+     */
+    static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public boolean isSharded() {
+        return ring != null;
+    }
+
+    public List<String> shards() {
+        return isSharded() ? ring.shards() : List.of(DEFAULT_SHARD);
+    }
+
+    public String shardForCustomer(UUID customerId) {
+        return isSharded() ? ring.shardFor(customerId) : DEFAULT_SHARD;
+    }
+
+    /**
+     * Fija la transacción actual al shard del customer. Una transacción solo puede usar un shard.
+     */
+    public void bindToCustomer(UUID customerId) {
+        if (!isSharded()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Binding to a shard requires an active transaction");
+        }
+        String shard = ring.shardFor(customerId);
+        String previous = CURRENT_SHARD.get();
+        if (shard.equals(previous)) {
+            return;
+        }
+        if (previous != null && TransactionSynchronizationManager.hasResource(ShardRouter.class)) {
+            throw new IllegalStateException(String.format("Transaction is already bound to shard %s, cannot switch to %s", previous, shard));
+        }
+        CURRENT_SHARD.set(shard);
+        TransactionSynchronizationManager.bindResource(ShardRouter.class, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ShardRouter.class);
+                restore(previous);
+            }
+        });
+    }
+
+    public <T> T callOnCustomerShard(UUID customerId, Supplier<T> action) {
+        return isSharded() ? callOnShard(ring.shardFor(customerId), action) : action.get();
+    }
+
+    /**
+     * Ejecuta la acción en el shard del préstamo (según el directorio). Si el préstamo no está en el
+     * directorio no existe en ningún shard y se devuelve vacío sin consultar.
+     */
+    public <T> Optional<T> callOnLoanShard(UUID loanId, Supplier<Optional<T>> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        Optional<UUID> customerId = directory.findCustomerId(loanId);
+        return customerId.isPresent() ? callOnShard(ring.shardFor(customerId.get()), action) : Optional.empty();
+    }
+
+    public <T> T callOnShard(String shard, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Agrupa IDs de customers por shard, conservando el orden de la petición dentro de cada grupo.
+     */
+    public Map<String, List<UUID>> groupCustomersByShard(Collection<UUID> customerIds) {
+        if (!isSharded()) {
+            return Map.of(DEFAULT_SHARD, new ArrayList<>(customerIds));
+        }
+        Map<String, List<UUID>> groups = new LinkedHashMap<>();
+        for (UUID customerId : customerIds) {
+            groups.computeIfAbsent(ring.shardFor(customerId), shard -> new ArrayList<>()).add(customerId);
+        }
+        return groups;
+    }
+
+    /**
+     * Agrupa IDs de préstamos por shard con una sola consulta al directorio. Los préstamos que no
+     * están en el directorio no existen y se omiten.
+     */
+    public Map<String, List<UUID>> groupLoansByShard(Collection<UUID> loanIds) {
+        if (!isSharded()) {
+            return Map.of(DEFAULT_SHARD, new ArrayList<>(loanIds));
+        }
+        Map<UUID, UUID> customerIds = directory.findCustomerIds(loanIds);
+        Map<String, List<UUID>> groups = new LinkedHashMap<>();
+        for (UUID loanId : loanIds) {
+            UUID customerId = customerIds.get(loanId);
+            if (customerId != null) {
+                groups.computeIfAbsent(ring.shardFor(customerId), shard -> new ArrayList<>()).add(loanId);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Registra un préstamo nuevo en el directorio (ver LoanShardDirectory.register).
+     */
+    public void registerLoan(UUID loanId, UUID customerId) {
+        if (isSharded()) {
+            directory.register(loanId, customerId);
+        }
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bnpl.creditsystem.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Entrega conexiones del shard elegido por ShardRouter para el hilo actual.
+ * Sin shard elegido (feed de eventos, validación del esquema al arrancar) se usa el shard por defecto.
+ *
+ * Igual que ReplicaRoutingDataSource, debe usarse detrás de un LazyConnectionDataSourceProxy para que
+ * la conexión se pida en el primer statement y no al abrir la transacción.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(Map<String, DataSource> shards, String defaultShard) {
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        // Un shard desconocido es un error de configuración, no debe caer en el shard por defecto.
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+}
@@ -0,0 +1,24 @@
+package com.bnpl.creditsystem.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetRequest {
+
+    // Máximo de IDs por petición, para acotar el tamaño del IN y de la respuesta.
+    public static final int MAX_IDS = 100;
+
+    @NotEmpty(message = "Ids cannot be empty")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids can be requested at once")
+    private List<@NotNull(message = "Ids cannot contain null values") UUID> ids;
+}
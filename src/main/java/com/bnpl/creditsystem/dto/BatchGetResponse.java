@@ -0,0 +1,29 @@
+package com.bnpl.creditsystem.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Respuesta de un batchGet: un resultado por cada ID solicitado, en el mismo orden de la petición.
+ * Si un ID no existe, su resultado viene con found = false e item nulo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResponse<T> {
+
+    private List<Result<T>> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result<T> {
+        private UUID id;
+        private boolean found;
+        private T item;
+    }
+}
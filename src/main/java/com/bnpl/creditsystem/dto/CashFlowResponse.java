@@ -0,0 +1,28 @@
+package com.bnpl.creditsystem.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashFlowResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal totalAmount;
+    private List<DailyInflow> dailyInflows;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyInflow {
+        private LocalDate date;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bnpl.creditsystem.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummaryResponse {
+    private UUID customerId;
+    private BigDecimal usedCreditAmount;
+    private int openLoans;
+    private LocalDate nextDueDate;
+    private BigDecimal outstandingAmount;
+}
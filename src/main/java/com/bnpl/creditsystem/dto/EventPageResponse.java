@@ -0,0 +1,16 @@
+package com.bnpl.creditsystem.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageResponse {
+    private List<EventResponse> events;
+    // Offset con el que el consumidor debe pedir la siguiente página.
+    private long nextOffset;
+}
@@ -0,0 +1,26 @@
+package com.bnpl.creditsystem.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventResponse {
+    // Posición del evento en el feed (feed_position): el offset para pedir los siguientes.
+    private long sequence;
+    private OutboxEventType type;
+    private UUID aggregateId;
+    private LocalDateTime createdAt;
+
+    // El payload ya es JSON, se escribe tal cual.
+    @JsonRawValue
+    private String payload;
+}
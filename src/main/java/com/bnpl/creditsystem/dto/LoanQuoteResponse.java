@@ -0,0 +1,20 @@
+package com.bnpl.creditsystem.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanQuoteResponse {
+
+    private UUID customerId;
+    private BigDecimal amount;
+    private BigDecimal interestRate;
+    private BigDecimal totalAmount;
+    private LoanResponse.PaymentPlan paymentPlan;
+}
@@ -3,6 +3,9 @@ package com.bnpl.creditsystem.dto;
 import java.math.BigDecimal;
 import java.util.UUID;
 
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
@@ -15,5 +18,9 @@ public class LoanRequest {
 
     @NotNull(message = "Loan amount cannot be null")
     @Positive(message = "Loan amount must be positive")
+    @Digits(integer = 10, fraction = 2, message = "Loan amount must have at most 2 decimals")
     private BigDecimal amount;
+
+    // Plan de pagos elegido; si es nulo se usa InstallmentPlan.DEFAULT.
+    private InstallmentPlan installmentPlan;
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.bnpl.creditsystem.dto;
+
+/**
+ * Respuesta junto con la versión (@Version) de la entidad de la que se generó.
+ * La versión viaja con el body para que el ETag siempre corresponda a lo que se envía.
+ */
+public record VersionedResponse<T>(long version, T body) {
+}
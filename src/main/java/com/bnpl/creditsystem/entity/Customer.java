@@ -5,12 +5,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -20,29 +23,42 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
 public class Customer {
+    // Región del cache de segundo nivel (ver SecondLevelCacheConfig). createLoan lee al customer desde el cache
+    // sin ir a la BD; los datos del customer no cambian (updatable = false) y el único dato mutable,
+    // availableCreditLineAmount, se escribe con @Version: si la copia del cache estaba vieja, el UPDATE no
+    // encuentra la versión y falla por bloqueo optimista en lugar de pisar el crédito; createLoan entonces saca la
+    // copia del cache y repite una vez con el customer leído de la BD.
+    public static final String CACHE_REGION = "customers";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private String firstName;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private String lastName;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private String secondLastName;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDate dateOfBirth;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private BigDecimal creditLineAmount;
     
     @Column(nullable = false)
     private BigDecimal availableCreditLineAmount;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Se incrementa en cada actualización: sirve para el bloqueo optimista y como ETag de GET /v1/customers/{id}.
+    @Version
+    private Long version;
 }
\ No newline at end of file
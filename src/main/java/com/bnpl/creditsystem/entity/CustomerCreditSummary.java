@@ -0,0 +1,51 @@
+package com.bnpl.creditsystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Resumen de crédito de un customer, mantenido al crear préstamos y reconstruido periódicamente
+ * (ver CustomerSummaryProjection). Leerlo es una búsqueda por llave, sin importar cuántos préstamos tenga.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "customer_credit_summaries")
+public class CustomerCreditSummary {
+
+    @Id
+    private UUID customerId;
+
+    // Suma del monto de los préstamos no COMPLETED.
+    @Column(nullable = false)
+    private BigDecimal usedCreditAmount;
+
+    @Column(nullable = false)
+    private int openLoans;
+
+    // Fecha más próxima, de hoy en adelante, de las cuotas por pagar (NEXT o PENDING); nula si no hay ninguna.
+    private LocalDate nextDueDate;
+
+    // Suma de las cuotas sin pagar (con comisión) de los préstamos no COMPLETED.
+    @Column(nullable = false)
+    private BigDecimal outstandingAmount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Cambia con cada actualización: la reconstrucción solo escribe si nadie lo modificó desde que lo leyó. También es el ETag.
+    @Version
+    private Long version;
+}
@@ -9,9 +9,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -25,17 +24,23 @@ import lombok.Builder;
 @AllArgsConstructor
 @Builder // Patrón de diseño útil para construir objetos
 @Entity
-@Table(name = "installments")
+// En PostgreSQL la tabla puede estar particionada por mes de scheduled_payment_date
+// (db/postgres/installments_partitioned.sql); ahí la llave primaria es (id, scheduled_payment_date).
+@Table(name = "installments", indexes = {
+        @Index(name = "idx_installments_loan_id", columnList = "loan_id"),
+        @Index(name = "idx_installments_due", columnList = "scheduled_payment_date, status")
+})
 public class Installment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false)
     private BigDecimal amount;
 
-    @Column(nullable = false)
+    // Llave de partición: no se actualiza, cambiarla movería la fila a otra partición.
+    @Column(nullable = false, updatable = false)
     private LocalDate scheduledPaymentDate;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,41 @@
+package com.bnpl.creditsystem.entity;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Catálogo de planes de pago que puede elegir el customer:
+ * - `BIWEEKLY_5`: 5 pagos quincenales (cada 15 días). Plan por defecto.
+ * - `WEEKLY_3`: 3 pagos semanales.
+ * - `BIWEEKLY_6`: 6 pagos quincenales.
+ * - `MONTHLY_12`: 12 pagos mensuales.
+ */
+public enum InstallmentPlan {
+    BIWEEKLY_5(5, 15, ChronoUnit.DAYS),
+    WEEKLY_3(3, 7, ChronoUnit.DAYS),
+    BIWEEKLY_6(6, 15, ChronoUnit.DAYS),
+    MONTHLY_12(12, 1, ChronoUnit.MONTHS);
+
+    public static final InstallmentPlan DEFAULT = BIWEEKLY_5;
+
+    private final int numberOfInstallments;
+    private final int interval;
+    private final ChronoUnit intervalUnit;
+
+    InstallmentPlan(int numberOfInstallments, int interval, ChronoUnit intervalUnit) {
+        this.numberOfInstallments = numberOfInstallments;
+        this.interval = interval;
+        this.intervalUnit = intervalUnit;
+    }
+
+    public int getNumberOfInstallments() {
+        return numberOfInstallments;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public ChronoUnit getIntervalUnit() {
+        return intervalUnit;
+    }
+}
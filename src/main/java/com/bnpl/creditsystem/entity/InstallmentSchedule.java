@@ -0,0 +1,77 @@
+package com.bnpl.creditsystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Calendario de cuotas compacto que se guarda dentro de la fila del préstamo
+ * (modo de almacenamiento embebido). Cada cuota son solo tres primitivos:
+ * monto en centavos, día epoch de pago y ordinal del estatus.
+ * Es inmutable: quien lo construye entrega la propiedad de los arreglos.
+ */
+public final class InstallmentSchedule {
+
+    private static final InstallmentStatus[] STATUSES = InstallmentStatus.values();
+
+    private final long[] amountCents;
+    private final int[] epochDays;
+    private final byte[] statusOrdinals;
+
+    public InstallmentSchedule(long[] amountCents, int[] epochDays, byte[] statusOrdinals) {
+        if (amountCents.length != epochDays.length || amountCents.length != statusOrdinals.length) {
+            throw new IllegalArgumentException("Schedule arrays must have the same length");
+        }
+        this.amountCents = amountCents;
+        this.epochDays = epochDays;
+        this.statusOrdinals = statusOrdinals;
+    }
+
+    public int size() {
+        return amountCents.length;
+    }
+
+    public long amountCents(int index) {
+        return amountCents[index];
+    }
+
+    public BigDecimal amount(int index) {
+        return BigDecimal.valueOf(amountCents[index], 2);
+    }
+
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public LocalDate scheduledPaymentDate(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    public InstallmentStatus status(int index) {
+        return STATUSES[statusOrdinals[index]];
+    }
+
+    byte statusOrdinal(int index) {
+        return statusOrdinals[index];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof InstallmentSchedule schedule)) {
+            return false;
+        }
+        return Arrays.equals(amountCents, schedule.amountCents)
+                && Arrays.equals(epochDays, schedule.epochDays)
+                && Arrays.equals(statusOrdinals, schedule.statusOrdinals);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(amountCents);
+        result = 31 * result + Arrays.hashCode(epochDays);
+        return 31 * result + Arrays.hashCode(statusOrdinals);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bnpl.creditsystem.entity;
+
+import java.nio.ByteBuffer;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Codifica el calendario embebido en binario:
+ * [versión del formato (1 byte)][número de cuotas (2 bytes)] y por cada cuota
+ * [centavos (8 bytes)][día epoch (4 bytes)][ordinal del estatus (1 byte)].
+ * Un plan de 5 cuotas ocupa 68 bytes en la fila del préstamo.
+ */
+@Converter
+@Immutable // InstallmentSchedule es inmutable, Hibernate no necesita copiarlo para detectar cambios.
+public class InstallmentScheduleConverter implements AttributeConverter<InstallmentSchedule, byte[]> {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 3;
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES + Byte.BYTES;
+
+    @Override
+    public byte[] convertToDatabaseColumn(InstallmentSchedule schedule) {
+        if (schedule == null) {
+            return null;
+        }
+        int size = schedule.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size * ENTRY_BYTES);
+        buffer.put(FORMAT_VERSION);
+        buffer.putShort((short) size);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(schedule.amountCents(i));
+            buffer.putInt(schedule.epochDay(i));
+            buffer.put(schedule.statusOrdinal(i));
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public InstallmentSchedule convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(column);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported installment schedule format version: " + version);
+        }
+        int size = buffer.getShort();
+        long[] amountCents = new long[size];
+        int[] epochDays = new int[size];
+        byte[] statusOrdinals = new byte[size];
+        for (int i = 0; i < size; i++) {
+            amountCents[i] = buffer.getLong();
+            epochDays[i] = buffer.getInt();
+            statusOrdinals[i] = buffer.get();
+        }
+        return new InstallmentSchedule(amountCents, epochDays, statusOrdinals);
+    }
+}
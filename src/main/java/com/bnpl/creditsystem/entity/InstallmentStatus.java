@@ -6,6 +6,8 @@ package com.bnpl.creditsystem.entity;
  * - `PENDING`: installment still pending to be paid
  * - `ERROR`: error on payment, considered unpaid
  * - `PAID`: payed installment
+ *
+ * Embedded schedules (InstallmentSchedule) persist the ordinal, so new statuses must be appended.
  */
 public enum InstallmentStatus {
     NEXT, PENDING, ERROR
@@ -7,17 +7,18 @@ import java.util.UUID;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -26,11 +27,14 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "loans")
+// El índice por customer y estado sirve a la suma de préstamos pendientes por customer (reconciliación de crédito).
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_customer_status", columnList = "customer_id, status")
+})
 public class Loan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false)
@@ -52,6 +56,16 @@ public class Loan {
     @Column(nullable = false)
     private BigDecimal totalAmount;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InstallmentPlan installmentPlan;
+
+    // Calendario de cuotas embebido en la fila (modo EMBEDDED). En el modo ROWS es nulo y
+    // las cuotas viven en la tabla installments.
+    @Convert(converter = InstallmentScheduleConverter.class)
+    @Column(length = 1024)
+    private InstallmentSchedule installmentSchedule;
+
     // Relación: Muchos préstamos pueden pertenecer a UN cliente.
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
@@ -60,5 +74,9 @@ public class Loan {
     // Relación: UN préstamo tiene MUCHAS cuotas (installments).
     // CascadeType.ALL significa: si guardo, actualizo o borro un Loan, haz lo mismo con sus cuotas asociadas.
     @OneToMany(mappedBy = "loan", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Installment> installments;   
+    private List<Installment> installments;
+
+    // Se incrementa en cada actualización: sirve para el bloqueo optimista y como ETag de GET /v1/loans/{id}.
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.bnpl.creditsystem.entity;
+
+/**
+ * Types:
+ * - `CUSTOMER_REGISTERED`: a new customer was registered.
+ * - `CUSTOMER_CREDIT_CHANGED`: the customer's available credit line changed.
+ * - `LOAN_CREATED`: a new loan was created.
+ */
+public enum OutboxEventType {
+    CUSTOMER_REGISTERED, CUSTOMER_CREDIT_CHANGED, LOAN_CREATED
+}
@@ -0,0 +1,49 @@
+package com.bnpl.creditsystem.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Avance de un proceso de reconciliación en su shard: el último customer ya revisado (en orden de ID) y los
+ * totales de la corrida. Si completedAt es nulo, la siguiente ejecución continúa desde lastCustomerId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+
+    // Nombre del proceso, p. ej. credit.
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Nulo al empezar una corrida: todavía no se revisó ningún customer.
+    private UUID lastCustomerId;
+
+    @Column(nullable = false)
+    private long scannedCustomers;
+
+    @Column(nullable = false)
+    private long mismatches;
+
+    @Column(nullable = false)
+    private long repaired;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,61 @@
+package com.bnpl.creditsystem.entity;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID versión 7 (RFC 9562) para las llaves primarias.
+ * Los primeros 48 bits son el timestamp en milisegundos, así los inserts llegan al final del índice
+ * de la llave primaria en lugar de repartirse por todo el árbol como con UUID v4 aleatorios.
+ * Los 12 bits de rand_a se usan como contador, por lo que los IDs son estrictamente crecientes
+ * dentro de la JVM incluso si se generan varios en el mismo milisegundo.
+ * No depende de Hibernate: lo usan UuidV7Generator y la variante reactiva.
+ */
+public final class TimeOrderedUuids {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Último valor emitido: timestamp en milisegundos << 12 | contador de 12 bits.
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    private TimeOrderedUuids() {
+    }
+
+    public static UUID next() {
+        long timestampAndCounter = nextTimestampAndCounter();
+        long timestamp = timestampAndCounter >>> 12;
+        long counter = timestampAndCounter & 0xFFFL;
+
+        // unix_ts_ms (48) | ver = 7 (4) | rand_a = contador (12)
+        long mostSigBits = (timestamp << 16) | 0x7000L | counter;
+        // var = 0b10 (2) | rand_b (62)
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Momento en que se generó un UUID v7 (sus primeros 48 bits), o vacío si el UUID es de otra versión
+     * (p. ej. un v4 anterior a estos IDs).
+     */
+    public static Optional<Instant> timestamp(UUID id) {
+        return id.version() == 7 ? Optional.of(Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16)) : Optional.empty();
+    }
+
+    /**
+     * En un milisegundo nuevo el contador arranca en 0; dentro del mismo milisegundo (o si el reloj
+     * retrocede) se incrementa el valor anterior. Si el contador se desborda, el acarreo avanza el timestamp.
+     */
+    private static long nextTimestampAndCounter() {
+        long candidate = System.currentTimeMillis() << 12;
+        while (true) {
+            long last = LAST_TIMESTAMP_AND_COUNTER.get();
+            long next = candidate > last ? candidate : last + 1;
+            if (LAST_TIMESTAMP_AND_COUNTER.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bnpl.creditsystem.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Genera el identificador como un UUID versión 7 (ordenado por tiempo) con {@link UuidV7Generator}.
+ * Se usa en lugar de @GeneratedValue(strategy = GenerationType.UUID).
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
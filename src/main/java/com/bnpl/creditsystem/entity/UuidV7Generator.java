@@ -0,0 +1,37 @@
+package com.bnpl.creditsystem.entity;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Generador de Hibernate que asigna UUID versión 7 (ver TimeOrderedUuids) a las llaves primarias.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    /**
+     * Si la entidad ya trae ID (p. ej. el customer, cuyo ID decide el shard antes de guardarlo) se respeta.
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return currentValue != null ? currentValue : nextUuid();
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public static UUID nextUuid() {
+        return TimeOrderedUuids.next();
+    }
+}
@@ -2,18 +2,32 @@ package com.bnpl.creditsystem.exception;
 
 import org.springframework.http.HttpStatus;
 
-import lombok.Getter;
-
-@Getter
+/**
+ * Error de negocio esperado (edad inválida, crédito insuficiente, etc.). Es una respuesta normal de la API y
+ * puede ocurrir miles de veces por segundo, así que no guarda stack trace (writableStackTrace = false):
+ * llenarlo costaría más que el resto de la solicitud y nadie lo lee.
+ */
 public abstract class BusinessLogicException extends RuntimeException {
-    private final String code;
-    private final String error;
-    private final HttpStatus status;
+    private final ErrorCode errorCode;
+
+    protected BusinessLogicException(String message, ErrorCode errorCode) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public String getCode() {
+        return errorCode.code();
+    }
+
+    public String getError() {
+        return errorCode.error();
+    }
 
-    protected BusinessLogicException(String message, String code, String error, HttpStatus status) {
-        super(message);
-        this.code = code;
-        this.error = error;
-        this.status = status;
+    public HttpStatus getStatus() {
+        return errorCode.status();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.bnpl.creditsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Errores de la API según la especificación OpenAPI: código, nombre (el campo error de la respuesta) y estatus HTTP.
+ * Son las partes constantes de cada respuesta de error; ErrorJsonWriter las tiene pre-codificadas.
+ */
+public enum ErrorCode {
+    INVALID_CUSTOMER_REQUEST("APZ000002", HttpStatus.BAD_REQUEST),
+    INVALID_REQUEST("APZ000004", HttpStatus.BAD_REQUEST),
+    CUSTOMER_NOT_FOUND("APZ000005", HttpStatus.NOT_FOUND),
+    INVALID_LOAN_REQUEST("APZ000006", HttpStatus.BAD_REQUEST),
+    LOAN_NOT_FOUND("APZ000008", HttpStatus.NOT_FOUND),
+    CONCURRENT_MODIFICATION("APZ000009", HttpStatus.CONFLICT),
+    TOO_MANY_REQUESTS("APZ000010", HttpStatus.TOO_MANY_REQUESTS),
+    SERVICE_OVERLOADED("APZ000011", HttpStatus.SERVICE_UNAVAILABLE),
+    PAYLOAD_TOO_LARGE("APZ000012", HttpStatus.PAYLOAD_TOO_LARGE);
+
+    private final String code;
+    private final HttpStatus status;
+
+    ErrorCode(String code, HttpStatus status) {
+        this.code = code;
+        this.status = status;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public String error() {
+        return name();
+    }
+
+    public HttpStatus status() {
+        return status;
+    }
+}
@@ -1,53 +1,76 @@
 package com.bnpl.creditsystem.exception;
 
-import java.time.Instant;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import com.bnpl.creditsystem.dto.ErrorResponseDto;
+import com.bnpl.creditsystem.logging.LogSampler;
+import com.bnpl.creditsystem.mapper.ErrorJsonWriter;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Las respuestas de error se escriben directamente al stream con ErrorJsonWriter (mismo formato que ErrorResponseDto).
+ * Los errores de validación y de negocio son rechazos esperados y frecuentes, así que su log se muestrea:
+ * se registra en promedio uno de cada application.logging.rejection-sample-rate por código de error.
+ */
 @ControllerAdvice // Esta anotación permite a la clase interceptar excepciones de toda la aplicación.
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final ErrorJsonWriter errorJsonWriter;
+    private final Map<ErrorCode, LogSampler> rejectionLogs = new EnumMap<>(ErrorCode.class);
+
+    public GlobalExceptionHandler(ErrorJsonWriter errorJsonWriter,
+                                  @Value("${application.logging.rejection-sample-rate:100}") long rejectionSampleRate) {
+        this.errorJsonWriter = errorJsonWriter;
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            rejectionLogs.put(errorCode, new LogSampler(rejectionSampleRate));
+        }
+    }
+
     /**
      * Maneja las excepciones de validación de DTOs (cuando @Valid falla).
      * Devuelve un error 400 Bad Request con un mensaje claro de los campos que fallaron.
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponseDto> handleValidationExceptions(MethodArgumentNotValidException ex, HttpServletRequest request) {
-        final String errorMessage = ex.getBindingResult().getFieldErrors().stream()
-                .map(error -> "'" + error.getField() + "': " + error.getDefaultMessage())
-                .collect(Collectors.joining(", "));
-        log.warn("Validation error: {}", errorMessage);
-
-        final String code;
-        final String error;
+    public void handleValidationExceptions(MethodArgumentNotValidException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        List<FieldError> fieldErrors = ex.getBindingResult().getFieldErrors();
+        StringBuilder errorMessage = new StringBuilder(32 * fieldErrors.size());
+        for (FieldError fieldError : fieldErrors) {
+            if (!errorMessage.isEmpty()) {
+                errorMessage.append(", ");
+            }
+            errorMessage.append('\'').append(fieldError.getField()).append("': ").append(fieldError.getDefaultMessage());
+        }
 
         final String path = request.getRequestURI();
         // Asignamos códigos de error según la especificación OpenAPI
+        final ErrorCode errorCode;
         if (path.startsWith("/v1/customers")) {
-            code = "APZ000002";
-            error = "INVALID_CUSTOMER_REQUEST";
+            errorCode = ErrorCode.INVALID_CUSTOMER_REQUEST;
         } else if (path.startsWith("/v1/loans")) {
-            code = "APZ000006";
-            error = "INVALID_LOAN_REQUEST";
+            errorCode = ErrorCode.INVALID_LOAN_REQUEST;
         } else {
-            code = "APZ000004"; // Fallback
-            error = "INVALID_REQUEST";
+            errorCode = ErrorCode.INVALID_REQUEST; // Fallback
+        }
+        LogSampler sampler = rejectionLogs.get(errorCode);
+        if (sampler.sample()) {
+            log.warn("Validation error: {} (sampled 1 in {}, {} so far)", errorMessage, sampler.rate(), sampler.occurrences());
         }
-        ErrorResponseDto errorResponse = new ErrorResponseDto(code, error, Instant.now().getEpochSecond(), errorMessage, path);
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        errorJsonWriter.writeResponse(errorCode, errorMessage.toString(), path, response);
     }
 
     /**
@@ -55,21 +78,33 @@ public class GlobalExceptionHandler {
      * Esto centraliza el manejo de errores de negocio predecibles (edad inválida, crédito insuficiente, etc.).
      */
     @ExceptionHandler(BusinessLogicException.class)
-    public ResponseEntity<ErrorResponseDto> handleBusinessLogicException(BusinessLogicException ex, HttpServletRequest request) {
-        log.warn("Business logic error [{} - {}]: {}", ex.getStatus(), ex.getError(), ex.getMessage());
-        ErrorResponseDto errorResponse = new ErrorResponseDto(
-            ex.getCode(), 
-            ex.getError(), 
-            Instant.now().getEpochSecond(), 
-            ex.getMessage(), 
-            request.getRequestURI());
-        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    public void handleBusinessLogicException(BusinessLogicException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LogSampler sampler = rejectionLogs.get(ex.getErrorCode());
+        if (sampler.sample()) {
+            log.warn("Business logic error [{} - {}]: {} (sampled 1 in {}, {} so far)", ex.getStatus(), ex.getError(), ex.getMessage(),
+                    sampler.rate(), sampler.occurrences());
+        }
+        errorJsonWriter.writeResponse(ex.getErrorCode(), ex.getMessage(), request.getRequestURI(), response);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public void handleResourceNotFound(ResourceNotFoundException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LogSampler sampler = rejectionLogs.get(ex.getErrorCode());
+        if (sampler.sample()) {
+            log.warn("Resource not found: {} (sampled 1 in {}, {} so far)", ex.getMessage(), sampler.rate(), sampler.occurrences());
+        }
+        errorJsonWriter.writeResponse(ex.getErrorCode(), ex.getMessage(), request.getRequestURI(), response);
     }
 
-     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponseDto> handleResourceNotFound(ResourceNotFoundException ex, HttpServletRequest request) {
-        log.warn("Resource not found: {}", ex.getMessage());
-        ErrorResponseDto errorResponse = new ErrorResponseDto(ex.getCode(), ex.getError(), Instant.now().getEpochSecond(), ex.getMessage(), request.getRequestURI());
-        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    /**
+     * Maneja los conflictos de bloqueo optimista (@Version): otra petición modificó el mismo
+     * registro al mismo tiempo (p. ej. dos préstamos simultáneos del mismo customer).
+     * Devuelve un 409 Conflict para que el cliente reintente.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public void handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.warn("Concurrent modification of {} with ID {}", ex.getPersistentClassName(), ex.getIdentifier());
+        errorJsonWriter.writeResponse(ErrorCode.CONCURRENT_MODIFICATION, "The resource was modified by another request, please retry.",
+                request.getRequestURI(), response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.bnpl.creditsystem.exception;
+
+public class InvalidRequestException extends BusinessLogicException {
+    // Error genérico de petición inválida (fallback de la spec de OpenAPI).
+    public InvalidRequestException(String message) {
+        super(message, ErrorCode.INVALID_REQUEST);
+    }
+}
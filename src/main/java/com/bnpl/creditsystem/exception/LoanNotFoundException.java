@@ -2,6 +2,6 @@ package com.bnpl.creditsystem.exception;
 
 public class LoanNotFoundException extends ResourceNotFoundException {
     public LoanNotFoundException(String loanId) {
-        super("Loan with ID " + loanId + " not found", "APZ000008", "LOAN_NOT_FOUND");
+        super("Loan with ID " + loanId + " not found", ErrorCode.LOAN_NOT_FOUND);
     }
 }
\ No newline at end of file
@@ -2,25 +2,30 @@ package com.bnpl.creditsystem.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Recurso inexistente (404). Igual que BusinessLogicException, no guarda stack trace.
+ */
 public abstract class ResourceNotFoundException extends RuntimeException {
-    private final String code;
-    private final String error;
+    private final ErrorCode errorCode;
 
-    public ResourceNotFoundException(String message, String code, String error) {
-        super(message);
-        this.code = code;
-        this.error = error;
+    protected ResourceNotFoundException(String message, ErrorCode errorCode) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
     }
 
     public String getCode() {
-        return code;
+        return errorCode.code();
     }
 
     public String getError() {
-        return error;
+        return errorCode.error();
     }
 
     public HttpStatus getStatus(){
-        return HttpStatus.NOT_FOUND;
+        return errorCode.status();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package com.bnpl.creditsystem.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Log estructurado de los eventos de las rutas calientes (creación de préstamos, registro de customers).
+ *
+ * En lugar de varias líneas de texto por solicitud se registra un evento con sus datos como pares clave-valor:
+ * eventLog.info(LogEvent.LOAN_CREATED).addKeyValue("loanId", id).log(). Los eventos van al logger "events", que
+ * logback-spring.xml escribe como JSON desde un AsyncAppender acotado: el hilo de la solicitud solo encola el
+ * evento y la codificación y la escritura ocurren en otro hilo. Si la cola se llena, el evento se descarta en
+ * lugar de bloquear la solicitud.
+ *
+ * Cada evento se muestrea según su LogSampler. Si no se registra, se devuelve el builder vacío de SLF4J y los
+ * addKeyValue no hacen nada. Los eventos muestreados llevan sampleRate para poder estimar los totales.
+ */
+@Component
+public class EventLog {
+
+    private static final Logger events = LoggerFactory.getLogger("events");
+
+    private final LogSampler[] samplers = new LogSampler[LogEvent.values().length];
+
+    public EventLog(Environment environment) {
+        for (LogEvent event : LogEvent.values()) {
+            long rate = environment.getProperty("application.logging.events." + event.key() + ".sample-rate", Long.class,
+                    event.defaultSampleRate());
+            samplers[event.ordinal()] = new LogSampler(rate);
+        }
+    }
+
+    public LoggingEventBuilder info(LogEvent event) {
+        if (!events.isInfoEnabled()) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        return sampled(event, events.atInfo());
+    }
+
+    public LoggingEventBuilder warn(LogEvent event) {
+        if (!events.isWarnEnabled()) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        return sampled(event, events.atWarn());
+    }
+
+    private LoggingEventBuilder sampled(LogEvent event, LoggingEventBuilder builder) {
+        LogSampler sampler = samplers[event.ordinal()];
+        if (!sampler.sample()) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        builder.setMessage(event.key());
+        if (sampler.rate() > 1) {
+            builder.addKeyValue("sampleRate", sampler.rate());
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bnpl.creditsystem.logging;
+
+import java.util.Locale;
+
+/**
+ * Eventos de las rutas calientes que se registran con EventLog. Cada uno tiene una tasa de muestreo por defecto
+ * que se puede cambiar con application.logging.events.<key>.sample-rate (1 = todos).
+ */
+public enum LogEvent {
+    LOAN_CREATED(1),
+    LOAN_REJECTED(100),
+    CUSTOMER_REGISTERED(1),
+    CUSTOMER_REJECTED(100),
+    CREDIT_MISMATCH(1);
+
+    private final long defaultSampleRate;
+    private final String key;
+
+    LogEvent(long defaultSampleRate) {
+        this.defaultSampleRate = defaultSampleRate;
+        this.key = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public long defaultSampleRate() {
+        return defaultSampleRate;
+    }
+
+    /**
+     * Nombre del evento en el log (campo message) y en las propiedades, p. ej. loan-created.
+     */
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bnpl.creditsystem.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Muestreo para logs de eventos frecuentes y esperados (p. ej. rechazos de crédito): en promedio se registra uno
+ * de cada rate. La decisión es aleatoria por hilo y el conteo usa un LongAdder, así que muchos hilos pueden
+ * muestrear al mismo tiempo sin competir por un contador compartido.
+ */
+public final class LogSampler {
+
+    private final long rate;
+    private final LongAdder occurrences = new LongAdder();
+
+    public LogSampler(long rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Log sample rate must be at least 1");
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Cuenta la ocurrencia y dice si se debe registrar.
+     */
+    public boolean sample() {
+        occurrences.increment();
+        return rate == 1 || ThreadLocalRandom.current().nextLong(rate) == 0;
+    }
+
+    /**
+     * Ocurrencias contadas hasta ahora (registradas o no), para incluirlas en el mensaje que sí se registra.
+     */
+    public long occurrences() {
+        return occurrences.sum();
+    }
+
+    public long rate() {
+        return rate;
+    }
+}
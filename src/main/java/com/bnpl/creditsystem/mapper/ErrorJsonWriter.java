@@ -0,0 +1,80 @@
+package com.bnpl.creditsystem.mapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.bnpl.creditsystem.exception.ErrorCode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Escribe una respuesta de error con el mismo formato que ErrorResponseDto directamente al stream, sin crear el DTO
+ * ni pasar por la serialización reflexiva de Jackson. Los rechazos de crédito son un resultado normal y frecuente,
+ * así que el código y el nombre de cada ErrorCode (igual que los nombres de campo) están pre-codificados y solo el
+ * timestamp, el mensaje y la ruta se codifican en cada respuesta.
+ */
+@Component
+public class ErrorJsonWriter {
+
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString ERROR = new SerializedString("error");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString PATH = new SerializedString("path");
+
+    // Valores pre-codificados por ErrorCode (índice = ordinal).
+    private static final SerializedString[] CODES = new SerializedString[ErrorCode.values().length];
+    private static final SerializedString[] ERRORS = new SerializedString[ErrorCode.values().length];
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            CODES[errorCode.ordinal()] = new SerializedString(errorCode.code());
+            ERRORS[errorCode.ordinal()] = new SerializedString(errorCode.error());
+        }
+    }
+
+    private final JsonFactory jsonFactory;
+
+    public ErrorJsonWriter(ObjectMapper objectMapper) {
+        // Se reutiliza la fábrica del ObjectMapper de Spring para respetar su configuración.
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Escribe el error con su estatus HTTP como respuesta completa.
+     */
+    public void writeResponse(ErrorCode errorCode, String message, String path, HttpServletResponse response) throws IOException {
+        response.setStatus(errorCode.status().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        write(errorCode, message, path, response.getOutputStream());
+    }
+
+    /**
+     * Escribe el error en el stream. El stream no se cierra, solo se hace flush.
+     */
+    public void write(ErrorCode errorCode, String message, String path, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName(CODE);
+            generator.writeString(CODES[errorCode.ordinal()]);
+            generator.writeFieldName(ERROR);
+            generator.writeString(ERRORS[errorCode.ordinal()]);
+            generator.writeFieldName(TIMESTAMP);
+            generator.writeNumber(System.currentTimeMillis() / 1000);
+            generator.writeFieldName(MESSAGE);
+            generator.writeString(message);
+            generator.writeFieldName(PATH);
+            generator.writeString(path);
+            generator.writeEndObject();
+        }
+    }
+}
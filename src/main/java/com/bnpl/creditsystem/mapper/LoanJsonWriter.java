@@ -0,0 +1,197 @@
+package com.bnpl.creditsystem.mapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.bnpl.creditsystem.entity.Installment;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
+import com.bnpl.creditsystem.entity.Loan;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Escribe un préstamo como JSON directamente desde la entidad al stream de salida,
+ * sin construir LoanResponse/PaymentPlan/InstallmentResponse ni pasar por la serialización
+ * reflexiva de Jackson. El resultado es idéntico al de serializar LoanResponse.
+ *
+ * Los nombres de campo están pre-codificados (SerializedString guarda sus bytes UTF-8) y los
+ * buffers del generador salen del pool de reciclaje del JsonFactory, así que escribir un
+ * préstamo casi no genera basura.
+ */
+@Component
+public class LoanJsonWriter {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString CUSTOMER_ID = new SerializedString("customerId");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString PAYMENT_PLAN = new SerializedString("paymentPlan");
+    private static final SerializedString COMMISSION_AMOUNT = new SerializedString("commissionAmount");
+    private static final SerializedString INSTALLMENTS = new SerializedString("installments");
+    private static final SerializedString SCHEDULED_PAYMENT_DATE = new SerializedString("scheduledPaymentDate");
+    private static final SerializedString RESULTS = new SerializedString("results");
+    private static final SerializedString FOUND = new SerializedString("found");
+    private static final SerializedString ITEM = new SerializedString("item");
+
+    // Mismo formato que usa Jackson (JavaTimeModule) para LocalDateTime.
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Suficiente para cualquier long en centavos con signo y punto decimal.
+    private static final int CENTS_BUFFER_SIZE = 24;
+
+    private final JsonFactory jsonFactory;
+
+    public LoanJsonWriter(ObjectMapper objectMapper) {
+        // Se reutiliza la fábrica del ObjectMapper de Spring para respetar su configuración.
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Escribe un préstamo en el stream. El stream no se cierra, solo se hace flush.
+     */
+    public void write(Loan loan, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            writeLoan(loan, generator);
+        }
+    }
+
+    /**
+     * Escribe la respuesta de un batchGet (mismo formato que BatchGetResponse): un resultado por
+     * cada ID solicitado, en orden, con found = false e item nulo si el préstamo no existe.
+     * Los préstamos archivados llegan ya como JSON (archivedJsonById) y se copian tal cual.
+     */
+    public void writeBatch(List<UUID> ids, Map<UUID, Loan> loansById, Map<UUID, byte[]> archivedJsonById, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeFieldName(RESULTS);
+            generator.writeStartArray();
+            for (UUID id : ids) {
+                Loan loan = loansById.get(id);
+                byte[] archivedJson = loan == null ? archivedJsonById.get(id) : null;
+                generator.writeStartObject();
+                generator.writeFieldName(ID);
+                generator.writeString(id.toString());
+                generator.writeFieldName(FOUND);
+                generator.writeBoolean(loan != null || archivedJson != null);
+                generator.writeFieldName(ITEM);
+                if (loan != null) {
+                    writeLoan(loan, generator);
+                } else if (archivedJson != null) {
+                    generator.writeRawValue(new String(archivedJson, StandardCharsets.UTF_8));
+                } else {
+                    generator.writeNull();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Crea un generador UTF-8 sobre el stream que no cierra el stream al cerrarse.
+     * Permite escribir varios préstamos con el mismo generador (p. ej. dentro de un arreglo).
+     */
+    public JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    /**
+     * Escribe un préstamo como objeto JSON en el generador indicado.
+     */
+    public void writeLoan(Loan loan, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        generator.writeString(loan.getId().toString());
+        generator.writeFieldName(CUSTOMER_ID);
+        generator.writeString(loan.getCustomer().getId().toString());
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(loan.getLoanAmount());
+        generator.writeFieldName(STATUS);
+        generator.writeString(loan.getStatus().name());
+        generator.writeFieldName(CREATED_AT);
+        generator.writeString(DATE_TIME_FORMAT.format(loan.getCreatedAt()));
+
+        generator.writeFieldName(PAYMENT_PLAN);
+        generator.writeStartObject();
+        generator.writeFieldName(COMMISSION_AMOUNT);
+        generator.writeNumber(loan.getCommission());
+        generator.writeFieldName(INSTALLMENTS);
+        generator.writeStartArray();
+        if (loan.getInstallmentSchedule() != null) {
+            writeSchedule(loan.getInstallmentSchedule(), generator);
+        } else {
+            for (Installment installment : loan.getInstallments()) {
+                writeInstallment(installment, generator);
+            }
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
+    private void writeInstallment(Installment installment, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(installment.getAmount());
+        generator.writeFieldName(SCHEDULED_PAYMENT_DATE);
+        generator.writeString(installment.getScheduledPaymentDate().toString());
+        generator.writeFieldName(STATUS);
+        generator.writeString(installment.getStatus().name());
+        generator.writeEndObject();
+    }
+
+    /**
+     * El calendario embebido ya guarda centavos, así que el monto se escribe sin crear BigDecimal.
+     */
+    private void writeSchedule(InstallmentSchedule schedule, JsonGenerator generator) throws IOException {
+        char[] centsBuffer = new char[CENTS_BUFFER_SIZE];
+        for (int i = 0; i < schedule.size(); i++) {
+            generator.writeStartObject();
+            generator.writeFieldName(AMOUNT);
+            int length = formatCents(schedule.amountCents(i), centsBuffer);
+            generator.writeNumber(centsBuffer, CENTS_BUFFER_SIZE - length, length);
+            generator.writeFieldName(SCHEDULED_PAYMENT_DATE);
+            generator.writeString(schedule.scheduledPaymentDate(i).toString());
+            generator.writeFieldName(STATUS);
+            generator.writeString(schedule.status(i).name());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Escribe los centavos como decimal con 2 posiciones (igual que BigDecimal.valueOf(cents, 2))
+     * alineado al final del buffer y devuelve el número de caracteres escritos.
+     */
+    static int formatCents(long cents, char[] buffer) {
+        int position = buffer.length;
+        long remaining = Math.abs(cents);
+        for (int digit = 0; digit < 2; digit++) {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+        return buffer.length - position;
+    }
+}
@@ -1,18 +1,22 @@
 package com.bnpl.creditsystem.mapper;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
 
 import com.bnpl.creditsystem.dto.InstallmentResponse;
 import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
 import com.bnpl.creditsystem.entity.Loan;
 
 @Component
 public class LoanMapper {
 
     public LoanResponse toLoanResponse(Loan loan) {
-        List<InstallmentResponse> installmentResponses = loan.getInstallments().stream()
+        List<InstallmentResponse> installmentResponses = loan.getInstallmentSchedule() != null
+                ? toInstallmentResponses(loan.getInstallmentSchedule())
+                : loan.getInstallments().stream()
                 .map(installment -> new InstallmentResponse(
                         installment.getAmount(),
                         installment.getScheduledPaymentDate(),
@@ -33,4 +37,15 @@ public class LoanMapper {
         paymentPlan
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Decodifica un calendario embebido directamente a DTOs, sin instanciar entidades Installment.
+     */
+    private List<InstallmentResponse> toInstallmentResponses(InstallmentSchedule schedule) {
+        List<InstallmentResponse> installmentResponses = new ArrayList<>(schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            installmentResponses.add(new InstallmentResponse(schedule.amount(i), schedule.scheduledPaymentDate(i), schedule.status(i)));
+        }
+        return installmentResponses;
+    }
+}
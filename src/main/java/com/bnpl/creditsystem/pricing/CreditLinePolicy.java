@@ -0,0 +1,50 @@
+package com.bnpl.creditsystem.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Reglas de alta de customers: rango de edad permitido y línea de crédito según la edad.
+ * Funciones puras compartidas por la API servlet y la variante reactiva.
+ */
+public final class CreditLinePolicy {
+
+    // constantes para las reglas de negocio, esto despues se puede guardar en una tabla de BD y consultar
+    public static final int MIN_AGE = 18;
+    public static final int MAX_AGE = 65;
+
+    private static final int AGE_TIER_1_UPPER_BOUND = 25;
+    private static final int AGE_TIER_2_UPPER_BOUND = 30;
+
+    private static final BigDecimal CREDIT_LINE_TIER_1 = new BigDecimal("3000");
+    private static final BigDecimal CREDIT_LINE_TIER_2 = new BigDecimal("5000");
+    private static final BigDecimal CREDIT_LINE_TIER_3 = new BigDecimal("8000");
+
+    private CreditLinePolicy() {
+    }
+
+    /**
+     * Edad cumplida en {@code today} de alguien nacido en {@code dateOfBirth}.
+     */
+    public static int ageOn(LocalDate dateOfBirth, LocalDate today) {
+        return Period.between(dateOfBirth, today).getYears();
+    }
+
+    public static boolean isEligibleAge(int age) {
+        return age >= MIN_AGE && age <= MAX_AGE;
+    }
+
+    /**
+     * Línea de crédito asignada según la edad. Supone una edad ya validada con isEligibleAge.
+     */
+    public static BigDecimal creditLineFor(int age) {
+        if (age <= AGE_TIER_1_UPPER_BOUND) {
+            return CREDIT_LINE_TIER_1;
+        } else if (age <= AGE_TIER_2_UPPER_BOUND) {
+            return CREDIT_LINE_TIER_2;
+        } else { // AGE_TIER_2_UPPER_BOUND a MAX_AGE
+            return CREDIT_LINE_TIER_3;
+        }
+    }
+}
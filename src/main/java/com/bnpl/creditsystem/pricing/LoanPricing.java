@@ -0,0 +1,55 @@
+package com.bnpl.creditsystem.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+
+/**
+ * Reglas de precio de un préstamo: tasa de interés, comisión, total y monto por cuota.
+ * Son funciones puras (sin Spring ni JPA) para que la API servlet y la variante reactiva
+ * calculen exactamente lo mismo. El cache de planes vive en LoanPricingCalculator.
+ */
+public final class LoanPricing {
+
+    // --- Constantes para las reglas de negocio de compras ---
+    private static final List<String> SCHEME_1_INITIALS = List.of("C", "L", "H");
+
+    public static final BigDecimal INTEREST_RATE_SCHEME_1 = new BigDecimal("0.13");
+    public static final BigDecimal INTEREST_RATE_SCHEME_2 = new BigDecimal("0.16");
+
+    private LoanPricing() {
+    }
+
+    /**
+     * Resultado del cálculo de un préstamo. Es inmutable, por lo que puede compartirse desde un cache.
+     */
+    public record PricingPlan(BigDecimal commission, BigDecimal totalAmount, List<BigDecimal> installmentAmounts, InstallmentPlan plan) {
+    }
+
+    /**
+     * Tasa de interés aplicable según la inicial del nombre del customer.
+     */
+    public static BigDecimal interestRateFor(String firstName) {
+        String firstNameInitial = firstName.substring(0, 1).toUpperCase();
+        return SCHEME_1_INITIALS.contains(firstNameInitial) ? INTEREST_RATE_SCHEME_1 : INTEREST_RATE_SCHEME_2;
+    }
+
+    /**
+     * Plan de pagos solicitado; si no se indica se usa el plan por defecto (5 pagos quincenales).
+     */
+    public static InstallmentPlan resolvePlan(InstallmentPlan requested) {
+        return requested != null ? requested : InstallmentPlan.DEFAULT;
+    }
+
+    /**
+     * Calcula la comisión, el total y el monto de cada cuota del plan.
+     */
+    public static PricingPlan price(BigDecimal loanAmount, BigDecimal interestRate, InstallmentPlan plan) {
+        // La comisión se redondea a centavos para que el total sea exactamente divisible entre las cuotas.
+        BigDecimal commission = loanAmount.multiply(interestRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal totalAmount = loanAmount.add(commission);
+        return new PricingPlan(commission, totalAmount, ScheduleTemplate.of(plan).split(totalAmount), plan);
+    }
+}
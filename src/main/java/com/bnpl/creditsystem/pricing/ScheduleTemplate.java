@@ -0,0 +1,107 @@
+package com.bnpl.creditsystem.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+
+/**
+ * Plantilla precalculada del calendario de un plan de pagos.
+ * Guarda la tabla de desfases de cada cuota y reparte el residuo del redondeo,
+ * de modo que generar un calendario sea un ciclo simple sin cálculos repetidos.
+ * Es código puro (sin Spring ni JPA): lo usan tanto la API servlet como la variante reactiva.
+ */
+public final class ScheduleTemplate {
+
+    private static final byte PENDING_ORDINAL = (byte) InstallmentStatus.PENDING.ordinal();
+
+    private static final Map<InstallmentPlan, ScheduleTemplate> TEMPLATES = new EnumMap<>(InstallmentPlan.class);
+
+    static {
+        for (InstallmentPlan plan : InstallmentPlan.values()) {
+            TEMPLATES.put(plan, new ScheduleTemplate(plan));
+        }
+    }
+
+    private final boolean monthly;
+    // Desfase de cada cuota respecto a la fecha de inicio, en días o en meses según el plan.
+    private final int[] offsets;
+
+    private ScheduleTemplate(InstallmentPlan plan) {
+        this.monthly = plan.getIntervalUnit() == ChronoUnit.MONTHS;
+        this.offsets = new int[plan.getNumberOfInstallments()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = plan.getInterval() * (i + 1);
+        }
+    }
+
+    public static ScheduleTemplate of(InstallmentPlan plan) {
+        return TEMPLATES.get(plan);
+    }
+
+    /**
+     * Fecha de la última cuota del plan más largo para un calendario que empieza en {@code start}: ninguna cuota
+     * de un préstamo que empezó ese día cae después.
+     */
+    public static LocalDate latestDueDate(LocalDate start) {
+        LocalDate latest = start;
+        for (ScheduleTemplate template : TEMPLATES.values()) {
+            LocalDate last = template.dueDate(start, template.size() - 1);
+            if (last.isAfter(latest)) {
+                latest = last;
+            }
+        }
+        return latest;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Fecha de pago de la cuota {@code index} (base 0) para un calendario que empieza en {@code start}.
+     * Los planes por días solo suman el desfase; los mensuales respetan el fin de mes.
+     */
+    public LocalDate dueDate(LocalDate start, int index) {
+        return monthly ? start.plusMonths(offsets[index]) : start.plusDays(offsets[index]);
+    }
+
+    /**
+     * Genera el calendario de un préstamo que empieza en {@code start} con los montos ya repartidos.
+     */
+    public InstallmentSchedule build(LocalDate start, List<BigDecimal> amounts) {
+        long[] amountCents = new long[offsets.length];
+        int[] epochDays = new int[offsets.length];
+        byte[] statusOrdinals = new byte[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            amountCents[i] = amounts.get(i).unscaledValue().longValueExact();
+            epochDays[i] = (int) dueDate(start, i).toEpochDay();
+            statusOrdinals[i] = PENDING_ORDINAL;
+        }
+        return new InstallmentSchedule(amountCents, epochDays, statusOrdinals);
+    }
+
+    /**
+     * Divide el total en cuotas de centavos exactos. El residuo se reparte un centavo a la vez
+     * en las primeras cuotas, así la suma de las cuotas es siempre igual al total.
+     */
+    public List<BigDecimal> split(BigDecimal totalAmount) {
+        long totalCents = totalAmount.movePointRight(2).longValueExact();
+        long baseCents = totalCents / offsets.length;
+        long remainder = totalCents % offsets.length;
+
+        BigDecimal base = BigDecimal.valueOf(baseCents, 2);
+        BigDecimal baseWithRemainder = BigDecimal.valueOf(baseCents + 1, 2);
+        BigDecimal[] amounts = new BigDecimal[offsets.length];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = i < remainder ? baseWithRemainder : base;
+        }
+        return List.of(amounts);
+    }
+}
@@ -0,0 +1,165 @@
+package com.bnpl.creditsystem.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de solicitudes concurrentes que se ajusta solo según la latencia medida (al estilo TCP Vegas).
+ *
+ * minRtt es la latencia sin cola. Con cada respuesta se estima cuántas solicitudes estaban esperando:
+ * limit * (1 - minRtt / rtt). Si la cola es pequeña el límite sube un poco (aumento aditivo); si crece, se
+ * multiplica por backoffRatio (reducción multiplicativa). Como en Vegas, se ajusta a lo más una vez por minRtt.
+ * Así el límite se queda cerca de la concurrencia que el servicio atiende sin que suba la latencia, y lo que sobra
+ * se rechaza de inmediato en lugar de esperar en la cola de Tomcat.
+ *
+ * Bajo carga constante siempre hay algo de cola y la latencia mínima observada ya no es la real; si se usara,
+ * el límite subiría poco a poco sin fin. Por eso cada rttWindowNanos se miden PROBE_SAMPLES respuestas con el
+ * límite reducido, se toma su mínimo como minRtt y luego se restaura el límite. La reducción es la cola más grande
+ * que se tolera en el equilibrio (MAX_QUEUE_STEPS pasos, o backoffRatio si es mayor): basta para que la medición
+ * no tenga cola y solo rechaza esas pocas solicitudes de más, no la carga que el servicio sí atiende.
+ *
+ * tryAcquire es un compareAndSet sobre el contador de solicitudes en curso. La estimación se actualiza con un
+ * tryLock: si otro hilo la está actualizando, la muestra se descarta en lugar de esperar.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    // Respuestas que se miden con el límite reducido para recalcular minRtt.
+    static final int PROBE_SAMPLES = 10;
+    // Cola (en pasos de ajuste) a partir de la cual el límite se reduce; en el equilibrio la cola queda por debajo.
+    private static final int MAX_QUEUE_STEPS = 6;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long rttWindowNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    // Protegidos por lock.
+    private final ReentrantLock lock = new ReentrantLock();
+    private double estimatedLimit;
+    private long minRtt = Long.MAX_VALUE;
+    private long nextProbeAt;
+    private long nextUpdateAt;
+    private boolean probing;
+    private long probeStartedAt;
+    private int probeSamples;
+    private long probeMinRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long rttWindowNanos, long nowNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Concurrency limit backoff-ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.rttWindowNanos = rttWindowNanos;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.nextProbeAt = nowNanos + rttWindowNanos;
+        this.nextUpdateAt = nowNanos;
+    }
+
+    /**
+     * Una solicitud admitida: cuándo empezó y cuántas había en curso contándola a ella.
+     */
+    public record Permit(long startNanos, int inflight) {
+    }
+
+    /**
+     * Devuelve null si ya hay limit solicitudes en curso.
+     */
+    public Permit tryAcquire(long nowNanos) {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit(nowNanos, current + 1);
+            }
+        }
+    }
+
+    public void release(Permit permit, long nowNanos) {
+        inflight.decrementAndGet();
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            update(permit, Math.max(1, nowNanos - permit.startNanos()), nowNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera sin usar la duración como muestra de latencia: para las solicitudes cuya respuesta sigue después de
+     * liberar el hilo (asíncronas, como los streams SSE), donde esa duración es casi cero y bajaría minRtt.
+     */
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    private void update(Permit permit, long rtt, long nowNanos) {
+        if (probing) {
+            // Solo cuentan las solicitudes admitidas después de bajar el límite: las anteriores esperaron en la cola.
+            if (permit.startNanos() - probeStartedAt >= 0) {
+                probeMinRtt = Math.min(probeMinRtt, rtt);
+                if (++probeSamples == PROBE_SAMPLES) {
+                    minRtt = probeMinRtt;
+                    probing = false;
+                    nextProbeAt = nowNanos + rttWindowNanos;
+                    nextUpdateAt = nowNanos + minRtt;
+                    limit = (int) estimatedLimit;
+                }
+            }
+            return;
+        }
+        if (nowNanos - nextProbeAt >= 0) {
+            probing = true;
+            probeStartedAt = nowNanos;
+            probeSamples = 0;
+            probeMinRtt = Long.MAX_VALUE;
+            limit = Math.max(minLimit, (int) Math.min(estimatedLimit * backoffRatio, estimatedLimit - MAX_QUEUE_STEPS * step()));
+            return;
+        }
+        minRtt = Math.min(minRtt, rtt);
+
+        // Con menos de la mitad del límite en uso la latencia no dice nada de la capacidad.
+        if (permit.inflight() * 2 < estimatedLimit) {
+            return;
+        }
+        // Un ajuste por viaje de ida y vuelta: las respuestas de la misma tanda traen la misma información.
+        if (nowNanos - nextUpdateAt < 0) {
+            return;
+        }
+        nextUpdateAt = nowNanos + minRtt;
+
+        double queue = estimatedLimit * (1 - (double) minRtt / rtt);
+        double step = step();
+        if (queue <= 3 * step) {
+            estimatedLimit += step;
+        } else if (queue >= MAX_QUEUE_STEPS * step) {
+            estimatedLimit *= backoffRatio;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private double step() {
+        return Math.max(1, Math.log10(estimatedLimit));
+    }
+}
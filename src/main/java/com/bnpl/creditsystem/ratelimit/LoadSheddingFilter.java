@@ -0,0 +1,152 @@
+package com.bnpl.creditsystem.ratelimit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.bnpl.creditsystem.exception.ErrorCode;
+import com.bnpl.creditsystem.mapper.ErrorJsonWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Load shedding (opcional, application.concurrency-limit.enabled=true): cada grupo de endpoints tiene un
+ * AdaptiveConcurrencyLimit, y lo que pasa del límite responde 503 de inmediato en lugar de esperar en la cola de
+ * Tomcat y hacer lenta a todas las demás solicitudes.
+ *
+ * Grupos: writes (POST, PUT, PATCH y DELETE en /v1/**, incluida la creación de préstamos), reads (GET) y auth
+ * (/v1/auth/**, que cuesta CPU por BCrypt). Las escrituras tienen prioridad: mientras las de writes en curso pasen
+ * de read-priority-threshold de su límite, las lecturas se rechazan para dejarles las conexiones a la BD.
+ *
+ * Una solicitud asíncrona (GET /v1/events con SSE) libera su lugar al soltar el hilo, sin contar como muestra de
+ * latencia: ese tiempo no incluye la respuesta, que sigue abierta.
+ *
+ * Corre antes que la cadena de seguridad, así una solicitud rechazada no gasta ni la validación del JWT.
+ * /actuator no se limita.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "application.concurrency-limit.enabled", havingValue = "true")
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    public enum EndpointGroup {
+        WRITES, READS, AUTH;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<EndpointGroup, AdaptiveConcurrencyLimit> limits = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, Counter> shed = new EnumMap<>(EndpointGroup.class);
+    private final double readPriorityThreshold;
+    private final ErrorJsonWriter errorJsonWriter;
+
+    /**
+     * Límites por grupo en application.concurrency-limit.<grupo>.initial-limit, .min-limit y .max-limit.
+     */
+    public LoadSheddingFilter(Environment environment,
+                              MeterRegistry meterRegistry,
+                              ErrorJsonWriter errorJsonWriter,
+                              @Value("${application.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                              @Value("${application.concurrency-limit.rtt-window:PT10S}") Duration rttWindow,
+                              @Value("${application.concurrency-limit.read-priority-threshold:0.8}") double readPriorityThreshold) {
+        this.errorJsonWriter = errorJsonWriter;
+        this.readPriorityThreshold = readPriorityThreshold;
+        long now = System.nanoTime();
+        for (EndpointGroup group : EndpointGroup.values()) {
+            String prefix = "application.concurrency-limit." + group.tag() + ".";
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                    environment.getProperty(prefix + "initial-limit", Integer.class, 20),
+                    environment.getProperty(prefix + "min-limit", Integer.class, 4),
+                    environment.getProperty(prefix + "max-limit", Integer.class, 150),
+                    backoffRatio, rttWindow.toNanos(), now);
+            limits.put(group, limit);
+            Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit).tag("group", group.tag())
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.inflight", limit, AdaptiveConcurrencyLimit::inflight).tag("group", group.tag())
+                    .description("Requests in flight")
+                    .register(meterRegistry);
+            shed.put(group, Counter.builder("http.server.requests.shed").tag("group", group.tag())
+                    .description("Requests rejected with 503 by the concurrency limiter")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !path(request).startsWith("/v1/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        EndpointGroup group = groupOf(request);
+        AdaptiveConcurrencyLimit limit = limits.get(group);
+        AdaptiveConcurrencyLimit.Permit permit = isDeprioritized(group) ? null : limit.tryAcquire(System.nanoTime());
+        if (permit == null) {
+            shed.get(group).increment();
+            reject(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                limit.releaseWithoutSample();
+            } else {
+                limit.release(permit, System.nanoTime());
+            }
+        }
+    }
+
+    static EndpointGroup groupOf(HttpServletRequest request) {
+        if (path(request).startsWith("/v1/auth/")) {
+            return EndpointGroup.AUTH;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            return EndpointGroup.READS;
+        }
+        return EndpointGroup.WRITES;
+    }
+
+    // Las lecturas ceden su lugar cuando las escrituras están cerca de su límite.
+    private boolean isDeprioritized(EndpointGroup group) {
+        if (group != EndpointGroup.READS) {
+            return false;
+        }
+        AdaptiveConcurrencyLimit writes = limits.get(EndpointGroup.WRITES);
+        return writes.inflight() >= writes.limit() * readPriorityThreshold;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader("Retry-After", "1");
+        errorJsonWriter.writeResponse(ErrorCode.SERVICE_OVERLOADED, "Server is at capacity, retry later.", request.getRequestURI(), response);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
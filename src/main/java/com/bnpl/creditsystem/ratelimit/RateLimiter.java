@@ -0,0 +1,130 @@
+package com.bnpl.creditsystem.ratelimit;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Límites de solicitudes (opcional, application.rate-limit.enabled=true): un TokenBucket por cliente (subject del
+ * JWT) según su tier, y otro por customer para las solicitudes de préstamo. Así un merchant que manda demasiado
+ * tráfico, o muchas solicitudes para el mismo customer, recibe 429 sin afectar a los demás.
+ *
+ * Los buckets viven en caches acotados: los que no se usan durante idle-expiry se descartan, y si hay más de
+ * max-keys se descartan los menos usados. Un bucket descartado vuelve a empezar lleno, que es lo mismo que tendría
+ * después de idle-expiry sin solicitudes si idle-expiry es mayor que el tiempo de rellenado.
+ */
+@Component
+@ConditionalOnProperty(name = "application.rate-limit.enabled", havingValue = "true")
+public class RateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    /**
+     * Ráfaga máxima (capacity) y velocidad de rellenado de un bucket.
+     */
+    public record Tier(String name, long capacity, long nanosPerToken) {
+
+        static Tier of(String name, long capacity, double refillPerSecond) {
+            if (refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Rate limit refill-per-second must be positive for tier " + name);
+            }
+            return new Tier(name, capacity, Math.max(1, Math.round(1_000_000_000L / refillPerSecond)));
+        }
+
+        TokenBucket newBucket(long nowNanos) {
+            return new TokenBucket(capacity, nanosPerToken, nowNanos);
+        }
+    }
+
+    private final Environment environment;
+    private final Map<String, Tier> tiers;
+    private final Tier defaultTier;
+    private final Tier customerTier;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Cache<UUID, TokenBucket> customerBuckets;
+    private final Counter clientRejections;
+    private final Counter customerRejections;
+
+    /**
+     * Los tiers se leen de application.rate-limit.tier.<nombre>.capacity y .refill-per-second; el primero de la
+     * lista es el de los clientes sin application.rate-limit.clients.<subject>.
+     */
+    public RateLimiter(Environment environment,
+                       MeterRegistry meterRegistry,
+                       @Value("${application.rate-limit.tiers:standard}") List<String> tierNames,
+                       @Value("${application.rate-limit.customer.capacity:10}") long customerCapacity,
+                       @Value("${application.rate-limit.customer.refill-per-second:1}") double customerRefillPerSecond,
+                       @Value("${application.rate-limit.max-keys:100000}") long maxKeys,
+                       @Value("${application.rate-limit.idle-expiry:PT10M}") Duration idleExpiry) {
+        this.environment = environment;
+        this.tiers = new LinkedHashMap<>();
+        for (String name : tierNames) {
+            String prefix = "application.rate-limit.tier." + name + ".";
+            tiers.put(name, Tier.of(name, environment.getProperty(prefix + "capacity", Long.class, 100L),
+                    environment.getProperty(prefix + "refill-per-second", Double.class, 50.0)));
+        }
+        this.defaultTier = tiers.values().iterator().next();
+        this.customerTier = Tier.of("customer", customerCapacity, customerRefillPerSecond);
+        this.clientBuckets = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(idleExpiry).build();
+        this.customerBuckets = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(idleExpiry).build();
+        this.clientRejections = Counter.builder("http.server.requests.rate.limited").tag("key", "client")
+                .description("Requests rejected with 429 by the rate limiter")
+                .register(meterRegistry);
+        this.customerRejections = Counter.builder("http.server.requests.rate.limited").tag("key", "customer")
+                .description("Requests rejected with 429 by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Toma un token del bucket del cliente autenticado (subject del JWT).
+     */
+    public TokenBucket.Decision tryAcquireForClient(String subject) {
+        long now = System.nanoTime();
+        TokenBucket.Decision decision = clientBuckets.get(subject, key -> tierFor(key).newBucket(now)).tryAcquire(now);
+        if (!decision.allowed()) {
+            clientRejections.increment();
+        }
+        return decision;
+    }
+
+    /**
+     * Toma un token del bucket del customer de una solicitud de préstamo.
+     */
+    public TokenBucket.Decision tryAcquireForCustomer(UUID customerId) {
+        long now = System.nanoTime();
+        TokenBucket.Decision decision = customerBuckets.get(customerId, key -> customerTier.newBucket(now)).tryAcquire(now);
+        if (!decision.allowed()) {
+            customerRejections.increment();
+        }
+        return decision;
+    }
+
+    // Solo se consulta al crear el bucket, no en cada solicitud.
+    private Tier tierFor(String subject) {
+        String name = environment.getProperty("application.rate-limit.clients." + subject);
+        if (name == null) {
+            return defaultTier;
+        }
+        Tier tier = tiers.get(name);
+        if (tier == null) {
+            log.warn("Unknown rate limit tier {} for client {}, using tier {}", name, subject, defaultTier.name());
+            return defaultTier;
+        }
+        return tier;
+    }
+}
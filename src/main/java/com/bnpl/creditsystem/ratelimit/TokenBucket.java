@@ -0,0 +1,55 @@
+package com.bnpl.creditsystem.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks: capacity tokens como ráfaga máxima y uno nuevo cada nanosPerToken.
+ *
+ * En lugar de guardar los tokens y la hora del último rellenado (dos valores que habría que actualizar juntos),
+ * guarda un solo número: el instante en que el bucket vuelve a estar lleno (GCRA). Los tokens disponibles son
+ * capacity menos lo que falta para ese instante, medido en tokens. Tomar un token es mover ese instante
+ * nanosPerToken hacia adelante con un compareAndSet, así que muchos hilos pueden usar el mismo bucket sin bloquearse.
+ *
+ * Los tiempos se reciben como parámetro (System.nanoTime()) para poder probarlo sin esperar.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    // Instante (nanoTime) en que el bucket vuelve a tener capacity tokens; si ya pasó, está lleno.
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long capacity, long nanosPerToken, long nowNanos) {
+        if (capacity < 1 || nanosPerToken < 1) {
+            throw new IllegalArgumentException("Token bucket capacity and refill interval must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = nanosPerToken;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Resultado de pedir un token. remaining es lo que queda después de esta solicitud; resetNanos es cuánto falta
+     * para que el bucket esté lleno y retryAfterNanos cuánto falta para el siguiente token si se rechazó.
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    public Decision tryAcquire(long nowNanos) {
+        long burstNanos = capacity * nanosPerToken;
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long next = base + nanosPerToken;
+            long debt = next - nowNanos;
+            if (debt > burstNanos) {
+                // No alcanza: el siguiente token llega cuando la deuda baje a capacity - 1 tokens.
+                long retryAfter = (current - nowNanos) - (burstNanos - nanosPerToken);
+                return new Decision(false, capacity, 0, current - nowNanos, retryAfter);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Decision(true, capacity, (burstNanos - debt) / nanosPerToken, debt, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bnpl.creditsystem.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.bnpl.creditsystem.entity.CustomerCreditSummary;
+
+public interface CustomerCreditSummaryRepository extends JpaRepository<CustomerCreditSummary, UUID> {
+
+    // Suma un préstamo nuevo al resumen con un solo UPDATE relativo (sin leerlo antes), así dos préstamos
+    // concurrentes del mismo customer no se pisan. Devuelve 0 si el customer todavía no tiene resumen.
+    @Modifying
+    @Query("""
+            update CustomerCreditSummary s
+            set s.usedCreditAmount = s.usedCreditAmount + :amount,
+                s.openLoans = s.openLoans + 1,
+                s.outstandingAmount = s.outstandingAmount + :outstanding,
+                s.nextDueDate = case when s.nextDueDate is null or s.nextDueDate > :nextDueDate then :nextDueDate else s.nextDueDate end,
+                s.updatedAt = :now,
+                s.version = s.version + 1
+            where s.customerId = :customerId
+            """)
+    int addLoan(@Param("customerId") UUID customerId,
+                @Param("amount") BigDecimal amount,
+                @Param("outstanding") BigDecimal outstanding,
+                @Param("nextDueDate") LocalDate nextDueDate,
+                @Param("now") LocalDateTime now);
+}
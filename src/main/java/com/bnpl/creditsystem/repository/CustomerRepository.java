@@ -1,11 +1,22 @@
 package com.bnpl.creditsystem.repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import com.bnpl.creditsystem.entity.Customer;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
     // Al extender JpaRepository, ya tenemos métodos como:
     // save(), findById(), findAll(), deleteById(), etc.
-}
\ No newline at end of file
+
+    // Solo la versión del customer (para ETags), sin hidratar la entidad. De solo lectura como findById
+    // (heredado), así la consulta va a la réplica si está configurada.
+    @Transactional(readOnly = true)
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+}
@@ -0,0 +1,42 @@
+package com.bnpl.creditsystem.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.bnpl.creditsystem.entity.Installment;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+
+public interface InstallmentRepository extends JpaRepository<Installment, UUID> {
+
+    // Proyección con el total de cuotas por día de pago.
+    interface DailyAmount {
+        LocalDate getDay();
+        BigDecimal getTotal();
+    }
+
+    // El filtro va directo sobre scheduled_payment_date (sin funciones) para que PostgreSQL
+    // descarte las particiones mensuales fuera del rango.
+    @Query("""
+            select i.scheduledPaymentDate as day, sum(i.amount) as total
+            from Installment i
+            where i.status in :statuses
+              and i.scheduledPaymentDate between :from and :to
+            group by i.scheduledPaymentDate
+            """)
+    List<DailyAmount> sumAmountsByScheduledPaymentDate(@Param("statuses") Collection<InstallmentStatus> statuses,
+                                                       @Param("from") LocalDate from,
+                                                       @Param("to") LocalDate to);
+
+    // Borrado en bloque de las cuotas de varios préstamos (archivado).
+    @Modifying
+    @Query("delete from Installment i where i.loan.id in :loanIds")
+    int deleteByLoanIdIn(@Param("loanIds") Collection<UUID> loanIds);
+}
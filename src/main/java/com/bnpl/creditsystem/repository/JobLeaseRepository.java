@@ -0,0 +1,37 @@
+package com.bnpl.creditsystem.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.entity.JobLease;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Toma el lease si está vencido o ya es del mismo dueño (renovación). Devuelve 0 si otra instancia lo tiene
+    // o si la fila todavía no existe.
+    @Transactional
+    @Modifying
+    @Query("""
+            update JobLease l set l.owner = :owner, l.lockedUntil = :lockedUntil
+            where l.name = :name and (l.lockedUntil < :now or l.owner = :owner)
+            """)
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Crea la fila con un INSERT directo: save() haría merge y podría pisar la fila que otra instancia acaba de crear.
+    @Transactional
+    @Modifying
+    @Query(value = "insert into job_leases (name, owner, locked_until) values (:name, :owner, :lockedUntil)", nativeQuery = true)
+    int insert(@Param("name") String name, @Param("owner") String owner, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Libera el lease solo si sigue siendo del dueño indicado.
+    @Transactional
+    @Modifying
+    @Query("update JobLease l set l.lockedUntil = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,16 @@
+package com.bnpl.creditsystem.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import com.bnpl.creditsystem.entity.Loan;
+
+/**
+ * Lectura de un préstamo con todas sus cuotas que, con installments particionada por mes, solo lee las particiones
+ * de las fechas de su plan (ver LoanInstallmentsReaderImpl). Es parte de LoanRepository.
+ */
+public interface LoanInstallmentsReader {
+
+    // Préstamo con sus cuotas ya cargadas, sin necesitar una sesión abierta después.
+    Optional<Loan> findWithInstallmentsById(UUID id);
+}
@@ -0,0 +1,69 @@
+package com.bnpl.creditsystem.repository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.entity.Installment;
+import com.bnpl.creditsystem.entity.Loan;
+import com.bnpl.creditsystem.entity.TimeOrderedUuids;
+import com.bnpl.creditsystem.pricing.ScheduleTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Con installments particionada por mes, la consulta de las cuotas por loan_id revisa todas las particiones. Las
+ * cuotas de un préstamo caen entre el día en que se creó y la última cuota del plan más largo, y el día de creación
+ * sale del timestamp del ID (UUID v7), así que se piden las cuotas de ese rango en una consulta aparte (un día de
+ * margen antes por la zona horaria y el momento exacto del ID) y PostgreSQL solo lee esos meses.
+ *
+ * El rango es una estimación, así que solo se usa si trae todas las cuotas del plan; si falta alguna (otra zona
+ * horaria, filas migradas, un ID que no es v7) se cargan con un fetch join sin filtro. Un préstamo inexistente o con
+ * calendario embebido se resuelve con la primera consulta.
+ */
+class LoanInstallmentsReaderImpl implements LoanInstallmentsReader {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Loan> findWithInstallmentsById(UUID id) {
+        Loan loan = entityManager.find(Loan.class, id);
+        if (loan == null) {
+            return Optional.empty();
+        }
+        if (loan.getInstallmentSchedule() != null) {
+            entityManager.detach(loan);
+            loan.setInstallments(new ArrayList<>());
+            return Optional.of(loan);
+        }
+        Optional<LocalDate> created = TimeOrderedUuids.timestamp(id).map(instant -> LocalDate.ofInstant(instant, ZoneId.systemDefault()));
+        if (created.isPresent()) {
+            List<Installment> installments = entityManager.createQuery("""
+                            select i from Installment i
+                            where i.loan.id = :id and i.scheduledPaymentDate between :from and :to
+                            order by i.scheduledPaymentDate
+                            """, Installment.class)
+                    .setParameter("id", id)
+                    .setParameter("from", created.get().minusDays(1))
+                    .setParameter("to", ScheduleTemplate.latestDueDate(created.get().plusDays(1)))
+                    .getResultList();
+            if (installments.size() == loan.getInstallmentPlan().getNumberOfInstallments()) {
+                entityManager.detach(loan);
+                loan.setInstallments(new ArrayList<>(installments));
+                return Optional.of(loan);
+            }
+        }
+        // El préstamo ya está en la sesión: el fetch join inicializa su colección con todas las cuotas.
+        return Optional.of(entityManager.createQuery("select l from Loan l left join fetch l.installments where l.id = :id", Loan.class)
+                .setParameter("id", id)
+                .getSingleResult());
+    }
+}
@@ -1,10 +1,76 @@
 package com.bnpl.creditsystem.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
 import com.bnpl.creditsystem.entity.Loan;
+import com.bnpl.creditsystem.entity.LoanStatus;
 
-public interface LoanRepository extends JpaRepository<Loan, UUID> {
+public interface LoanRepository extends JpaRepository<Loan, UUID>, LoanInstallmentsReader {
     // Al igual que antes, Spring nos da todos los métodos básicos.
-}
\ No newline at end of file
+    // Las consultas declaradas aquí no heredan la transacción de solo lectura de findById: las lecturas de la API
+    // la declaran para ir a la réplica. La transacción abarca solo la consulta, dentro del shard elegido y de la
+    // carga de SingleFlight, así las peticiones que esperan una carga en curso no retienen una conexión.
+
+    // Solo la versión del préstamo (para ETags), sin hidratar la entidad.
+    @Transactional(readOnly = true)
+    @Query("select l.version from Loan l where l.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    // Varios préstamos con sus cuotas en una sola consulta. Los préstamos con calendario embebido
+    // no tienen filas en installments y salen con la colección vacía.
+    @Transactional(readOnly = true)
+    @Query("select distinct l from Loan l left join fetch l.installments where l.id in :ids")
+    List<Loan> findAllWithInstallmentsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Proyección con solo el calendario embebido, sin cargar la entidad completa.
+    interface EmbeddedSchedule {
+        InstallmentSchedule getSchedule();
+    }
+
+    // Calendarios embebidos (modo EMBEDDED) de los préstamos que no están en el estatus indicado.
+    @Query("select l.installmentSchedule as schedule from Loan l where l.installmentSchedule is not null and l.status <> :excludedStatus")
+    Stream<EmbeddedSchedule> streamEmbeddedSchedules(@Param("excludedStatus") LoanStatus excludedStatus);
+
+    // Calendario embebido junto con su customer, para los resúmenes de crédito.
+    interface CustomerSchedule {
+        UUID getCustomerId();
+        InstallmentSchedule getSchedule();
+    }
+
+    // Calendarios embebidos de los préstamos de varios customers que no están en el estatus indicado.
+    @Query("""
+            select l.customer.id as customerId, l.installmentSchedule as schedule from Loan l
+            where l.customer.id in :customerIds and l.installmentSchedule is not null and l.status <> :excludedStatus
+            """)
+    List<CustomerSchedule> findEmbeddedSchedulesByCustomerIdIn(@Param("customerIds") Collection<UUID> customerIds,
+                                                              @Param("excludedStatus") LoanStatus excludedStatus);
+
+    // Cuáles de los IDs indicados existen (la reconciliación del flujo de efectivo lo pregunta dentro de su snapshot).
+    @Query("select l.id from Loan l where l.id in :ids")
+    List<UUID> findIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // IDs de los préstamos en un estatus creados antes de la fecha indicada (candidatos a archivar).
+    @Query("select l.id from Loan l where l.status = :status and l.createdAt < :createdBefore order by l.id")
+    List<UUID> findIdsByStatusAndCreatedAtBefore(@Param("status") LoanStatus status,
+                                                 @Param("createdBefore") LocalDateTime createdBefore,
+                                                 Pageable pageable);
+
+    // Borrado en bloque (sin cargar las entidades); las cuotas se borran antes con InstallmentRepository.
+    @Modifying
+    @Query("delete from Loan l where l.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+}
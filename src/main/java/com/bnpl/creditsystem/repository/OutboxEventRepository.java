@@ -0,0 +1,36 @@
+package com.bnpl.creditsystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.entity.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Eventos publicados después de un offset, en orden de posición en el feed. Las posiciones se asignan en
+    // orden de commit, así que un evento que hace commit tarde queda después del offset de quien ya leyó.
+    @Query("""
+            select e from OutboxEvent e
+            where e.feedPosition > :after
+            order by e.feedPosition
+            """)
+    List<OutboxEvent> findPublishedAfter(@Param("after") long after, Limit limit);
+
+    // Transacción propia de escritura: el purge la ejecuta shard por shard fuera de cualquier transacción.
+    // Nunca borra el último evento publicado (la siguiente posición se calcula a partir de él) ni los pendientes.
+    @Transactional
+    @Modifying
+    @Query("""
+            delete from OutboxEvent e
+            where e.createdAt < :createdBefore
+            and e.feedPosition < (select max(p.feedPosition) from OutboxEvent p)
+            """)
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
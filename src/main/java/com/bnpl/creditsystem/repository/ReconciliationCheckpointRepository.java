@@ -0,0 +1,8 @@
+package com.bnpl.creditsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.bnpl.creditsystem.entity.ReconciliationCheckpoint;
+
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+}
@@ -0,0 +1,233 @@
+package com.bnpl.creditsystem.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.bnpl.creditsystem.exception.ErrorCode;
+import com.bnpl.creditsystem.mapper.ErrorJsonWriter;
+import com.bnpl.creditsystem.ratelimit.RateLimiter;
+import com.bnpl.creditsystem.ratelimit.TokenBucket;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Aplica los límites de RateLimiter justo después de JwtAuthFilter, así las solicitudes rechazadas responden 429
+ * sin llegar a los controladores ni a la BD. Cada solicitud autenticada toma un token del bucket de su cliente;
+ * POST /v1/loans y /v1/loans/quote además toman uno del bucket del customerId del body. Las solicitudes sin
+ * autenticar pasan sin límite (las rechaza la configuración de seguridad).
+ *
+ * Las respuestas llevan los headers RateLimit-Limit, RateLimit-Remaining y RateLimit-Reset del bucket más
+ * cercano a agotarse, y los 429 además Retry-After (en segundos).
+ *
+ * El body de las solicitudes de préstamo se guarda en memoria antes de llegar al controlador, así que se acota a
+ * MAX_LOAN_BODY_BYTES: uno más grande responde 413 sin leer el resto.
+ *
+ * No es un @Component para que Spring Boot no lo registre también como filtro del servlet; lo crea SecurityConfig.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOANS_PATH = "/v1/loans";
+    private static final String QUOTE_PATH = "/v1/loans/quote";
+    // Un LoanRequest válido ocupa unos cientos de bytes.
+    static final int MAX_LOAN_BODY_BYTES = 16 * 1024;
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final ErrorJsonWriter errorJsonWriter;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucket.Decision decision = rateLimiter.tryAcquireForClient(authentication.getName());
+        if (!decision.allowed()) {
+            reject(request, response, decision);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        if (isLoanRequest(request)) {
+            // El body se lee aquí y se guarda para que el controlador lo pueda leer otra vez.
+            CachedBodyRequest cached = CachedBodyRequest.read(request);
+            if (cached == null) {
+                errorJsonWriter.writeResponse(ErrorCode.PAYLOAD_TOO_LARGE,
+                        "Request body exceeds " + MAX_LOAN_BODY_BYTES + " bytes.", request.getRequestURI(), response);
+                return;
+            }
+            UUID customerId = customerId(cached.body);
+            if (customerId != null) {
+                TokenBucket.Decision customerDecision = rateLimiter.tryAcquireForCustomer(customerId);
+                if (!customerDecision.allowed()) {
+                    reject(request, response, customerDecision);
+                    return;
+                }
+                if (customerDecision.remaining() < decision.remaining()) {
+                    decision = customerDecision;
+                }
+            }
+            forwarded = cached;
+        }
+
+        writeHeaders(response, decision);
+        filterChain.doFilter(forwarded, response);
+    }
+
+    private static boolean isLoanRequest(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return LOANS_PATH.equals(path) || QUOTE_PATH.equals(path);
+    }
+
+    /**
+     * Busca customerId en el primer nivel del JSON sin convertir el body a LoanRequest. Si el body no es JSON
+     * válido o no trae un UUID, devuelve null y la validación del controlador responde 400.
+     */
+    private UUID customerId(byte[] body) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("customerId".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? UUID.fromString(parser.getText()) : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, TokenBucket.Decision decision) {
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision.resetNanos())));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, TokenBucket.Decision decision) throws IOException {
+        long retryAfter = Math.max(1, toSeconds(decision.retryAfterNanos()));
+        writeHeaders(response, decision);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        errorJsonWriter.writeResponse(ErrorCode.TOO_MANY_REQUESTS, "Rate limit exceeded, retry after " + retryAfter + " seconds.",
+                request.getRequestURI(), response);
+    }
+
+    // Redondea hacia arriba: un cliente que espera ese número de segundos ya tiene su token.
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    /**
+     * Guarda el body ya leído y lo entrega otra vez en getInputStream/getReader. Como el body ya está completo en
+     * memoria, el stream siempre está listo y un ReadListener recibe onDataAvailable y onAllDataRead de inmediato.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        /**
+         * Lee a lo más MAX_LOAN_BODY_BYTES + 1 bytes; devuelve null si el body pasa del límite.
+         */
+        static CachedBodyRequest read(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_LOAN_BODY_BYTES) {
+                return null;
+            }
+            byte[] body = request.getInputStream().readNBytes(MAX_LOAN_BODY_BYTES + 1);
+            return body.length > MAX_LOAN_BODY_BYTES ? null : new CachedBodyRequest(request, body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bnpl.creditsystem.security;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -8,6 +9,10 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.bnpl.creditsystem.mapper.ErrorJsonWriter;
+import com.bnpl.creditsystem.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -16,6 +21,9 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final ObjectProvider<RateLimiter> rateLimiter; // Solo existe con application.rate-limit.enabled=true.
+    private final ObjectMapper objectMapper;
+    private final ErrorJsonWriter errorJsonWriter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -32,6 +40,12 @@ public class SecurityConfig {
             // Añadimos nuestro filtro JWT antes del filtro de autenticación estándar
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // Límites por cliente y por customer: justo después del JWT, cuando ya se sabe quién llama.
+        RateLimiter limiter = rateLimiter.getIfAvailable();
+        if (limiter != null) {
+            http.addFilterAfter(new RateLimitFilter(limiter, objectMapper, errorJsonWriter), JwtAuthFilter.class);
+        }
+
         return http.build();
     }
 }
\ No newline at end of file
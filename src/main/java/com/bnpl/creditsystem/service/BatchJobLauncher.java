@@ -0,0 +1,57 @@
+package com.bnpl.creditsystem.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Corre los procesos programados largos (reconciliación de crédito, reconstrucción de resúmenes, archivado) en hilos
+ * "batch-job-" propios. El método @Scheduled solo los lanza y regresa, así una corrida de horas no ocupa un hilo del
+ * scheduler que comparten el relay del feed, la medición de la réplica y los demás procesos cortos.
+ *
+ * Cada proceso corre a lo más una vez a la vez: si la corrida anterior sigue, la nueva se omite.
+ */
+@Component
+public class BatchJobLauncher {
+    private static final Logger log = LoggerFactory.getLogger(BatchJobLauncher.class);
+
+    // Un hilo por proceso en curso; el número de procesos está acotado por running.
+    private final ExecutorService executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("batch-job-"));
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public void launch(String name, Runnable job) {
+        if (!running.add(name)) {
+            log.warn("Batch job {} is still running; skipping this run", name);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    job.run();
+                } catch (RuntimeException ex) {
+                    log.error("Batch job {} failed", name, ex);
+                } finally {
+                    running.remove(name);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            running.remove(name);
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
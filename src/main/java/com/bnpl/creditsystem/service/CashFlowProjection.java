@@ -0,0 +1,254 @@
+package com.bnpl.creditsystem.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+
+/**
+ * Proyección de flujo de efectivo esperado por día.
+ * Mantiene un arreglo de centavos (long) indexado por día epoch a partir de un día base,
+ * de modo que leer N días cuesta O(N) sin importar cuántas cuotas existan.
+ * Se actualiza incrementalmente al crear préstamos y se reconstruye periódicamente contra la BD.
+ *
+ * La reconstrucción lee un snapshot de la BD y después repite solo los préstamos que hicieron commit fuera de él.
+ * Un préstamo cuyo commit se cruza con el snapshot puede estar o no en él, así que los calendarios que empiezan a
+ * hacer commit se registran por ID y la reconstrucción pregunta, dentro del mismo snapshot, cuáles ya cuenta.
+ *
+ * La proyección es local a cada instancia y eventualmente consistente: cada una suma al momento solo los préstamos
+ * que ella creó, y los de las demás instancias aparecen hasta su siguiente reconciliación (reconcile-interval).
+ * Detrás de un balanceador, dos instancias pueden devolver totales distintos durante ese intervalo.
+ */
+@Component
+public class CashFlowProjection {
+
+    private final int capacityDays;
+
+    // Calendarios cuya transacción empezó a hacer commit y todavía no termina, por ID de préstamo.
+    private final Map<UUID, InstallmentSchedule> committing = new ConcurrentHashMap<>();
+
+    // Ventana vigente; se reemplaza completa en cada reconciliación.
+    private volatile Buckets current;
+    // Reconstrucción en curso, o null.
+    private volatile Rebuild rebuilding;
+
+    public CashFlowProjection(@Value("${application.analytics.cashflow.capacity-days:400}") int capacityDays) {
+        this.capacityDays = capacityDays;
+        this.current = new Buckets(LocalDate.now().toEpochDay(), capacityDays);
+    }
+
+    public int getCapacityDays() {
+        return capacityDays;
+    }
+
+    /**
+     * Registra el calendario de un préstamo nuevo. Si hay una transacción activa, se aplica
+     * solo cuando ésta hace commit para no proyectar préstamos que terminaron en rollback.
+     */
+    public void recordSchedule(UUID loanId, InstallmentSchedule schedule) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    committing.put(loanId, schedule);
+                }
+
+                @Override
+                public void afterCommit() {
+                    applyCommitted(loanId, schedule);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    committing.remove(loanId);
+                }
+            });
+        } else {
+            applyCommitted(loanId, schedule);
+        }
+    }
+
+    /**
+     * Devuelve los centavos esperados para cada día desde {@code from} durante {@code days} días.
+     */
+    public long[] dailyCents(LocalDate from, int days) {
+        Buckets snapshot = current;
+        long firstDay = from.toEpochDay();
+        long[] result = new long[days];
+        for (int i = 0; i < days; i++) {
+            result[i] = snapshot.get(firstDay + i);
+        }
+        return result;
+    }
+
+    /**
+     * Abre una nueva ventana que empieza en {@code baseDay}. Debe llamarse antes de abrir los snapshots:
+     * desde aquí se guardan los calendarios que hacen commit para repetirlos en la ventana nueva.
+     */
+    void beginRebuild(LocalDate baseDay) {
+        rebuilding = new Rebuild(new Buckets(baseDay.toEpochDay(), capacityDays));
+    }
+
+    /**
+     * Suma a la ventana en construcción el total leído de la BD para un día.
+     */
+    void loadDay(LocalDate date, BigDecimal amount) {
+        Rebuild pending = rebuilding;
+        if (pending != null) {
+            pending.buckets.add(date.toEpochDay(), toCents(amount));
+        }
+    }
+
+    /**
+     * Suma a la ventana en construcción las cuotas pendientes de un calendario embebido.
+     */
+    void loadSchedule(InstallmentSchedule schedule, Set<InstallmentStatus> pendingStatuses) {
+        Rebuild pending = rebuilding;
+        if (pending != null) {
+            for (int i = 0; i < schedule.size(); i++) {
+                if (pendingStatuses.contains(schedule.status(i))) {
+                    pending.buckets.add(schedule.epochDay(i), schedule.amountCents(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Préstamos cuyo commit pudo cruzarse con un snapshot abierto después de {@link #beginRebuild}: los que están
+     * haciendo commit y los que ya lo hicieron durante la reconstrucción. Los que empiecen a hacer commit después
+     * de esta llamada ya no pueden estar en el snapshot.
+     */
+    Set<UUID> commitCandidates() {
+        Set<UUID> candidates = new HashSet<>(committing.keySet());
+        Rebuild pending = rebuilding;
+        if (pending != null) {
+            synchronized (this) {
+                candidates.addAll(pending.committed.keySet());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Marca los préstamos que el snapshot ya contó; su calendario no se vuelve a sumar a la ventana nueva.
+     */
+    synchronized void markCounted(Collection<UUID> loanIds) {
+        Rebuild pending = rebuilding;
+        if (pending != null) {
+            pending.buckets.counted.addAll(loanIds);
+        }
+    }
+
+    /**
+     * Repite en la ventana reconstruida los calendarios que hicieron commit fuera del snapshot y la publica
+     * como la vigente.
+     */
+    synchronized void completeRebuild() {
+        Rebuild pending = rebuilding;
+        if (pending != null) {
+            pending.committed.forEach((loanId, schedule) -> {
+                if (!pending.buckets.counted.remove(loanId)) {
+                    pending.buckets.addSchedule(schedule);
+                }
+            });
+            // Los que quedan en counted aún no llegan a afterCommit; al llegar no se suman a esta ventana.
+            current = pending.buckets;
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Descarta una reconstrucción fallida; la ventana vigente sigue activa.
+     */
+    synchronized void abortRebuild() {
+        rebuilding = null;
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Aplica un calendario con commit a la ventana vigente, salvo que el snapshot que la construyó ya lo
+     * contara, y lo guarda para la reconstrucción en curso. Fuera de una reconstrucción no toma el lock.
+     */
+    private void applyCommitted(UUID loanId, InstallmentSchedule schedule) {
+        if (rebuilding == null) {
+            Buckets window = current;
+            if (window.counted.isEmpty()) {
+                window.addSchedule(schedule);
+                return;
+            }
+        }
+        synchronized (this) {
+            if (!current.counted.remove(loanId)) {
+                current.addSchedule(schedule);
+            }
+            Rebuild pending = rebuilding;
+            if (pending != null) {
+                pending.committed.put(loanId, schedule);
+            }
+        }
+    }
+
+    /**
+     * Reconstrucción en curso: la ventana nueva y los calendarios que hicieron commit desde que empezó.
+     */
+    private static final class Rebuild {
+        private final Buckets buckets;
+        private final Map<UUID, InstallmentSchedule> committed = new LinkedHashMap<>();
+
+        private Rebuild(Buckets buckets) {
+            this.buckets = buckets;
+        }
+    }
+
+    /**
+     * Arreglo de centavos por día a partir de un día base. Los días fuera de la ventana se ignoran;
+     * la siguiente reconciliación los incorpora cuando entren en rango.
+     */
+    private static final class Buckets {
+        private final long baseEpochDay;
+        private final AtomicLongArray cents;
+        // Préstamos contados por el snapshot cuyo calendario todavía no se aplica; se quitan al aplicarlo.
+        private final Set<UUID> counted = ConcurrentHashMap.newKeySet();
+
+        private Buckets(long baseEpochDay, int capacityDays) {
+            this.baseEpochDay = baseEpochDay;
+            this.cents = new AtomicLongArray(capacityDays);
+        }
+
+        private void add(long epochDay, long deltaCents) {
+            long index = epochDay - baseEpochDay;
+            if (index >= 0 && index < cents.length()) {
+                cents.addAndGet((int) index, deltaCents);
+            }
+        }
+
+        private void addSchedule(InstallmentSchedule schedule) {
+            for (int i = 0; i < schedule.size(); i++) {
+                add(schedule.epochDay(i), schedule.amountCents(i));
+            }
+        }
+
+        private long get(long epochDay) {
+            long index = epochDay - baseEpochDay;
+            return (index >= 0 && index < cents.length()) ? cents.get((int) index) : 0L;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.bnpl.creditsystem.service;
+
+import com.bnpl.creditsystem.dto.CashFlowResponse;
+
+public interface CashFlowService {
+
+    CashFlowResponse getProjectedInflows(int days);
+    void reconcile();
+}
@@ -0,0 +1,113 @@
+package com.bnpl.creditsystem.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.CashFlowResponse;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+import com.bnpl.creditsystem.entity.LoanStatus;
+import com.bnpl.creditsystem.exception.InvalidRequestException;
+import com.bnpl.creditsystem.repository.InstallmentRepository;
+import com.bnpl.creditsystem.repository.LoanRepository;
+
+import lombok.RequiredArgsConstructor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Service
+@RequiredArgsConstructor
+public class CashFlowServiceImpl implements CashFlowService {
+    private static final Logger log = LoggerFactory.getLogger(CashFlowServiceImpl.class);
+
+    // Cuotas que todavía representan un ingreso esperado.
+    private static final Set<InstallmentStatus> PENDING_STATUSES = EnumSet.of(InstallmentStatus.NEXT, InstallmentStatus.PENDING);
+
+    private final CashFlowProjection cashFlowProjection;
+    private final InstallmentRepository installmentRepository;
+    private final LoanRepository loanRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public CashFlowResponse getProjectedInflows(int days) {
+        if (days < 1 || days > cashFlowProjection.getCapacityDays()) {
+            throw new InvalidRequestException(String.format("Days must be between 1 and %d.", cashFlowProjection.getCapacityDays()));
+        }
+
+        // 1. Leer la ventana de la proyección en memoria, sin consultar la BD.
+        LocalDate from = LocalDate.now();
+        long[] dailyCents = cashFlowProjection.dailyCents(from, days);
+
+        // 2. Convertir los centavos a montos por día.
+        List<CashFlowResponse.DailyInflow> dailyInflows = new ArrayList<>(days);
+        long totalCents = 0L;
+        for (int i = 0; i < days; i++) {
+            totalCents += dailyCents[i];
+            dailyInflows.add(new CashFlowResponse.DailyInflow(from.plusDays(i), BigDecimal.valueOf(dailyCents[i], 2)));
+        }
+        return new CashFlowResponse(from, from.plusDays(days - 1L), BigDecimal.valueOf(totalCents, 2), dailyInflows);
+    }
+
+    /**
+     * Reconstruye la proyección a partir de la BD para corregir cualquier desviación
+     * de las actualizaciones incrementales (rollbacks, cambios fuera de la aplicación, etc.).
+     * Con sharding se suman los totales de todos los shards, cada uno en su propia transacción.
+     * Cada shard se lee en el primario (una réplica atrasada perdería préstamos recientes) con REPEATABLE READ,
+     * para que los totales y la consulta de préstamos contados vean el mismo snapshot.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${application.analytics.cashflow.reconcile-interval:PT15M}")
+    public void reconcile() {
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(cashFlowProjection.getCapacityDays() - 1L);
+
+        TransactionTemplate snapshotTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        cashFlowProjection.beginRebuild(from);
+        try {
+            for (String shard : shardRouter.shards()) {
+                shardRouter.callOnShard(shard, () -> {
+                    snapshotTransaction.executeWithoutResult(status -> loadShard(from, to));
+                    return null;
+                });
+            }
+            cashFlowProjection.completeRebuild();
+            log.info("Cash flow projection reconciled from {} shard(s) between {} and {}", shardRouter.shards().size(), from, to);
+        } catch (RuntimeException ex) {
+            cashFlowProjection.abortRebuild();
+            throw ex;
+        }
+    }
+
+    private void loadShard(LocalDate from, LocalDate to) {
+        List<InstallmentRepository.DailyAmount> totals =
+                installmentRepository.sumAmountsByScheduledPaymentDate(PENDING_STATUSES, from, to);
+        for (InstallmentRepository.DailyAmount total : totals) {
+            cashFlowProjection.loadDay(total.getDay(), total.getTotal());
+        }
+        // Los préstamos con calendario embebido no tienen filas en installments.
+        try (Stream<LoanRepository.EmbeddedSchedule> schedules = loanRepository.streamEmbeddedSchedules(LoanStatus.COMPLETED)) {
+            schedules.forEach(embedded -> cashFlowProjection.loadSchedule(embedded.getSchedule(), PENDING_STATUSES));
+        }
+        // Los préstamos que hacían commit mientras se abría el snapshot pueden estar ya contados; se pregunta
+        // en el mismo snapshot para no sumarlos dos veces.
+        Set<UUID> candidates = cashFlowProjection.commitCandidates();
+        if (!candidates.isEmpty()) {
+            cashFlowProjection.markCounted(loanRepository.findIdsByIdIn(candidates));
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.bnpl.creditsystem.service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.entity.Customer;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.entity.ReconciliationCheckpoint;
+import com.bnpl.creditsystem.logging.EventLog;
+import com.bnpl.creditsystem.logging.LogEvent;
+import com.bnpl.creditsystem.repository.ReconciliationCheckpointRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reconciliación del crédito disponible (opcional, application.credit-reconciliation.enabled=true): para cada
+ * customer, availableCreditLineAmount debe ser su línea de crédito menos la suma de sus préstamos no COMPLETED.
+ *
+ * Recorre los customers de cada shard en orden de ID, en bloques de chunk-size por paginación por llave. Cada bloque
+ * se resuelve con una sola consulta (customers del rango + suma de sus préstamos) y los bloques se procesan en
+ * paralelo en un pool de parallelism hilos. Las lecturas no bloquean filas. Con repair=true, cada diferencia se
+ * corrige con un UPDATE condicionado a la versión leída: si el customer cambió mientras tanto (p. ej. un préstamo
+ * nuevo), no se toca y queda para la siguiente corrida.
+ *
+ * El avance se guarda en reconciliation_checkpoints después de cada bloque, solo hasta el último bloque contiguo
+ * terminado. Si la corrida se interrumpe o pasa de max-duration, la siguiente continúa desde ahí.
+ */
+@Component
+@ConditionalOnProperty(name = "application.credit-reconciliation.enabled", havingValue = "true")
+public class CreditReconciliationJob {
+    private static final Logger log = LoggerFactory.getLogger(CreditReconciliationJob.class);
+
+    static final String CHECKPOINT_NAME = "credit";
+
+    // Bloques en vuelo por hilo: suficientes para que ningún hilo espere mientras se pagina el siguiente rango.
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    private static final String CHUNK_QUERY = """
+            select c.id, c.credit_line_amount, c.available_credit_line_amount, c.created_at, c.version,
+                   coalesce(sum(l.loan_amount), 0) as outstanding
+            from customers c
+            left join loans l on l.customer_id = c.id and l.status <> 'COMPLETED'
+            where %s
+            group by c.id, c.credit_line_amount, c.available_credit_line_amount, c.created_at, c.version
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final ShardRouter shardRouter;
+    private final EventOutbox eventOutbox;
+    private final CustomerCreditCache customerCreditCache;
+    private final SingleFlight<UUID, Long> customerVersions;
+    private final SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EventLog eventLog;
+    private final BatchJobLauncher batchJobLauncher;
+    private final Counter mismatchCounter;
+    private final Counter repairCounter;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration maxDuration;
+    private final boolean repair;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CreditReconciliationJob(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   ReconciliationCheckpointRepository checkpointRepository,
+                                   ShardRouter shardRouter,
+                                   EventOutbox eventOutbox,
+                                   CustomerCreditCache customerCreditCache,
+                                   SingleFlight<UUID, Long> customerVersions,
+                                   SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads,
+                                   EntityManagerFactory entityManagerFactory,
+                                   EventLog eventLog,
+                                   BatchJobLauncher batchJobLauncher,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${application.credit-reconciliation.chunk-size:1000}") int chunkSize,
+                                   @Value("${application.credit-reconciliation.parallelism:4}") int parallelism,
+                                   @Value("${application.credit-reconciliation.max-duration:PT4H}") Duration maxDuration,
+                                   @Value("${application.credit-reconciliation.repair:false}") boolean repair) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Credit reconciliation chunk-size and parallelism must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.shardRouter = shardRouter;
+        this.eventOutbox = eventOutbox;
+        this.customerCreditCache = customerCreditCache;
+        this.customerVersions = customerVersions;
+        this.customerReads = customerReads;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventLog = eventLog;
+        this.batchJobLauncher = batchJobLauncher;
+        this.mismatchCounter = Counter.builder("credit.reconciliation.mismatches")
+                .description("Customers whose available credit did not match their outstanding loans")
+                .register(meterRegistry);
+        this.repairCounter = Counter.builder("credit.reconciliation.repairs")
+                .description("Available credit values corrected by the reconciliation")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxDuration = maxDuration;
+        this.repair = repair;
+    }
+
+    public record Result(long scannedCustomers, long mismatches, long repaired, boolean completed) {
+
+        Result plus(Result other) {
+            return new Result(scannedCustomers + other.scannedCustomers, mismatches + other.mismatches,
+                    repaired + other.repaired, completed && other.completed);
+        }
+    }
+
+    private record ChunkResult(long scanned, long mismatches, long repaired) {
+    }
+
+    private record PendingChunk(UUID lastCustomerId, Future<ChunkResult> result) {
+    }
+
+    private record CustomerCredit(UUID id, BigDecimal creditLine, BigDecimal available, LocalDateTime createdAt,
+                                  long version, BigDecimal outstanding) {
+    }
+
+    // Puede tardar hasta max-duration: corre en BatchJobLauncher y no en el hilo del scheduler.
+    @Scheduled(cron = "${application.credit-reconciliation.cron:0 0 3 * * *}")
+    public void reconcileScheduled() {
+        batchJobLauncher.launch("credit-reconciliation", this::reconcile);
+    }
+
+    /**
+     * Recorre todos los shards uno por uno. Devuelve los totales de esta ejecución (sin los de corridas anteriores
+     * que se reanudan); completed es false si algún shard quedó pendiente por max-duration.
+     */
+    public Result reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Credit reconciliation is already running; skipping");
+            return new Result(0, 0, 0, false);
+        }
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("credit-reconciliation-"));
+        try {
+            Result total = new Result(0, 0, 0, true);
+            for (String shard : shardRouter.shards()) {
+                total = total.plus(shardRouter.callOnShard(shard, () -> reconcileShard(shard, executor, deadline)));
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private Result reconcileShard(String shard, ExecutorService executor, long deadline) {
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .filter(existing -> existing.getCompletedAt() == null)
+                .orElseGet(() -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    return new ReconciliationCheckpoint(CHECKPOINT_NAME, null, 0, 0, 0, now, now, null);
+                });
+        if (checkpoint.getLastCustomerId() != null) {
+            log.info("Resuming credit reconciliation on shard {} after customer {}", shard, checkpoint.getLastCustomerId());
+        }
+
+        long scanned = 0;
+        long mismatches = 0;
+        long repaired = 0;
+        Deque<PendingChunk> pending = new ArrayDeque<>();
+        UUID after = checkpoint.getLastCustomerId();
+        boolean exhausted = false;
+        try {
+            while (true) {
+                if (!exhausted && System.nanoTime() < deadline) {
+                    // Paginación por llave: solo el último ID del bloque, con un recorrido del índice de customers.
+                    UUID upTo = after == null
+                            ? jdbcTemplate.queryForObject("select max(id) from (select id from customers order by id limit ?) chunk",
+                                    UUID.class, chunkSize)
+                            : jdbcTemplate.queryForObject("select max(id) from (select id from customers where id > ? order by id limit ?) chunk",
+                                    UUID.class, after, chunkSize);
+                    if (upTo == null) {
+                        exhausted = true;
+                    } else {
+                        UUID from = after;
+                        pending.add(new PendingChunk(upTo, executor.submit(() -> shardRouter.callOnShard(shard, () -> reconcileChunk(from, upTo)))));
+                        after = upTo;
+                    }
+                }
+                boolean submitting = !exhausted && System.nanoTime() < deadline;
+                if (pending.isEmpty() && !submitting) {
+                    break;
+                }
+                // Se espera al bloque más antiguo cuando ya hay suficientes en vuelo o cuando no se enviarán más.
+                // El checkpoint solo avanza en orden, así que un bloque terminado antes que los anteriores espera su turno.
+                while (!pending.isEmpty() && (pending.peek().result().isDone()
+                        || pending.size() >= parallelism * CHUNKS_IN_FLIGHT_PER_THREAD || !submitting)) {
+                    PendingChunk chunk = pending.poll();
+                    ChunkResult result = chunk.result().get();
+                    scanned += result.scanned();
+                    mismatches += result.mismatches();
+                    repaired += result.repaired();
+                    checkpoint.setLastCustomerId(chunk.lastCustomerId());
+                    checkpoint.setScannedCustomers(checkpoint.getScannedCustomers() + result.scanned());
+                    checkpoint.setMismatches(checkpoint.getMismatches() + result.mismatches());
+                    checkpoint.setRepaired(checkpoint.getRepaired() + result.repaired());
+                    checkpoint.setUpdatedAt(LocalDateTime.now());
+                    checkpointRepository.save(checkpoint);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            pending.forEach(chunk -> chunk.result().cancel(true));
+            log.warn("Credit reconciliation interrupted on shard {}; it will resume after customer {}", shard, checkpoint.getLastCustomerId());
+            return new Result(scanned, mismatches, repaired, false);
+        } catch (ExecutionException ex) {
+            pending.forEach(chunk -> chunk.result().cancel(true));
+            log.error("Credit reconciliation failed on shard {}; it will resume after customer {}", shard, checkpoint.getLastCustomerId(), ex.getCause());
+            return new Result(scanned, mismatches, repaired, false);
+        }
+
+        if (!exhausted) {
+            checkpointRepository.save(checkpoint);
+            log.warn("Credit reconciliation on shard {} reached max-duration {} after customer {}; the next run resumes from there",
+                    shard, maxDuration, checkpoint.getLastCustomerId());
+            return new Result(scanned, mismatches, repaired, false);
+        }
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getCompletedAt());
+        checkpointRepository.save(checkpoint);
+        log.info("Credit reconciliation on shard {} completed: {} customers, {} mismatches, {} repaired",
+                shard, checkpoint.getScannedCustomers(), checkpoint.getMismatches(), checkpoint.getRepaired());
+        return new Result(scanned, mismatches, repaired, true);
+    }
+
+    /**
+     * Customers con ID en (after, upTo], con la suma de sus préstamos pendientes en la misma consulta.
+     * La consulta ve un solo snapshot, así que el crédito y los préstamos de cada customer son consistentes entre sí.
+     */
+    private ChunkResult reconcileChunk(UUID after, UUID upTo) {
+        List<CustomerCredit> customers = after == null
+                ? jdbcTemplate.query(CHUNK_QUERY.formatted("c.id <= ?"), (rs, row) -> toCustomerCredit(rs), upTo)
+                : jdbcTemplate.query(CHUNK_QUERY.formatted("c.id > ? and c.id <= ?"), (rs, row) -> toCustomerCredit(rs), after, upTo);
+        long mismatches = 0;
+        long repaired = 0;
+        for (CustomerCredit customer : customers) {
+            BigDecimal expected = customer.creditLine().subtract(customer.outstanding());
+            if (customer.available().compareTo(expected) == 0) {
+                continue;
+            }
+            mismatches++;
+            mismatchCounter.increment();
+            eventLog.warn(LogEvent.CREDIT_MISMATCH)
+                    .addKeyValue("customerId", customer.id())
+                    .addKeyValue("availableCredit", customer.available())
+                    .addKeyValue("expectedCredit", expected)
+                    .addKeyValue("repair", repair)
+                    .log();
+            if (repair && repair(customer, expected)) {
+                repaired++;
+                repairCounter.increment();
+            }
+        }
+        return new ChunkResult(customers.size(), mismatches, repaired);
+    }
+
+    /**
+     * Corrige el crédito solo si el customer sigue en la versión leída, en una transacción corta por customer.
+     * Publica el cambio en el outbox e invalida las copias cacheadas, igual que createLoan.
+     */
+    private boolean repair(CustomerCredit customer, BigDecimal expected) {
+        Boolean updated = transactionTemplate.execute(status -> {
+            int rows = jdbcTemplate.update("update customers set available_credit_line_amount = ?, version = version + 1 where id = ? and version = ?",
+                    expected, customer.id(), customer.version());
+            if (rows == 0) {
+                return false;
+            }
+            eventOutbox.record(OutboxEventType.CUSTOMER_CREDIT_CHANGED, customer.id(),
+                    new CustomerResponse(customer.id(), customer.creditLine(), expected, customer.createdAt()));
+            customerCreditCache.evict(customer.id());
+            customerVersions.evict(customer.id());
+            customerReads.evict(customer.id());
+            return true;
+        });
+        if (Boolean.TRUE.equals(updated)) {
+            // El UPDATE no pasa por Hibernate: sin esto, el siguiente createLoan leería la copia vieja del cache de segundo nivel.
+            entityManagerFactory.getCache().evict(Customer.class, customer.id());
+            return true;
+        }
+        log.debug("Customer {} changed while being reconciled; left for the next run", customer.id());
+        return false;
+    }
+
+    private static CustomerCredit toCustomerCredit(ResultSet rs) throws SQLException {
+        return new CustomerCredit(rs.getObject("id", UUID.class), rs.getBigDecimal("credit_line_amount"),
+                rs.getBigDecimal("available_credit_line_amount"), rs.getObject("created_at", LocalDateTime.class),
+                rs.getLong("version"), rs.getBigDecimal("outstanding"));
+    }
+}
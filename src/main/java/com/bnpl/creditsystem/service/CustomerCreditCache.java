@@ -0,0 +1,63 @@
+package com.bnpl.creditsystem.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.repository.CustomerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache de corta duración con los datos de crédito de un customer que necesitan las cotizaciones.
+ * Solo se usa para lecturas sin efectos; la creación de préstamos siempre valida contra la BD.
+ */
+@Component
+public class CustomerCreditCache {
+
+    private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
+    private final Cache<UUID, CreditSnapshot> snapshots;
+
+    public CustomerCreditCache(CustomerRepository customerRepository,
+                               ShardRouter shardRouter,
+                               @Value("${application.loans.quote.customer-cache-size:10000}") long cacheSize,
+                               @Value("${application.loans.quote.customer-cache-ttl:PT5S}") Duration ttl) {
+        this.customerRepository = customerRepository;
+        this.shardRouter = shardRouter;
+        this.snapshots = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttl).build();
+    }
+
+    public record CreditSnapshot(UUID customerId, String firstName, BigDecimal availableCreditLineAmount) {
+    }
+
+    public Optional<CreditSnapshot> find(UUID customerId) {
+        return Optional.ofNullable(snapshots.get(customerId, id -> shardRouter.callOnCustomerShard(id, () -> customerRepository.findById(id))
+                .map(customer -> new CreditSnapshot(customer.getId(), customer.getFirstName(), customer.getAvailableCreditLineAmount()))
+                .orElse(null)));
+    }
+
+    /**
+     * Invalida el snapshot de un customer cuando su crédito cambia. Si hay una transacción activa,
+     * se invalida después del commit para no volver a cargar el valor anterior.
+     */
+    public void evict(UUID customerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.invalidate(customerId);
+                }
+            });
+        } else {
+            snapshots.invalidate(customerId);
+        }
+    }
+}
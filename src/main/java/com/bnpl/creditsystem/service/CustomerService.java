@@ -1,13 +1,21 @@
 package com.bnpl.creditsystem.service;
 
+import java.util.List;
 import java.util.UUID;
 
+import com.bnpl.creditsystem.dto.BatchGetResponse;
 import com.bnpl.creditsystem.dto.CustomerRequest;
 import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.CustomerSummaryResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 
 public interface CustomerService {
     // Este es el contrato: cualquier clase que se llame CustomerService
     // DEBE tener un método que se llame registerCustomer y otro que se llame findCustomerById
     CustomerResponse registerCustomer(CustomerRequest request);
     CustomerResponse findCustomerById(UUID customerId);
+    long findCustomerVersion(UUID customerId);
+    VersionedResponse<CustomerResponse> findVersionedCustomerById(UUID customerId);
+    BatchGetResponse<CustomerResponse> findCustomersByIds(List<UUID> customerIds);
+    VersionedResponse<CustomerSummaryResponse> findCustomerSummary(UUID customerId);
 }
\ No newline at end of file
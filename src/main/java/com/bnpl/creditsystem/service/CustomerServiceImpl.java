@@ -3,16 +3,32 @@ package com.bnpl.creditsystem.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.bnpl.creditsystem.dto.BatchGetResponse;
 import com.bnpl.creditsystem.dto.CustomerRequest;
 import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.CustomerSummaryResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.datasource.ReadYourWritesTracker;
+import com.bnpl.creditsystem.datasource.ShardRouter;
 import com.bnpl.creditsystem.entity.Customer;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.entity.UuidV7Generator;
 import com.bnpl.creditsystem.exception.InvalidAgeException;
 import com.bnpl.creditsystem.exception.CustomerNotFoundException;
+import com.bnpl.creditsystem.logging.EventLog;
+import com.bnpl.creditsystem.logging.LogEvent;
+import com.bnpl.creditsystem.pricing.CreditLinePolicy;
 import com.bnpl.creditsystem.repository.CustomerRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -25,69 +41,69 @@ import org.slf4j.LoggerFactory;
 public class CustomerServiceImpl implements CustomerService {
     private static final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
 
-    // constantes para las reglas de negocio, esto despues se puede guardar en una tabla de BD y consultar
-    private static final int MIN_AGE = 18;
-    private static final int MAX_AGE = 65;
-
-    private static final int AGE_TIER_1_UPPER_BOUND = 25;
-    private static final int AGE_TIER_2_UPPER_BOUND = 30;
-    
-    private static final BigDecimal CREDIT_LINE_TIER_1 = new BigDecimal("3000");
-    private static final BigDecimal CREDIT_LINE_TIER_2 = new BigDecimal("5000");
-    private static final BigDecimal CREDIT_LINE_TIER_3 = new BigDecimal("8000");
+    // El mensaje del rechazo por edad no cambia; se arma una sola vez.
+    private static final String AGE_OUT_OF_RANGE_MESSAGE =
+            "Customer must be between " + CreditLinePolicy.MIN_AGE + " and " + CreditLinePolicy.MAX_AGE + " years old.";
 
     private final CustomerRepository customerRepository; // Nuestro acceso a la base de datos de customers
+    private final EventOutbox eventOutbox; // Eventos para sistemas externos, en la misma transacción
+    private final SingleFlight<UUID, Long> customerVersions; // Agrupa las consultas de versión (ETag) del mismo customer
+    private final SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads; // Agrupa lecturas concurrentes del mismo customer
+    private final ShardRouter shardRouter; // Elige el shard de cada customer (no hace nada sin sharding)
+    private final EventLog eventLog; // Eventos estructurados y muestreados (sin datos personales)
+    private final CustomerSummaryProjection customerSummaryProjection; // Resumen de crédito mantenido por customer
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker; // Lecturas recién escritas al primario (solo con réplica)
 
     @Override // Indicamos que estamos implementando el método del contrato (la interfaz)
+    @Transactional // El customer y su evento en el outbox se guardan juntos o no se guarda ninguno.
     public CustomerResponse registerCustomer(CustomerRequest request) {
-        // String que concatena nombre, apellido paterno y materno para utilizar en los logs
-        final String fullName = String.format("%s %s %s", request.getFirstName(), request.getLastName(), request.getSecondLastName());
-        
-        log.info("Attempting to register new customer: {}", fullName);
+        // Los logs no incluyen nombre ni fecha de nacimiento (datos personales); el customer se identifica por su ID.
 
         // 1. Calcular la edad del customer
-        int age = Period.between(request.getDateOfBirth(), LocalDate.now()).getYears();
-        log.info("Calculated age for customer {}: {} years old", fullName, age);
+        int age = CreditLinePolicy.ageOn(request.getDateOfBirth(), LocalDate.now());
 
         // 2. Validar la edad según las reglas de negocio
-        if (age < MIN_AGE || age > MAX_AGE) {
-            log.warn("Customer registration rejected for {}: Age {} is out of allowed range ({} - {})",
-            fullName, age, MIN_AGE, MAX_AGE);
-
-            throw new InvalidAgeException(String.format("Customer must be between %d and %d years old.", MIN_AGE, MAX_AGE));
+        if (!CreditLinePolicy.isEligibleAge(age)) {
+            eventLog.warn(LogEvent.CUSTOMER_REJECTED).addKeyValue("reason", "AGE_OUT_OF_RANGE").log();
+            throw new InvalidAgeException(AGE_OUT_OF_RANGE_MESSAGE);
         }
 
         // 3. Asignar la línea de crédito según la edad
-        BigDecimal creditLine;
-        if (age <= AGE_TIER_1_UPPER_BOUND) {
-            creditLine = CREDIT_LINE_TIER_1;
-        } else if (age <= AGE_TIER_2_UPPER_BOUND) {
-            creditLine = CREDIT_LINE_TIER_2;
-        } else { // AGE_TIER_UPPER_BOUND to MAX_AGE
-            creditLine = CREDIT_LINE_TIER_3;
-        }
-        log.info("Assigned credit line of {} to customer {}", creditLine, fullName);
+        BigDecimal creditLine = CreditLinePolicy.creditLineFor(age);
 
-        // 4. Crear la nueva entidad customer para guardarla en la BD
-        Customer newCustomer = toEntity(request, creditLine);
+        // 4. Crear la nueva entidad customer para guardarla en la BD. El ID se genera aquí porque
+        // decide en qué shard se guarda el customer (y después sus préstamos).
+        UUID customerId = UuidV7Generator.nextUuid();
+        shardRouter.bindToCustomer(customerId);
+        Customer newCustomer = toEntity(customerId, request, creditLine);
 
         // 5. Guardar el nuevo customer en la base de datos usando el repositorio
         Customer savedCustomer = customerRepository.save(newCustomer);
-        log.info("Successfully saved new customer with ID: {}", savedCustomer.getId());
-
-        // 6. Preparar y devolver la respuesta DTO con los datos del customere guardado
-        return toCustomerResponse(savedCustomer);
+        customerSummaryProjection.recordRegistration(savedCustomer.getId());
+        readYourWritesTracker.ifAvailable(tracker -> tracker.recordWrite(savedCustomer.getId()));
+        eventLog.info(LogEvent.CUSTOMER_REGISTERED)
+                .addKeyValue("customerId", savedCustomer.getId())
+                .addKeyValue("creditLine", creditLine)
+                .log();
+
+        // 6. Preparar la respuesta DTO con los datos del customer guardado y publicarla en el outbox
+        CustomerResponse customerResponse = toCustomerResponse(savedCustomer);
+        eventOutbox.record(OutboxEventType.CUSTOMER_REGISTERED, savedCustomer.getId(), customerResponse);
+
+        // 7. Devolver la respuesta
+        return customerResponse;
     }
 
     /**
      * Convierte un DTO de solicitud y una línea de crédito en una entidad customer.
-     * El ID se pasa como nulo para indicar que es una nueva entidad.
+     * La versión se pasa como nula para indicar que es una nueva entidad.
+     * @param id El ID ya generado del customer.
      * @param request El DTO con los datos de entrada.
      * @param creditLine La línea de crédito calculada.
      * @return Una nueva entidad Customer lista para ser guardada.
      */
-    private Customer toEntity(CustomerRequest request, BigDecimal creditLine) {
-        return new Customer(null, request.getFirstName(), request.getLastName(), request.getSecondLastName(), request.getDateOfBirth(), creditLine, creditLine, LocalDateTime.now());
+    private Customer toEntity(UUID id, CustomerRequest request, BigDecimal creditLine) {
+        return new Customer(id, request.getFirstName(), request.getLastName(), request.getSecondLastName(), request.getDateOfBirth(), creditLine, creditLine, LocalDateTime.now(), null);
     }
 
     /**
@@ -99,14 +115,68 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     public CustomerResponse findCustomerById(UUID customerId) {
-        log.info("Attempting to consult a customer by the Id: {}", customerId);
+        return findVersionedCustomerById(customerId).body();
+    }
+
+    /**
+     * Versión actual del customer, para responder 304 sin cargar la entidad.
+     */
+    @Override
+    public long findCustomerVersion(UUID customerId) {
+        return customerVersions.get(customerId, id -> ReadYourWritesTracker.callReading(id, () -> shardRouter.callOnCustomerShard(id, () -> customerRepository.findVersionById(id)))
+                .orElseThrow(() -> new CustomerNotFoundException(String.valueOf(id))));
+    }
+
+    /**
+     * Las lecturas concurrentes del mismo customer comparten una sola consulta y el resultado
+     * se reutiliza durante una ventana corta (ver SingleFlight).
+     */
+    @Override
+    public VersionedResponse<CustomerResponse> findVersionedCustomerById(UUID customerId) {
+        return customerReads.get(customerId, this::loadCustomer);
+    }
+
+    private VersionedResponse<CustomerResponse> loadCustomer(UUID customerId) {
+        log.debug("Attempting to consult a customer by the Id: {}", customerId);
 
         // 1. Busca el customer por ID y si no lo encuentra, lanza una excepción.
-        Customer customerConsulted = customerRepository.findById(customerId)
+        Customer customerConsulted = ReadYourWritesTracker.callReading(customerId,
+                () -> shardRouter.callOnCustomerShard(customerId, () -> customerRepository.findById(customerId)))
                 .orElseThrow(() -> new CustomerNotFoundException(String.valueOf(customerId)));
 
-        log.info("Successfully retrieving customer: {} {} {}", customerConsulted.getFirstName(), customerConsulted.getLastName(), customerConsulted.getSecondLastName());
+        log.debug("Successfully retrieving customer: {}", customerId);
         // 2. Convierte la entidad a DTO y la devuelve.
-        return toCustomerResponse(customerConsulted);
+        return new VersionedResponse<>(customerConsulted.getVersion(), toCustomerResponse(customerConsulted));
+    }
+
+    /**
+     * Resuelve varios customers con una sola consulta (IN) por shard y devuelve los resultados en el orden
+     * de la petición, con found = false para los IDs que no existen.
+     */
+    @Override
+    public BatchGetResponse<CustomerResponse> findCustomersByIds(List<UUID> customerIds) {
+        Map<UUID, Customer> customersById = new HashMap<>();
+        for (Map.Entry<String, List<UUID>> shard : shardRouter.groupCustomersByShard(new LinkedHashSet<>(customerIds)).entrySet()) {
+            for (Customer customer : ReadYourWritesTracker.callReading(shard.getValue(),
+                    () -> shardRouter.callOnShard(shard.getKey(), () -> customerRepository.findAllById(shard.getValue())))) {
+                customersById.put(customer.getId(), customer);
+            }
+        }
+        log.debug("Batch get resolved {} of {} requested customers", customersById.size(), customerIds.size());
+
+        List<BatchGetResponse.Result<CustomerResponse>> results = new ArrayList<>(customerIds.size());
+        for (UUID customerId : customerIds) {
+            Customer customer = customersById.get(customerId);
+            results.add(new BatchGetResponse.Result<>(customerId, customer != null, customer != null ? toCustomerResponse(customer) : null));
+        }
+        return new BatchGetResponse<>(results);
+    }
+
+    /**
+     * Resumen de crédito del customer, leído de su fila mantenida (ver CustomerSummaryProjection).
+     */
+    @Override
+    public VersionedResponse<CustomerSummaryResponse> findCustomerSummary(UUID customerId) {
+        return customerSummaryProjection.find(customerId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,320 @@
+package com.bnpl.creditsystem.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.CustomerSummaryResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.entity.CustomerCreditSummary;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+import com.bnpl.creditsystem.entity.LoanStatus;
+import com.bnpl.creditsystem.exception.CustomerNotFoundException;
+import com.bnpl.creditsystem.repository.CustomerCreditSummaryRepository;
+import com.bnpl.creditsystem.repository.LoanRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resumen de crédito por customer (customer_credit_summaries): crédito usado, préstamos abiertos, próxima fecha de
+ * pago y saldo pendiente. GET /v1/customers/{id}/summary lo lee por llave en lugar de sumar préstamos y cuotas.
+ *
+ * - Registro: el customer nace con un resumen en ceros, en la misma transacción.
+ * - createLoan: suma el préstamo con un UPDATE relativo en la misma transacción (recordLoan).
+ * - Pagos o cambios de estatus de préstamos y cuotas: deben llamar a refresh en su transacción, que recalcula
+ *   al customer desde las tablas.
+ * - Reconstrucción periódica (rebuild-cron): recalcula todos los resúmenes por bloques de customers y corrige los
+ *   que difieran, p. ej. préstamos creados por la variante reactiva o cuotas que cambiaron fuera de la aplicación.
+ *   Cada corrección se escribe solo si el resumen no cambió desde que se leyó, así no pisa un préstamo concurrente.
+ *
+ * La próxima fecha de pago es la más cercana de hoy en adelante: las cuotas vencidas siguen en NEXT o PENDING (nada
+ * las mueve de estatus) pero cuentan solo en el saldo pendiente. Como la fecha guardada queda en el pasado al pasar su
+ * día, find recalcula al customer cuando la lee vencida.
+ */
+@Component
+public class CustomerSummaryProjection {
+    private static final Logger log = LoggerFactory.getLogger(CustomerSummaryProjection.class);
+
+    // Cuotas que todavía se deben (saldo pendiente) y las que pueden dar la próxima fecha si no está vencida.
+    static final Set<InstallmentStatus> UNPAID_STATUSES = EnumSet.of(InstallmentStatus.NEXT, InstallmentStatus.PENDING, InstallmentStatus.ERROR);
+    static final Set<InstallmentStatus> DUE_STATUSES = EnumSet.of(InstallmentStatus.NEXT, InstallmentStatus.PENDING);
+
+    private final CustomerCreditSummaryRepository summaryRepository;
+    private final LoanRepository loanRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final BatchJobLauncher batchJobLauncher;
+    private final Counter corrections;
+    private final int chunkSize;
+
+    public CustomerSummaryProjection(CustomerCreditSummaryRepository summaryRepository,
+                                     LoanRepository loanRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     ShardRouter shardRouter,
+                                     BatchJobLauncher batchJobLauncher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${application.customers.summary.rebuild-chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Customer summary rebuild-chunk-size must be at least 1");
+        }
+        this.summaryRepository = summaryRepository;
+        this.loanRepository = loanRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.batchJobLauncher = batchJobLauncher;
+        this.corrections = Counter.builder("customers.summary.corrections")
+                .description("Customer credit summaries corrected by a refresh or rebuild")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+    }
+
+    private record Totals(BigDecimal usedCreditAmount, int openLoans, LocalDate nextDueDate, BigDecimal outstandingAmount) {
+    }
+
+    private record Stored(Totals totals, long version) {
+    }
+
+    /**
+     * Resumen en ceros de un customer nuevo; se llama dentro de la transacción del registro.
+     */
+    public void recordRegistration(UUID customerId) {
+        summaryRepository.save(new CustomerCreditSummary(customerId, BigDecimal.ZERO, 0, null, BigDecimal.ZERO, LocalDateTime.now(), null));
+    }
+
+    /**
+     * Suma un préstamo nuevo; se llama dentro de la transacción de createLoan, en el shard del customer.
+     * Un customer sin resumen (anterior a esta tabla) se omite: su resumen se crea completo al leerlo o al reconstruir.
+     */
+    public void recordLoan(UUID customerId, BigDecimal loanAmount, InstallmentSchedule schedule) {
+        LocalDate today = LocalDate.now();
+        BigDecimal outstanding = BigDecimal.ZERO;
+        LocalDate nextDueDate = null;
+        for (int i = 0; i < schedule.size(); i++) {
+            InstallmentStatus status = schedule.status(i);
+            if (UNPAID_STATUSES.contains(status)) {
+                outstanding = outstanding.add(schedule.amount(i));
+            }
+            nextDueDate = earliestDue(nextDueDate, status, schedule.scheduledPaymentDate(i), today);
+        }
+        if (summaryRepository.addLoan(customerId, loanAmount, outstanding, nextDueDate, LocalDateTime.now()) == 0) {
+            log.debug("Customer {} has no credit summary yet; it will be built on the next read or rebuild", customerId);
+        }
+    }
+
+    public VersionedResponse<CustomerSummaryResponse> find(UUID customerId) {
+        CustomerCreditSummary summary = shardRouter.callOnCustomerShard(customerId, () -> summaryRepository.findById(customerId)
+                        .map(this::refreshIfPastDue)
+                        .or(() -> buildMissing(customerId)))
+                .orElseThrow(() -> new CustomerNotFoundException(String.valueOf(customerId)));
+        return new VersionedResponse<>(summary.getVersion(), new CustomerSummaryResponse(summary.getCustomerId(),
+                summary.getUsedCreditAmount(), summary.getOpenLoans(), summary.getNextDueDate(), summary.getOutstandingAmount()));
+    }
+
+    /**
+     * Recalcula el resumen de un customer desde sus préstamos y cuotas. Para los cambios que no son un préstamo
+     * nuevo (pagos, cambios de estatus); dentro de una transacción, el resultado se escribe con ella.
+     */
+    public void refresh(UUID customerId) {
+        shardRouter.callOnCustomerShard(customerId, () -> rebuildCustomers(List.of(customerId)));
+    }
+
+    /**
+     * Customer anterior a la tabla de resúmenes: se construye una vez al leerlo. Si otra lectura lo creó al mismo
+     * tiempo, se usa el suyo.
+     */
+    private Optional<CustomerCreditSummary> buildMissing(UUID customerId) {
+        try {
+            rebuildCustomers(List.of(customerId));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Credit summary of customer {} was created concurrently", customerId);
+        }
+        return summaryRepository.findById(customerId);
+    }
+
+    /**
+     * Un resumen cuya próxima fecha ya pasó se recalcula una vez (la fecha siguiente sale de las tablas) y se relee.
+     */
+    private CustomerCreditSummary refreshIfPastDue(CustomerCreditSummary summary) {
+        if (summary.getNextDueDate() == null || !summary.getNextDueDate().isBefore(LocalDate.now())) {
+            return summary;
+        }
+        rebuildCustomers(List.of(summary.getCustomerId()));
+        return summaryRepository.findById(summary.getCustomerId()).orElse(summary);
+    }
+
+    // Recorre todos los customers: corre en BatchJobLauncher y no en el hilo del scheduler.
+    @Scheduled(cron = "${application.customers.summary.rebuild-cron:0 30 4 * * *}")
+    public void rebuildScheduled() {
+        batchJobLauncher.launch("customer-summary-rebuild", this::rebuild);
+    }
+
+    public void rebuild() {
+        for (String shard : shardRouter.shards()) {
+            long[] counts = shardRouter.callOnShard(shard, this::rebuildShard);
+            log.info("Customer credit summaries rebuilt on shard {}: {} customers, {} corrected", shard, counts[0], counts[1]);
+        }
+    }
+
+    /**
+     * @return clientes revisados y resúmenes corregidos (o creados).
+     */
+    private long[] rebuildShard() {
+        long scanned = 0;
+        long corrected = 0;
+        UUID after = null;
+        while (true) {
+            // Paginación por llave (keyset), igual que el rebalanceo de shards.
+            List<UUID> customerIds = after == null
+                    ? jdbcTemplate.queryForList("select id from customers order by id limit " + chunkSize, UUID.class)
+                    : jdbcTemplate.queryForList("select id from customers where id > ? order by id limit " + chunkSize, UUID.class, after);
+            if (customerIds.isEmpty()) {
+                return new long[] {scanned, corrected};
+            }
+            scanned += customerIds.size();
+            corrected += rebuildCustomers(customerIds);
+            if (customerIds.size() < chunkSize) {
+                return new long[] {scanned, corrected};
+            }
+            after = customerIds.get(customerIds.size() - 1);
+        }
+    }
+
+    /**
+     * Recalcula los resúmenes de un bloque de customers en una transacción: lee los resúmenes guardados, después los
+     * totales reales, y escribe solo los que difieren con un UPDATE condicionado a la versión leída. Si un préstamo
+     * nuevo cambió el resumen entre la lectura y la escritura, la versión ya no coincide y ese customer se deja.
+     */
+    private int rebuildCustomers(List<UUID> customerIds) {
+        Integer corrected = transactionTemplate.execute(status -> {
+            Map<UUID, Stored> stored = readStored(customerIds);
+            Map<UUID, Totals> actual = computeTotals(customerIds);
+            LocalDateTime now = LocalDateTime.now();
+            int written = 0;
+            for (Map.Entry<UUID, Totals> entry : actual.entrySet()) {
+                Stored current = stored.get(entry.getKey());
+                Totals totals = entry.getValue();
+                if (current == null) {
+                    jdbcTemplate.update("insert into customer_credit_summaries (customer_id, used_credit_amount, open_loans, next_due_date, "
+                                    + "outstanding_amount, updated_at, version) values (?, ?, ?, ?, ?, ?, 0)",
+                            entry.getKey(), totals.usedCreditAmount(), totals.openLoans(), totals.nextDueDate(), totals.outstandingAmount(), now);
+                    written++;
+                } else if (!sameTotals(current.totals(), totals)) {
+                    written += jdbcTemplate.update("update customer_credit_summaries set used_credit_amount = ?, open_loans = ?, next_due_date = ?, "
+                                    + "outstanding_amount = ?, updated_at = ?, version = version + 1 where customer_id = ? and version = ?",
+                            totals.usedCreditAmount(), totals.openLoans(), totals.nextDueDate(), totals.outstandingAmount(), now,
+                            entry.getKey(), current.version());
+                }
+            }
+            return written;
+        });
+        corrections.increment(corrected);
+        return corrected;
+    }
+
+    private Map<UUID, Stored> readStored(List<UUID> customerIds) {
+        Map<UUID, Stored> stored = new HashMap<>();
+        namedJdbcTemplate.query("select customer_id, used_credit_amount, open_loans, next_due_date, outstanding_amount, version "
+                + "from customer_credit_summaries where customer_id in (:ids)", Map.of("ids", customerIds), rs -> {
+                    stored.put(rs.getObject("customer_id", UUID.class), new Stored(new Totals(rs.getBigDecimal("used_credit_amount"),
+                            rs.getInt("open_loans"), rs.getObject("next_due_date", LocalDate.class), rs.getBigDecimal("outstanding_amount")),
+                            rs.getLong("version")));
+                });
+        return stored;
+    }
+
+    /**
+     * Totales reales de los customers que existen: préstamos no COMPLETED y sus cuotas, tanto en filas (installments)
+     * como embebidas en el préstamo.
+     */
+    private Map<UUID, Totals> computeTotals(List<UUID> customerIds) {
+        Map<UUID, Totals> totals = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        Map<String, Object> params = Map.of("ids", customerIds, "completed", LoanStatus.COMPLETED.name(), "today", today);
+        namedJdbcTemplate.query("""
+                select c.id, coalesce(sum(l.loan_amount), 0) as used_credit, count(l.id) as open_loans
+                from customers c
+                left join loans l on l.customer_id = c.id and l.status <> :completed
+                where c.id in (:ids)
+                group by c.id
+                """, params, rs -> {
+                    totals.put(rs.getObject("id", UUID.class),
+                            new Totals(rs.getBigDecimal("used_credit"), rs.getInt("open_loans"), null, BigDecimal.ZERO));
+                });
+
+        namedJdbcTemplate.query("""
+                select l.customer_id, i.status, sum(i.amount) as total,
+                       min(case when i.scheduled_payment_date >= :today then i.scheduled_payment_date end) as first_date
+                from installments i
+                join loans l on l.id = i.loan_id
+                where l.customer_id in (:ids) and l.status <> :completed
+                group by l.customer_id, i.status
+                """, params, rs -> {
+                    addInstallments(totals, rs.getObject("customer_id", UUID.class), InstallmentStatus.valueOf(rs.getString("status")),
+                            rs.getBigDecimal("total"), rs.getObject("first_date", LocalDate.class), today);
+                });
+
+        for (LoanRepository.CustomerSchedule embedded : loanRepository.findEmbeddedSchedulesByCustomerIdIn(customerIds, LoanStatus.COMPLETED)) {
+            InstallmentSchedule schedule = embedded.getSchedule();
+            for (int i = 0; i < schedule.size(); i++) {
+                addInstallments(totals, embedded.getCustomerId(), schedule.status(i), schedule.amount(i), schedule.scheduledPaymentDate(i), today);
+            }
+        }
+        return totals;
+    }
+
+    // date es nula cuando todas las cuotas de ese estatus ya vencieron.
+    private static void addInstallments(Map<UUID, Totals> totals, UUID customerId, InstallmentStatus status, BigDecimal amount,
+                                        LocalDate date, LocalDate today) {
+        Totals current = totals.get(customerId);
+        if (current == null) {
+            return;
+        }
+        BigDecimal outstanding = UNPAID_STATUSES.contains(status) ? current.outstandingAmount().add(amount) : current.outstandingAmount();
+        LocalDate nextDueDate = earliestDue(current.nextDueDate(), status, date, today);
+        totals.put(customerId, new Totals(current.usedCreditAmount(), current.openLoans(), nextDueDate, outstanding));
+    }
+
+    /**
+     * La fecha más cercana entre nextDueDate y date, si date es de una cuota por pagar y no está vencida.
+     */
+    private static LocalDate earliestDue(LocalDate nextDueDate, InstallmentStatus status, LocalDate date, LocalDate today) {
+        if (!DUE_STATUSES.contains(status) || date == null || date.isBefore(today)) {
+            return nextDueDate;
+        }
+        return nextDueDate == null || date.isBefore(nextDueDate) ? date : nextDueDate;
+    }
+
+    private static boolean sameTotals(Totals stored, Totals actual) {
+        return stored.usedCreditAmount().compareTo(actual.usedCreditAmount()) == 0
+                && stored.openLoans() == actual.openLoans()
+                && Objects.equals(stored.nextDueDate(), actual.nextDueDate())
+                && stored.outstandingAmount().compareTo(actual.outstandingAmount()) == 0;
+    }
+}
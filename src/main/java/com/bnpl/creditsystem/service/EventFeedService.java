@@ -0,0 +1,11 @@
+package com.bnpl.creditsystem.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bnpl.creditsystem.dto.EventPageResponse;
+
+public interface EventFeedService {
+
+    EventPageResponse readEvents(long after, int limit);
+    SseEmitter subscribe(long after);
+}
@@ -0,0 +1,324 @@
+package com.bnpl.creditsystem.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.EventPageResponse;
+import com.bnpl.creditsystem.dto.EventResponse;
+import com.bnpl.creditsystem.entity.OutboxEvent;
+import com.bnpl.creditsystem.exception.InvalidRequestException;
+import com.bnpl.creditsystem.repository.OutboxEventRepository;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feed de eventos a partir de la tabla outbox.
+ * Un solo relay lee la tabla por posición en el feed y reparte los eventos a todos los
+ * consumidores SSE conectados, en lugar de que cada consumidor consulte la BD por su cuenta.
+ *
+ * La secuencia de la fila se asigna al insertar, así que una transacción que hace commit tarde (esperando un
+ * bloqueo, o un lote del group commit) deja un evento con una secuencia menor que la de eventos ya leídos.
+ * Por eso el offset del feed es otra columna, feed_position, que el relay asigna a los eventos que ya hicieron
+ * commit: cada asignación continúa desde la posición más alta, en una transacción, así que un evento que llega
+ * tarde siempre queda después del offset de los consumidores. Dos asignaciones concurrentes (varias instancias)
+ * chocan con el índice único y una de ellas se reintenta en el siguiente ciclo.
+ *
+ * El relay (en el hilo de @Scheduled) solo consulta y encola: cada consumidor tiene una cola acotada de
+ * subscriber-buffer eventos y sus envíos corren en un hilo propio del pool "event-feed-", así un consumidor lento
+ * no detiene a los demás ni a los otros procesos programados. Si su cola se llena, se desconecta y puede
+ * reanudar desde su último offset con Last-Event-ID.
+ *
+ * El relay y las consultas usan la BD principal, que con sharding es el primer shard: los eventos de los demás
+ * shards se quedan en su outbox. Para no perderlos sin aviso, con más de un shard la aplicación no arranca salvo
+ * con application.events.allow-default-shard-only=true.
+ */
+@Service
+public class EventFeedServiceImpl implements EventFeedService {
+    private static final Logger log = LoggerFactory.getLogger(EventFeedServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration retention;
+    private final long emitterTimeoutMillis;
+    private final int relayBatchSize;
+    private final int subscriberBuffer;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Un hilo por consumidor que está enviando; los hilos sin trabajo terminan solos.
+    private final ExecutorService senders = Executors.newCachedThreadPool(new CustomizableThreadFactory("event-feed-"));
+
+    public EventFeedServiceImpl(OutboxEventRepository outboxEventRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ShardRouter shardRouter,
+                                @Value("${application.events.retention:P7D}") Duration retention,
+                                @Value("${application.events.emitter-timeout:PT30M}") Duration emitterTimeout,
+                                @Value("${application.events.relay-batch-size:500}") int relayBatchSize,
+                                @Value("${application.events.subscriber-buffer:2000}") int subscriberBuffer,
+                                @Value("${application.events.allow-default-shard-only:false}") boolean allowDefaultShardOnly) {
+        if (relayBatchSize < 1 || subscriberBuffer < relayBatchSize) {
+            throw new IllegalArgumentException("Event feed subscriber-buffer must be at least relay-batch-size (and both positive)");
+        }
+        List<String> shards = shardRouter.shards();
+        if (shards.size() > 1) {
+            if (!allowDefaultShardOnly) {
+                throw new IllegalStateException("The event feed only publishes events from shard " + shards.get(0) + "; events from "
+                        + shards.subList(1, shards.size()) + " would never be published. Set application.events.allow-default-shard-only=true to accept this");
+            }
+            log.warn("Event feed publishes events from shard {} only; events from {} stay unpublished in their outbox",
+                    shards.get(0), shards.subList(1, shards.size()));
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.retention = retention;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.relayBatchSize = relayBatchSize;
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EventPageResponse readEvents(long after, int limit) {
+        if (after < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException(String.format("Offset must be positive and limit between 1 and %d.", MAX_PAGE_SIZE));
+        }
+        List<EventResponse> events = outboxEventRepository.findPublishedAfter(after, Limit.of(limit)).stream()
+                .map(this::toEventResponse)
+                .toList();
+        long nextOffset = events.isEmpty() ? after : events.get(events.size() - 1).getSequence();
+        return new EventPageResponse(events, nextOffset);
+    }
+
+    @Override
+    public SseEmitter subscribe(long after) {
+        return subscribe(after, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter subscribe(long after, SseEmitter emitter) {
+        if (after < 0) {
+            throw new InvalidRequestException("Offset must be positive.");
+        }
+        Subscriber subscriber = new Subscriber(emitter, after, subscriberBuffer);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.info("Event feed subscriber connected at offset {} ({} active)", after, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Relay: publica los eventos que ya hicieron commit, pone al día a los consumidores que empezaron
+     * desde un offset antiguo y después lee una sola vez los eventos nuevos para todos los consumidores al día.
+     * Los eventos se encolan en orden por consumidor; el envío ocurre en el hilo de cada uno (ver drain).
+     */
+    @Scheduled(fixedDelayString = "${application.events.relay-interval:PT0.2S}")
+    public void relay() {
+        publishPending();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        // 1. Consumidores poniéndose al día: una página por ciclo desde su propio offset, si cabe en su cola.
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.live && subscriber.queue.remainingCapacity() >= relayBatchSize) {
+                List<OutboxEvent> page = outboxEventRepository.findPublishedAfter(subscriber.cursor, Limit.of(relayBatchSize));
+                enqueue(subscriber, page);
+                subscriber.live = page.size() < relayBatchSize;
+            }
+        }
+
+        // 2. Consumidores al día: una sola consulta desde el offset más antiguo entre ellos.
+        long from = Long.MAX_VALUE;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.live) {
+                from = Math.min(from, subscriber.cursor);
+            }
+        }
+        if (from == Long.MAX_VALUE) {
+            return;
+        }
+        List<OutboxEvent> events = outboxEventRepository.findPublishedAfter(from, Limit.of(relayBatchSize));
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.live) {
+                enqueue(subscriber, events);
+            }
+        }
+    }
+
+    /**
+     * Asigna posiciones en el feed a los eventos que ya hicieron commit, en lotes de relay-batch-size.
+     * @return eventos publicados.
+     */
+    int publishPending() {
+        int published = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> publishBatch());
+                published += batch;
+            } while (batch == relayBatchSize);
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Outbox events were published concurrently by another instance; retrying on the next cycle");
+        }
+        return published;
+    }
+
+    private int publishBatch() {
+        // Solo se ven los eventos con commit; los de transacciones abiertas reciben su posición en un ciclo posterior.
+        List<Long> pending = jdbcTemplate.queryForList(
+                "select sequence from outbox_events where feed_position is null order by sequence limit " + relayBatchSize, Long.class);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long last = jdbcTemplate.queryForObject("select coalesce(max(feed_position), 0) from outbox_events", Long.class);
+        List<Object[]> positions = new ArrayList<>(pending.size());
+        for (Long sequence : pending) {
+            positions.add(new Object[] {++last, sequence});
+        }
+        jdbcTemplate.batchUpdate("update outbox_events set feed_position = ? where sequence = ? and feed_position is null", positions);
+        return pending.size();
+    }
+
+    /**
+     * Elimina los eventos que ya superaron el periodo de retención (en cada shard).
+     */
+    @Scheduled(fixedDelayString = "${application.events.purge-interval:PT1H}")
+    public void purge() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(retention);
+        for (String shard : shardRouter.shards()) {
+            int deleted = shardRouter.callOnShard(shard, () -> outboxEventRepository.deleteCreatedBefore(createdBefore));
+            if (deleted > 0) {
+                log.info("Purged {} outbox events older than {} from shard {}", deleted, retention, shard);
+            }
+        }
+    }
+
+    /**
+     * Encola los eventos posteriores al offset del consumidor. Si no caben, el consumidor se quedó atrás:
+     * se desconecta en lugar de esperar a que lea.
+     */
+    private void enqueue(Subscriber subscriber, List<OutboxEvent> events) {
+        if (subscriber.dropped) {
+            return;
+        }
+        for (OutboxEvent event : events) {
+            if (event.getFeedPosition() > subscriber.cursor) {
+                if (!subscriber.queue.offer(event)) {
+                    log.warn("Event feed subscriber fell behind at offset {} ({} events buffered); disconnecting it",
+                            subscriber.cursor, subscriberBuffer);
+                    subscribers.remove(subscriber);
+                    subscriber.dropped = true;
+                    break;
+                }
+                subscriber.cursor = event.getFeedPosition();
+            }
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException ex) {
+                // La aplicación se está deteniendo.
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Envía la cola de un consumidor en orden, en su propio hilo. Un envío bloqueado (cliente lento) solo
+     * detiene este hilo; las completaciones del emitter también ocurren aquí para no bloquear al relay.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            OutboxEvent event;
+            while (!subscriber.dropped && (event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getFeedPosition()))
+                        .name(event.getEventType().name())
+                        .data(toEventResponse(event)));
+            }
+            if (subscriber.dropped && !subscriber.closed) {
+                subscriber.closed = true;
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // El consumidor se desconectó; podrá reanudar desde su último offset con Last-Event-ID.
+            subscribers.remove(subscriber);
+            subscriber.dropped = true;
+            subscriber.closed = true;
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(ex);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Eventos encolados (o una desconexión) mientras terminaba este envío.
+        if (subscriber.dropped ? !subscriber.closed : !subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    private EventResponse toEventResponse(OutboxEvent event) {
+        return new EventResponse(event.getFeedPosition(), event.getEventType(), event.getAggregateId(), event.getCreatedAt(), event.getPayload());
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Eventos encolados por el relay y todavía sin enviar.
+        private final BlockingQueue<OutboxEvent> queue;
+        // Hay un envío en curso o programado en el pool.
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Último offset encolado y si ya está al día; solo los modifica el hilo del relay.
+        private volatile long cursor;
+        private volatile boolean live;
+        private volatile boolean dropped;
+        // El emitter ya se completó; solo lo modifica el hilo que envía.
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, long cursor, int buffer) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.queue = new ArrayBlockingQueue<>(buffer);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bnpl.creditsystem.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bnpl.creditsystem.entity.OutboxEvent;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Escribe eventos en la tabla outbox dentro de la misma transacción que el cambio de negocio,
+ * así un evento existe si y solo si el cambio hizo commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY) // Debe ejecutarse dentro de la transacción del llamador.
+    public void record(OutboxEventType type, UUID aggregateId, Object payload) {
+        outboxEventRepository.save(new OutboxEvent(null, type, aggregateId, toJson(payload), LocalDateTime.now(), null));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize outbox event payload", ex);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.bnpl.creditsystem.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mantenimiento de las particiones mensuales de installments (PostgreSQL, ver db/postgres/installments_partitioned.sql):
+ * - Crea por adelantado la partición de cada mes que todavía no existe, hasta months-ahead meses después del actual
+ *   (el plan más largo, MONTHLY_12, llega a 12 meses). Si la partición default ya tiene filas de ese mes, se mueven.
+ * - Separa (detach) los meses con más de retention-months de antigüedad cuyas cuotas ya no pertenecen a ningún
+ *   préstamo de la tabla loans, es decir, cuyos préstamos ya se archivaron (LoanArchiver). Un préstamo COMPLETED que
+ *   sigue en loans se puede consultar, así que su mes no se separa aunque sea antiguo: la respuesta saldría sin cuotas.
+ *   La tabla separada conserva los datos y se puede respaldar o borrar sin tocar la tabla activa.
+ *
+ * Con sharding se repite en cada shard.
+ */
+@Component
+@ConditionalOnProperty(name = "application.installments.partitioning.enabled", havingValue = "true")
+public class InstallmentPartitionMaintenance {
+    private static final Logger log = LoggerFactory.getLogger(InstallmentPartitionMaintenance.class);
+
+    private static final String TABLE = "installments";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public InstallmentPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                           TransactionTemplate transactionTemplate,
+                                           ShardRouter shardRouter,
+                                           @Value("${application.installments.partitioning.months-ahead:13}") int monthsAhead,
+                                           @Value("${application.installments.partitioning.retention-months:24}") int retentionMonths) {
+        if (monthsAhead < 1 || retentionMonths < 1) {
+            throw new IllegalArgumentException("Partition months-ahead and retention-months must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(fixedDelayString = "${application.installments.partitioning.maintenance-interval:PT6H}")
+    public void maintain() {
+        YearMonth currentMonth = YearMonth.now();
+        for (String shard : shardRouter.shards()) {
+            shardRouter.callOnShard(shard, () -> {
+                maintainShard(shard, currentMonth);
+                return null;
+            });
+        }
+    }
+
+    void maintainShard(String shard, YearMonth currentMonth) {
+        Integer partitioned = jdbcTemplate.queryForObject("""
+                select count(*) from pg_partitioned_table p
+                join pg_class c on c.oid = p.partrelid
+                where c.relname = ? and c.relnamespace = current_schema()::regnamespace
+                """, Integer.class, TABLE);
+        if (partitioned == null || partitioned == 0) {
+            log.warn("Table {} is not partitioned on shard {}; run db/postgres/installments_partitioned.sql first", TABLE, shard);
+            return;
+        }
+
+        Set<String> partitions = new HashSet<>(jdbcTemplate.queryForList("""
+                select c.relname from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                join pg_class p on p.oid = i.inhparent
+                where p.relname = ? and p.relnamespace = current_schema()::regnamespace
+                """, String.class, TABLE));
+
+        // 1. Meses siguientes (y el actual) que todavía no tienen partición.
+        for (int offset = 0; offset <= monthsAhead; offset++) {
+            YearMonth month = currentMonth.plusMonths(offset);
+            if (!partitions.contains(partitionName(month))) {
+                createPartition(month);
+                log.info("Created partition {} on shard {}", partitionName(month), shard);
+            }
+        }
+
+        // 2. Meses fuera de la retención cuyos préstamos ya se archivaron.
+        YearMonth oldestRetained = currentMonth.minusMonths(retentionMonths);
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(oldestRetained) && noLoansLeft(partition)) {
+                jdbcTemplate.execute("alter table " + TABLE + " detach partition " + partition);
+                log.info("Detached partition {} on shard {}; it can now be archived or dropped", partition, shard);
+            }
+        }
+    }
+
+    /**
+     * Crea la partición como tabla suelta, le mueve las filas del mes que hayan caído en la partición default
+     * y después la adjunta. Crearla directamente con PARTITION OF fallaría si la default ya tiene filas de ese mes.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("create table " + partition + " (like " + TABLE + " including defaults including constraints)");
+            jdbcTemplate.update("insert into " + partition + " select * from " + DEFAULT_PARTITION
+                    + " where scheduled_payment_date >= ? and scheduled_payment_date < ?", from, to);
+            jdbcTemplate.update("delete from " + DEFAULT_PARTITION
+                    + " where scheduled_payment_date >= ? and scheduled_payment_date < ?", from, to);
+            jdbcTemplate.execute("alter table " + TABLE + " attach partition " + partition
+                    + " for values from ('" + from + "') to ('" + to + "')");
+        });
+    }
+
+    private boolean noLoansLeft(String partition) {
+        List<Integer> remaining = jdbcTemplate.queryForList("select 1 from " + partition
+                + " i join loans l on l.id = i.loan_id limit 1", Integer.class);
+        return remaining.isEmpty();
+    }
+
+    static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Mes de una partición mensual a partir de su nombre, o null si no es una partición mensual (p. ej. la default).
+     */
+    static YearMonth monthOf(String partition) {
+        String prefix = TABLE + "_";
+        if (!partition.startsWith(prefix) || partition.equals(DEFAULT_PARTITION)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bnpl.creditsystem.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.bnpl.creditsystem.repository.JobLeaseRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Leases en la BD (job_leases) para los procesos programados que deben correr en una sola instancia: cada instancia
+ * corre el @Scheduled, pero solo la que toma el lease hace el trabajo. Un lease vencido (la instancia murió a
+ * media corrida) lo puede tomar otra. Con sharding la tabla vive en el shard por defecto.
+ */
+@Component
+public class JobLeases {
+    private static final Logger log = LoggerFactory.getLogger(JobLeases.class);
+
+    private final JobLeaseRepository jobLeaseRepository;
+    // Identifica a esta instancia como dueña de sus leases.
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLeases(JobLeaseRepository jobLeaseRepository) {
+        this.jobLeaseRepository = jobLeaseRepository;
+    }
+
+    /**
+     * Toma o renueva el lease por {@code duration}. Devuelve false si otra instancia lo tiene vigente.
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jobLeaseRepository.acquire(name, owner, now, now.plus(duration)) == 1) {
+            return true;
+        }
+        if (jobLeaseRepository.existsById(name)) {
+            return false;
+        }
+        // Primera corrida del proceso: se crea la fila. Si otra instancia la creó al mismo tiempo, el lease es suyo.
+        try {
+            return jobLeaseRepository.insert(name, owner, now.plus(duration)) == 1;
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Lease {} was created concurrently by another instance", name);
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        jobLeaseRepository.release(name, owner, LocalDateTime.now());
+    }
+}
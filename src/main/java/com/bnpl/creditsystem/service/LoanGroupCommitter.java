@@ -0,0 +1,186 @@
+package com.bnpl.creditsystem.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.LoanResponse;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group commit para la creación de préstamos (opcional, application.loans.group-commit.enabled=true).
+ *
+ * Las solicitudes se encolan y un hilo las junta durante máximo max-wait o hasta max-batch-size, y las crea
+ * con LoanService.createLoanBatch en una sola transacción: un commit (y un fsync) por lote en lugar de uno por
+ * préstamo. Cada solicitud recibe su propio CompletableFuture, que se completa después del commit con su
+ * préstamo o con el error que la rechazó.
+ *
+ * Si la transacción del lote falla (p. ej. conflicto de versión o error de BD), las solicitudes se reintentan
+ * una por una con createLoan, así un error no arrastra a las demás. Con sharding el lote se divide por shard,
+ * porque una transacción solo puede usar un shard. Si la cola está llena, la solicitud se procesa en el hilo
+ * que llama, sin group commit.
+ */
+@Component
+@ConditionalOnProperty(name = "application.loans.group-commit.enabled", havingValue = "true")
+public class LoanGroupCommitter {
+    private static final Logger log = LoggerFactory.getLogger(LoanGroupCommitter.class);
+
+    // Cada cuánto revisa el hilo si debe detenerse cuando no hay solicitudes.
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final LoanService loanService;
+    private final ShardRouter shardRouter;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue;
+    private final DistributionSummary batchSizes;
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    public LoanGroupCommitter(LoanService loanService,
+                              ShardRouter shardRouter,
+                              MeterRegistry meterRegistry,
+                              @Value("${application.loans.group-commit.max-batch-size:64}") int maxBatchSize,
+                              @Value("${application.loans.group-commit.max-wait:PT0.002S}") Duration maxWait,
+                              @Value("${application.loans.group-commit.queue-capacity:4096}") int queueCapacity) {
+        if (maxBatchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Group commit max-batch-size and queue-capacity must be at least 1");
+        }
+        this.loanService = loanService;
+        this.shardRouter = shardRouter;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("loans.group.commit.batch.size")
+                .description("Loans created per group-commit transaction")
+                .register(meterRegistry);
+        this.committer = new Thread(this::run, "loan-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    private record Pending(LoanRequest request, CompletableFuture<LoanResponse> result) {
+    }
+
+    /**
+     * Encola la solicitud; el future se completa cuando el lote que la contiene hizo commit.
+     */
+    public CompletableFuture<LoanResponse> submit(LoanRequest request) {
+        CompletableFuture<LoanResponse> result = new CompletableFuture<>();
+        if (!running || !queue.offer(new Pending(request, result))) {
+            createOne(request, result);
+        }
+        return result;
+    }
+
+    /**
+     * Igual que submit pero espera el resultado, con las mismas excepciones que LoanService.createLoan.
+     */
+    public LoanResponse createLoan(LoanRequest request) {
+        try {
+            return submit(request).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Lo que ya está en cola entra sin esperar; después se espera como máximo max-wait desde la primera.
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException ex) {
+                // commit ya completa cada future; esto solo evita que un error inesperado detenga el hilo.
+                log.error("Unexpected error in loan group commit", ex);
+                batch.forEach(pending -> pending.result().completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        Map<String, List<Pending>> byShard = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byShard.computeIfAbsent(shardRouter.shardForCustomer(pending.request().getCustomerId()), shard -> new ArrayList<>()).add(pending);
+        }
+        for (List<Pending> group : byShard.values()) {
+            batchSizes.record(group.size());
+            List<LoanService.BatchResult> results;
+            try {
+                results = loanService.createLoanBatch(group.stream().map(Pending::request).toList());
+            } catch (RuntimeException ex) {
+                log.warn("Group commit of {} loans failed, retrying them one by one: {}", group.size(), ex.toString());
+                group.forEach(pending -> createOne(pending.request(), pending.result()));
+                continue;
+            }
+            for (int i = 0; i < group.size(); i++) {
+                LoanService.BatchResult result = results.get(i);
+                if (result.rejection() != null) {
+                    group.get(i).result().completeExceptionally(result.rejection());
+                } else {
+                    group.get(i).result().complete(result.loan());
+                }
+            }
+        }
+    }
+
+    private void createOne(LoanRequest request, CompletableFuture<LoanResponse> result) {
+        try {
+            result.complete(loanService.createLoan(request));
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Deja de aceptar solicitudes en la cola y espera a que el hilo procese las que quedan.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
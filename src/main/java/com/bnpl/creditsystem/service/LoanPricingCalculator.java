@@ -0,0 +1,52 @@
+package com.bnpl.creditsystem.service;
+
+import java.math.BigDecimal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.pricing.LoanPricing;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aplica las reglas de precio de LoanPricing (funciones puras compartidas con la variante reactiva).
+ * Lo comparten la creación de préstamos y las cotizaciones. Los planes calculados se memorizan
+ * en un cache acotado porque los montos de los carritos se repiten mucho.
+ */
+@Component
+public class LoanPricingCalculator {
+    private static final Logger log = LoggerFactory.getLogger(LoanPricingCalculator.class);
+
+    private final Cache<PricingKey, LoanPricing.PricingPlan> plans;
+
+    public LoanPricingCalculator(@Value("${application.loans.pricing.cache-size:10000}") long cacheSize) {
+        this.plans = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    // Llave del cache: monto, tasa y plan. BigDecimal respeta la escala, así que el resultado es idéntico al calculado.
+    private record PricingKey(BigDecimal amount, BigDecimal interestRate, InstallmentPlan plan) {
+    }
+
+    /**
+     * Determina la tasa de interés aplicable según el nombre del customer.
+     */
+    public BigDecimal determineInterestRate(String firstName) {
+        BigDecimal interestRate = LoanPricing.interestRateFor(firstName);
+        log.debug("Assigning Scheme {} ({}% interest)",
+                interestRate.equals(LoanPricing.INTEREST_RATE_SCHEME_1) ? 1 : 2, interestRate.movePointRight(2));
+        return interestRate;
+    }
+
+    /**
+     * Calcula (o recupera del cache) la comisión, el total y el monto de cada cuota del plan.
+     */
+    public LoanPricing.PricingPlan price(BigDecimal loanAmount, BigDecimal interestRate, InstallmentPlan plan) {
+        PricingKey key = new PricingKey(loanAmount, interestRate, plan);
+        return plans.get(key, k -> LoanPricing.price(loanAmount, interestRate, plan));
+    }
+}
@@ -1,12 +1,26 @@
 package com.bnpl.creditsystem.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.UUID;
 
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
 import com.bnpl.creditsystem.dto.LoanRequest;
 import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 
 public interface LoanService {
 
     LoanResponse createLoan(LoanRequest request);
+    List<BatchResult> createLoanBatch(List<LoanRequest> requests);
     LoanResponse findLoanById(UUID loanId);
+    long findLoanVersion(UUID loanId);
+    VersionedResponse<byte[]> findLoanJsonById(UUID loanId);
+    void writeLoansByIds(List<UUID> loanIds, OutputStream out) throws IOException;
+    LoanQuoteResponse quoteLoan(LoanRequest request);
+
+    // Resultado de cada solicitud de createLoanBatch: el préstamo creado o la excepción que lo rechazó.
+    record BatchResult(LoanResponse loan, RuntimeException rejection) {
+    }
 }
\ No newline at end of file
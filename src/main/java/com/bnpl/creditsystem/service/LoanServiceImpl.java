@@ -1,31 +1,61 @@
 package com.bnpl.creditsystem.service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.bnpl.creditsystem.archive.LoanArchive;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.InstallmentResponse;
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
 import com.bnpl.creditsystem.dto.LoanRequest;
 import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 
+import com.bnpl.creditsystem.datasource.ReadYourWritesTracker;
+import com.bnpl.creditsystem.datasource.ShardRouter;
 import com.bnpl.creditsystem.entity.Customer;
 import com.bnpl.creditsystem.entity.Installment;
-import com.bnpl.creditsystem.entity.InstallmentStatus;
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
 import com.bnpl.creditsystem.entity.Loan;
 import com.bnpl.creditsystem.entity.LoanStatus;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.exception.BusinessLogicException;
 import com.bnpl.creditsystem.exception.CustomerNotFoundException;
 import com.bnpl.creditsystem.exception.InsufficientCreditException;
 import com.bnpl.creditsystem.exception.LoanNotFoundException;
+import com.bnpl.creditsystem.exception.ResourceNotFoundException;
+import com.bnpl.creditsystem.logging.EventLog;
+import com.bnpl.creditsystem.logging.LogEvent;
+import com.bnpl.creditsystem.mapper.LoanJsonWriter;
 import com.bnpl.creditsystem.mapper.LoanMapper;
+import com.bnpl.creditsystem.pricing.LoanPricing;
+import com.bnpl.creditsystem.pricing.ScheduleTemplate;
 import com.bnpl.creditsystem.repository.CustomerRepository;
 import com.bnpl.creditsystem.repository.LoanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 
 import org.slf4j.Logger;
@@ -36,131 +66,306 @@ import org.slf4j.LoggerFactory;
 public class LoanServiceImpl implements LoanService {
     private static final Logger log = LoggerFactory.getLogger(LoanServiceImpl.class);
 
-    // --- Constantes para las reglas de negocio de compras ---
-    private static final List<String> SCHEME_1_INITIALS = List.of("C", "L", "H");
+    // Un préstamo de 5 cuotas ocupa alrededor de 600 bytes en JSON.
+    private static final int INITIAL_JSON_BUFFER_SIZE = 1024;
 
-    private static final BigDecimal INTEREST_RATE_SCHEME_1 = new BigDecimal("0.13");
-    private static final BigDecimal INTEREST_RATE_SCHEME_2 = new BigDecimal("0.16");
-
-    private static final int NUMBER_OF_INSTALLMENTS = 5;
-    private static final long DAYS_BETWEEN_INSTALLMENTS = 15L;
-    
     private final CustomerRepository customerRepository;
     private final LoanRepository loanRepository;
     
     private final LoanMapper loanMapper;
+    private final LoanJsonWriter loanJsonWriter;
+    private final SingleFlight<UUID, Long> loanVersions;
+    private final SingleFlight<UUID, VersionedResponse<byte[]>> loanReads;
+    private final SingleFlight<UUID, Long> customerVersions;
+    private final SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads;
+    private final CashFlowProjection cashFlowProjection;
+    private final CustomerSummaryProjection customerSummaryProjection;
+    private final LoanPricingCalculator loanPricingCalculator;
+    private final CustomerCreditCache customerCreditCache;
+    private final EventOutbox eventOutbox;
+    private final ShardRouter shardRouter;
+    private final LoanArchive loanArchive;
+    private final ObjectMapper objectMapper;
+    private final EventLog eventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker; // Solo existe con réplica de lectura
+
+    // Dónde se guardan las cuotas: filas en installments (por defecto) o embebidas en el préstamo.
+    @Value("${application.loans.schedule-storage:ROWS}")
+    private ScheduleStorageMode scheduleStorageMode = ScheduleStorageMode.ROWS;
 
+    /**
+     * Todas las operaciones de BD del préstamo corren en una transacción: se completan todas o ninguna.
+     *
+     * El customer se lee del cache de segundo nivel, que es local a cada instancia: si otra instancia (o la
+     * reconciliación de crédito) cambió su crédito, la copia es vieja y el UPDATE con @Version falla. En ese caso se
+     * saca al customer del cache y la transacción se repite una vez leyéndolo de la BD, así la copia vieja no llega al
+     * cliente como 409. Un segundo conflicto sí es una modificación concurrente y se propaga. Dentro de una
+     * transacción que ya existía no se reintenta: el conflicto se resuelve en la del llamador.
+     */
     @Override
-    @Transactional // ¡MUY IMPORTANTE! Asegura que todas las operaciones de BD se completen o ninguna lo haga.
     public LoanResponse createLoan(LoanRequest request) {
-        log.info("Processing loan request for customer ID: {} with amount: {}", request.getCustomerId(), request.getAmount());
-        
-        // 1. Buscar al customer por ID y si no existe, lanza una excepción.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> processLoan(request));
+        }
+        try {
+            return transactionTemplate.execute(status -> processLoan(request));
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            if (!Customer.class.getName().equals(ex.getPersistentClassName())) {
+                throw ex;
+            }
+            log.debug("Cached copy of customer {} was stale; retrying with a fresh read", request.getCustomerId());
+            entityManagerFactory.getCache().evict(Customer.class, request.getCustomerId());
+            return transactionTemplate.execute(status -> processLoan(request));
+        }
+    }
+
+    /**
+     * Crea varios préstamos en una sola transacción (group commit, ver LoanGroupCommitter): un solo commit
+     * para todo el lote y los INSERT agrupados en batches JDBC. Cada solicitud se valida igual que en createLoan;
+     * si una se rechaza (customer inexistente o crédito insuficiente) solo esa lleva el error y las demás siguen.
+     * Las solicitudes del mismo customer descuentan su crédito en orden sobre la misma entidad.
+     */
+    @Override
+    @Transactional
+    public List<BatchResult> createLoanBatch(List<LoanRequest> requests) {
+        List<BatchResult> results = new ArrayList<>(requests.size());
+        for (LoanRequest request : requests) {
+            try {
+                results.add(new BatchResult(processLoan(request), null));
+            } catch (BusinessLogicException | ResourceNotFoundException ex) {
+                // Los rechazos ocurren antes de modificar nada, así que el resto del lote no se ve afectado.
+                results.add(new BatchResult(null, ex));
+            }
+        }
+        return results;
+    }
+
+    private LoanResponse processLoan(LoanRequest request) {
+        log.debug("Processing loan request for customer ID: {} with amount: {}", request.getCustomerId(), request.getAmount());
+
+        // 1. Buscar al customer por ID (en su shard) y si no existe, lanza una excepción.
+        shardRouter.bindToCustomer(request.getCustomerId());
         Customer customer = customerRepository.findById(request.getCustomerId())
                 .orElseThrow(() -> new CustomerNotFoundException(String.valueOf(request.getCustomerId())));
 
         // 2. Validar que el monto de la compra no exceda el crédito disponible.
         if (request.getAmount().compareTo(customer.getAvailableCreditLineAmount()) > 0) {
-            log.warn("Purchase rejected for customer ID {}: Insufficient credit. Requested: {}, Available: {}", 
-                customer.getId(), 
-                request.getAmount(), 
-                customer.getAvailableCreditLineAmount());
-                
+            eventLog.warn(LogEvent.LOAN_REJECTED)
+                    .addKeyValue("customerId", customer.getId())
+                    .addKeyValue("amount", request.getAmount())
+                    .addKeyValue("availableCredit", customer.getAvailableCreditLineAmount())
+                    .addKeyValue("reason", "INSUFFICIENT_CREDIT")
+                    .log();
             throw new InsufficientCreditException("Insufficient credit line for this loan.");
         }
-        log.info("Found customer: {}. Available credit: {}", customer.getFirstName(), customer.getAvailableCreditLineAmount());
 
         // 3. Asignar esquema de pago y tasa de interés según las reglas de negocio.
-        BigDecimal interestRate = determineInterestRate(customer);
+        BigDecimal interestRate = loanPricingCalculator.determineInterestRate(customer.getFirstName());
+        log.debug("Assigning {} interest to customer ID {}", interestRate, customer.getId());
 
-        // 4. Realizar los cálculos internos.
+        // 4. Realizar los cálculos internos (comisión, total y monto por cuota).
         BigDecimal loanAmount = request.getAmount();
-        BigDecimal commission = loanAmount.multiply(interestRate);
-        BigDecimal totalAmount = loanAmount.add(commission);
-        BigDecimal installmentAmount = totalAmount.divide(new BigDecimal(NUMBER_OF_INSTALLMENTS), 2, RoundingMode.HALF_UP);
+        InstallmentPlan plan = LoanPricing.resolvePlan(request.getInstallmentPlan());
+        LoanPricing.PricingPlan pricing = loanPricingCalculator.price(loanAmount, interestRate, plan);
 
         // 5. Crear la nueva entidad Loan.
-        Loan newLoan = buildLoanEntity(request, interestRate, commission, totalAmount, customer);
+        Loan newLoan = buildLoanEntity(request, interestRate, pricing.commission(), pricing.totalAmount(), plan, customer);
 
-        // 6. Crear la lista de cuotas (Installments).
-        List<Installment> installments = createInstallments(newLoan, installmentAmount);
-        newLoan.setInstallments(installments);
+        // 6. Generar el calendario de cuotas y guardarlo según el modo de almacenamiento:
+        // como filas en installments o embebido en la fila del préstamo.
+        InstallmentSchedule schedule = ScheduleTemplate.of(plan).build(LocalDate.now(), pricing.installmentAmounts());
+        if (scheduleStorageMode == ScheduleStorageMode.EMBEDDED) {
+            newLoan.setInstallmentSchedule(schedule);
+            newLoan.setInstallments(new ArrayList<>());
+        } else {
+            newLoan.setInstallments(createInstallments(newLoan, schedule));
+        }
+        log.debug("Created {} installments ({}, {}) for loan.", schedule.size(), plan, scheduleStorageMode);
 
         // 7. Actualizar el crédito disponible del customer.
         BigDecimal newAvailableCredit = customer.getAvailableCreditLineAmount().subtract(loanAmount);
         customer.setAvailableCreditLineAmount(newAvailableCredit);
-        log.info("Updating customer ID {} available credit to: {}", customer.getId(), newAvailableCredit);
 
         // 8. Guardar el nuevo préstamo (y gracias a CascadeType.ALL, sus cuotas también se guardarán).
         // La actualización del customer también se persistirá gracias a @Transactional.
         Loan savedLoan = loanRepository.save(newLoan);
-        log.info("Successfully processed and saved new loan with ID: {}", savedLoan.getId());
-        // 9. Devolver la respuesta.
-        return loanMapper.toLoanResponse(savedLoan);
-    }
+        eventLog.info(LogEvent.LOAN_CREATED)
+                .addKeyValue("loanId", savedLoan.getId())
+                .addKeyValue("customerId", customer.getId())
+                .addKeyValue("amount", loanAmount)
+                .addKeyValue("plan", plan)
+                .addKeyValue("availableCredit", newAvailableCredit)
+                .log();
 
-    /**
-     * Determina la tasa de interés aplicable según las reglas de negocio del customer.
-     */
-    private BigDecimal determineInterestRate(Customer customer) {
-        String firstNameInitial = customer.getFirstName().substring(0, 1).toUpperCase();
-
-        if (SCHEME_1_INITIALS.contains(firstNameInitial)) {
-            log.info("Assigning Scheme 1 ({}% interest) to customer ID {}", 
-            INTEREST_RATE_SCHEME_1.movePointRight(2), 
-            customer.getId());
-            
-            return INTEREST_RATE_SCHEME_1;
-        } else {
-            log.info("Assigning default Scheme 2 ({}% interest) to customer ID {}", 
-            INTEREST_RATE_SCHEME_2.movePointRight(2), 
-            customer.getId());
-            
-            return INTEREST_RATE_SCHEME_2;
-        }
+        // Con sharding, registrar el préstamo en el directorio para poder encontrarlo solo con su ID.
+        shardRouter.registerLoan(savedLoan.getId(), customer.getId());
+
+        // 9. Sumar las cuotas a la proyección de flujo de efectivo y al resumen del customer, e invalidar el customer
+        // cacheado (al hacer commit).
+        cashFlowProjection.recordSchedule(savedLoan.getId(), schedule);
+        customerSummaryProjection.recordLoan(customer.getId(), loanAmount, schedule);
+        customerCreditCache.evict(customer.getId());
+        customerVersions.evict(customer.getId());
+        customerReads.evict(customer.getId());
+        // Con réplica, las lecturas del customer y del préstamo van al primario durante un momento después del commit.
+        readYourWritesTracker.ifAvailable(tracker -> tracker.recordWrite(customer.getId(), savedLoan.getId()));
+
+        // 10. Publicar los eventos en el outbox dentro de la misma transacción.
+        LoanResponse loanResponse = loanMapper.toLoanResponse(savedLoan);
+        eventOutbox.record(OutboxEventType.LOAN_CREATED, savedLoan.getId(), loanResponse);
+        eventOutbox.record(OutboxEventType.CUSTOMER_CREDIT_CHANGED, customer.getId(), new CustomerResponse(
+                customer.getId(), customer.getCreditLineAmount(), customer.getAvailableCreditLineAmount(), customer.getCreatedAt()));
+
+        // 11. Devolver la respuesta.
+        return loanResponse;
     }
 
     /**
      * Crea una nueva entidad Loan a partir de la solicitud y el customer.
-     * @param installmentAmount 
-     * @param totalAmount 
-     * @param commission 
-     * @param interestRate 
      */
-    private Loan buildLoanEntity(LoanRequest request, BigDecimal interestRate, BigDecimal commission, BigDecimal totalAmount, Customer customer) {
-        return new Loan(null, request.getAmount(), LocalDateTime.now(), LoanStatus.ACTIVE, interestRate, commission, totalAmount, customer, null);
+    private Loan buildLoanEntity(LoanRequest request, BigDecimal interestRate, BigDecimal commission, BigDecimal totalAmount, InstallmentPlan plan, Customer customer) {
+        return new Loan(null, request.getAmount(), LocalDateTime.now(), LoanStatus.ACTIVE, interestRate, commission, totalAmount, plan, null, customer, null, null);
     }
 
     /**
-     * Crea y devuelve la lista de cuotas para un préstamo.
+     * Crea y devuelve la lista de cuotas (filas) para un préstamo a partir de su calendario.
      */
-    private List<Installment> createInstallments(Loan loan, BigDecimal installmentAmount) {
-        List<Installment> installments = new ArrayList<>();
-        for (int i = 1; i <= NUMBER_OF_INSTALLMENTS; i++) {
-            installments.add(Installment.builder()
-                .amount(installmentAmount)
-                .status(InstallmentStatus.PENDING)
-                .scheduledPaymentDate(LocalDate.now().plusDays(DAYS_BETWEEN_INSTALLMENTS * i))
-                .loan(loan)
-                .build());
+    private List<Installment> createInstallments(Loan loan, InstallmentSchedule schedule) {
+        List<Installment> installments = new ArrayList<>(schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            installments.add(new Installment(null, schedule.amount(i), schedule.scheduledPaymentDate(i), schedule.status(i), loan));
         }
-        log.info("Created {} installments of {} each for loan.", 
-        installments.size(), 
-        installmentAmount);
-        
         return installments;
     }
 
     @Override
     public LoanResponse findLoanById(UUID loanId) {
-        log.info("Attempting to consult a loan by the Id: {}", loanId);
-        
-        // 1. Busca el loan por ID y si no lo encuentra, lanza una excepción.
-        Loan loanConsulted = loanRepository.findById(loanId).
-        orElseThrow(() -> new LoanNotFoundException(String.valueOf(loanId)));
-        log.info("Successfully retrieving loan: {}", loanConsulted.getId());
-        
+        log.debug("Attempting to consult a loan by the Id: {}", loanId);
+
+        // 1. Busca el loan por ID; si no está en la BD puede estar en el archivo, y si tampoco, lanza una excepción.
+        Optional<Loan> loanConsulted = ReadYourWritesTracker.callReading(loanId,
+                () -> shardRouter.callOnLoanShard(loanId, () -> loanRepository.findWithInstallmentsById(loanId)));
+        if (loanConsulted.isEmpty()) {
+            return loanArchive.find(loanId)
+                    .map(this::readArchivedLoan)
+                    .orElseThrow(() -> new LoanNotFoundException(String.valueOf(loanId)));
+        }
+        log.debug("Successfully retrieving loan: {}", loanId);
+
         // 2. Convierte la entidad a DTO y la devuelve.
-        return loanMapper.toLoanResponse(loanConsulted);
+        return loanMapper.toLoanResponse(loanConsulted.get());
+    }
+
+    /**
+     * El archivo guarda el mismo JSON que responde la API, así que basta con deserializarlo.
+     */
+    private LoanResponse readArchivedLoan(LoanArchive.ArchivedLoan archived) {
+        log.debug("Loan {} served from the archive", archived.id());
+        try {
+            return objectMapper.readValue(archived.json(), LoanResponse.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Versión actual del préstamo, para responder 304 sin cargar la entidad ni generar el JSON.
+     */
+    @Override
+    public long findLoanVersion(UUID loanId) {
+        return loanVersions.get(loanId, id -> ReadYourWritesTracker.callReading(id, () -> shardRouter.callOnLoanShard(id, () -> loanRepository.findVersionById(id)))
+                .or(() -> loanArchive.find(id).map(LoanArchive.ArchivedLoan::version))
+                .orElseThrow(() -> new LoanNotFoundException(String.valueOf(id))));
+    }
+
+    /**
+     * Igual que findLoanById pero sin construir el DTO: el JSON se genera directamente desde la entidad.
+     * Las lecturas concurrentes del mismo préstamo comparten una sola consulta y el JSON resultante
+     * se reutiliza durante una ventana corta (ver SingleFlight). La versión viaja junto con el JSON
+     * para que el ETag siempre corresponda al body.
+     */
+    @Override
+    public VersionedResponse<byte[]> findLoanJsonById(UUID loanId) {
+        return loanReads.get(loanId, this::loadLoanJson);
+    }
+
+    private VersionedResponse<byte[]> loadLoanJson(UUID loanId) {
+        Optional<Loan> found = ReadYourWritesTracker.callReading(loanId,
+                () -> shardRouter.callOnLoanShard(loanId, () -> loanRepository.findWithInstallmentsById(loanId)));
+        if (found.isEmpty()) {
+            // El JSON archivado ya es la respuesta: se devuelve sin deserializarlo.
+            return loanArchive.find(loanId)
+                    .map(archived -> new VersionedResponse<>(archived.version(), archived.json()))
+                    .orElseThrow(() -> new LoanNotFoundException(String.valueOf(loanId)));
+        }
+        Loan loan = found.get();
+        ByteArrayOutputStream json = new ByteArrayOutputStream(INITIAL_JSON_BUFFER_SIZE);
+        try {
+            loanJsonWriter.write(loan, json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new VersionedResponse<>(loan.getVersion(), json.toByteArray());
+    }
+
+    /**
+     * Resuelve varios préstamos junto con sus cuotas con una sola consulta (IN + join) por shard,
+     * en lugar de una consulta por préstamo y otra por sus cuotas.
+     * Los IDs que no están en la BD se buscan en el archivo de préstamos completados.
+     * El JSON se escribe en el orden de la petición, marcando los IDs que no existen.
+     */
+    @Override
+    public void writeLoansByIds(List<UUID> loanIds, OutputStream out) throws IOException {
+        Map<UUID, Loan> loansById = new HashMap<>();
+        for (Map.Entry<String, List<UUID>> shard : shardRouter.groupLoansByShard(new LinkedHashSet<>(loanIds)).entrySet()) {
+            for (Loan loan : ReadYourWritesTracker.callReading(shard.getValue(),
+                    () -> shardRouter.callOnShard(shard.getKey(), () -> loanRepository.findAllWithInstallmentsByIdIn(shard.getValue())))) {
+                loansById.put(loan.getId(), loan);
+            }
+        }
+        List<UUID> missing = loanIds.stream().filter(id -> !loansById.containsKey(id)).distinct().toList();
+        Map<UUID, byte[]> archivedJsonById = new HashMap<>();
+        if (!missing.isEmpty()) {
+            loanArchive.findAll(missing).forEach((id, archived) -> archivedJsonById.put(id, archived.json()));
+        }
+        log.debug("Batch get resolved {} of {} requested loans ({} archived)",
+                loansById.size() + archivedJsonById.size(), loanIds.size(), archivedJsonById.size());
+
+        loanJsonWriter.writeBatch(loanIds, loansById, archivedJsonById, out);
+    }
+
+    /**
+     * Cotiza un préstamo sin efectos: no persiste nada ni descuenta crédito.
+     * Solo lee el crédito del customer desde un cache de corta duración.
+     */
+    @Override
+    public LoanQuoteResponse quoteLoan(LoanRequest request) {
+        // 1. Leer el crédito del customer (cacheado) y validar el monto igual que en createLoan.
+        CustomerCreditCache.CreditSnapshot credit = customerCreditCache.find(request.getCustomerId())
+                .orElseThrow(() -> new CustomerNotFoundException(String.valueOf(request.getCustomerId())));
+
+        if (request.getAmount().compareTo(credit.availableCreditLineAmount()) > 0) {
+            throw new InsufficientCreditException("Insufficient credit line for this loan.");
+        }
+
+        // 2. Calcular el plan con las mismas reglas de precio que la creación del préstamo.
+        BigDecimal interestRate = loanPricingCalculator.determineInterestRate(credit.firstName());
+        LoanPricing.PricingPlan pricing = loanPricingCalculator.price(request.getAmount(), interestRate, LoanPricing.resolvePlan(request.getInstallmentPlan()));
+
+        // 3. Armar las cuotas que tendría el préstamo si se crea hoy.
+        InstallmentSchedule schedule = ScheduleTemplate.of(pricing.plan()).build(LocalDate.now(), pricing.installmentAmounts());
+        List<InstallmentResponse> installments = new ArrayList<>(schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            installments.add(new InstallmentResponse(schedule.amount(i), schedule.scheduledPaymentDate(i), schedule.status(i)));
+        }
+
+        return new LoanQuoteResponse(
+                credit.customerId(),
+                request.getAmount(),
+                interestRate,
+                pricing.totalAmount(),
+                new LoanResponse.PaymentPlan(pricing.commission(), installments));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.bnpl.creditsystem.service;
+
+/**
+ * Modes:
+ * - `ROWS`: each installment is persisted as a row in the `installments` table.
+ * - `EMBEDDED`: the schedule is encoded inside the `loans` row (one row per loan, no join on read).
+ */
+public enum ScheduleStorageMode {
+    ROWS, EMBEDDED
+}
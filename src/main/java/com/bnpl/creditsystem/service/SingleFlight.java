@@ -0,0 +1,146 @@
+package com.bnpl.creditsystem.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa lecturas concurrentes de la misma llave ("single flight"): la primera petición ejecuta
+ * la carga en su propio hilo y las demás esperan el mismo CompletableFuture. Al terminar, el valor
+ * se conserva durante una ventana corta (micro-cache), así una llave muy consultada produce como
+ * máximo una consulta a la BD por ventana sin importar la concurrencia.
+ *
+ * Las cargas en vuelo viven en un ConcurrentHashMap y solo los valores cargados con éxito pasan a la micro-cache
+ * (Caffeine, con expiración). Las cargas que fallan (p. ej. un 404) no se cachean ni pasan por Caffeine: los que
+ * esperaban reciben la misma excepción y la siguiente petición vuelve a intentar.
+ *
+ * Métricas (tag name): coalescing.requests con outcome loaded/joined/cached, y coalescing.ratio con
+ * la fracción de peticiones que no llegaron a la BD.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Cache<K, V> recent;
+    private final Counter loaded;
+    private final Counter joined;
+    private final Counter cached;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public SingleFlight(String name, Duration window, long maximumSize, MeterRegistry meterRegistry) {
+        // La expiración cuenta desde que termina la carga, porque el valor solo se guarda al terminar.
+        this.recent = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+        this.loaded = requestCounter(meterRegistry, name, "loaded");
+        this.joined = requestCounter(meterRegistry, name, "joined");
+        this.cached = requestCounter(meterRegistry, name, "cached");
+        Gauge.builder("coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name)
+                .description("Fraction of requests served without running the loader")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve el valor de la llave, ejecutando el loader solo si no hay otra carga en vuelo
+     * ni un valor reciente. El loader corre en el hilo del llamador.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        requests.increment();
+        V recentValue = recent.getIfPresent(key);
+        if (recentValue != null) {
+            cached.increment();
+            return recentValue;
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> shared = flights.putIfAbsent(key, flight);
+        if (shared == null) {
+            loads.increment();
+            loaded.increment();
+            return load(key, flight, loader);
+        }
+
+        (shared.isDone() ? cached : joined).increment();
+        try {
+            return shared.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Descarta el valor de una llave cuando cambia. Si hay una transacción activa,
+     * se descarta después del commit para no volver a cargar el valor anterior.
+     */
+    public void evict(K key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    discard(key);
+                }
+            });
+        } else {
+            discard(key);
+        }
+    }
+
+    // Primero la carga en vuelo: si termina después, ya no guarda su valor (ver load).
+    private void discard(K key) {
+        flights.remove(key);
+        recent.invalidate(key);
+    }
+
+    private V load(K key, CompletableFuture<V> flight, Function<? super K, ? extends V> loader) {
+        try {
+            V value = loader.apply(key);
+            // Se guarda solo si la carga sigue registrada: si evict la quitó, el valor puede ser anterior al cambio.
+            flights.computeIfPresent(key, (k, current) -> {
+                if (current != flight) {
+                    return current;
+                }
+                if (value != null) {
+                    recent.put(k, value);
+                }
+                return null;
+            });
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private double coalescingRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0.0 : 1.0 - (double) loads.sum() / total;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("coalescing.requests")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+-- Convierte la tabla installments en una tabla particionada por rango mensual de scheduled_payment_date (PostgreSQL 13+).
+-- Se ejecuta una sola vez por BD (en cada shard si hay sharding), con la aplicación detenida:
+--   psql -v ON_ERROR_STOP=1 -f installments_partitioned.sql
+-- Después InstallmentPartitionMaintenance (application.installments.partitioning.enabled=true) crea los meses
+-- siguientes y separa (detach) los meses antiguos.
+
+begin;
+
+alter table installments rename to installments_unpartitioned;
+alter table installments_unpartitioned rename constraint installments_pkey to installments_unpartitioned_pkey;
+drop index if exists idx_installments_loan_id;
+drop index if exists idx_installments_due;
+
+-- En una tabla particionada la llave primaria debe incluir la llave de partición. El ID (UUID v7) sigue
+-- siendo único por sí solo, así que para Hibernate la identidad de la cuota no cambia.
+create table installments (
+    id uuid not null,
+    loan_id uuid not null references loans (id),
+    amount numeric(38, 2) not null,
+    scheduled_payment_date date not null,
+    status varchar(255) not null check (status in ('NEXT', 'PENDING', 'ERROR')),
+    primary key (id, scheduled_payment_date)
+) partition by range (scheduled_payment_date);
+
+-- Índices particionados: cada partición tiene los suyos, así que crecen con el mes y no con toda la tabla.
+create index idx_installments_loan_id on installments (loan_id);
+create index idx_installments_due on installments (scheduled_payment_date, status);
+
+-- Red de seguridad para fechas sin partición mensual; el job de mantenimiento mueve sus filas al crear el mes.
+create table installments_default partition of installments default;
+
+-- Una partición por cada mes con datos, desde el más antiguo hasta el actual.
+do $$
+declare
+    partition_month date;
+begin
+    for partition_month in
+        select generate_series(bounds.first_month, bounds.last_month, interval '1 month')::date
+        from (select least(coalesce(min(date_trunc('month', scheduled_payment_date)), date_trunc('month', current_date)),
+                           date_trunc('month', current_date)) as first_month,
+                     greatest(coalesce(max(date_trunc('month', scheduled_payment_date)), date_trunc('month', current_date)),
+                              date_trunc('month', current_date)) as last_month
+              from installments_unpartitioned) bounds
+    loop
+        execute format('create table %I partition of installments for values from (%L) to (%L)',
+                       'installments_' || to_char(partition_month, 'YYYY_MM'), partition_month, (partition_month + interval '1 month')::date);
+    end loop;
+end
+$$;
+
+insert into installments (id, loan_id, amount, scheduled_payment_date, status)
+select id, loan_id, amount, scheduled_payment_date, status
+from installments_unpartitioned;
+
+drop table installments_unpartitioned;
+
+commit;
@@ -0,0 +1,79 @@
+package com.bnpl.creditsystem.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bnpl.creditsystem.entity.UuidV7Generator;
+
+class LoanArchiveTest {
+
+    private static final int LOANS = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Debe encontrar préstamos archivados en varios bloques y segmentos, también al recargar desde disco")
+    void shouldFindArchivedLoans() throws Exception {
+        LoanArchive archive = new LoanArchive(directory);
+        List<LoanArchive.ArchivedLoan> first = loans(LOANS);
+        List<LoanArchive.ArchivedLoan> second = loans(10);
+        Path segment = archive.writeSegment("a", first);
+        archive.writeSegment("b", second);
+
+        // ~200 bytes por préstamo: 2000 préstamos ocupan varios bloques de 64 KiB, y comprimidos mucho menos.
+        assertThat(Files.size(segment)).isLessThan(LOANS * 200L / 4);
+
+        LoanArchive reloaded = new LoanArchive(directory);
+        for (LoanArchive.ArchivedLoan expected : List.of(first.get(0), first.get(LOANS / 2), first.get(LOANS - 1), second.get(3))) {
+            LoanArchive.ArchivedLoan found = reloaded.find(expected.id()).orElseThrow();
+            assertThat(found.version()).isEqualTo(expected.version());
+            assertThat(found.json()).isEqualTo(expected.json());
+        }
+
+        UUID missing = UuidV7Generator.nextUuid();
+        Map<UUID, LoanArchive.ArchivedLoan> found = reloaded.findAll(List.of(first.get(7).id(), missing, second.get(0).id()));
+        assertThat(found).containsOnlyKeys(first.get(7).id(), second.get(0).id());
+        assertThat(reloaded.find(missing)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe encontrar los segmentos que escribió otra instancia después de arrancar")
+    void shouldFindSegmentsWrittenByAnotherInstance() throws Exception {
+        // Arrange: dos instancias sobre el mismo directorio; la lectora arranca antes del segmento.
+        LoanArchive reader = new LoanArchive(directory);
+        LoanArchive writer = new LoanArchive(directory);
+        List<LoanArchive.ArchivedLoan> archived = loans(5);
+        UUID missing = UuidV7Generator.nextUuid();
+        assertThat(reader.find(archived.get(0).id())).isEmpty();
+
+        // Act
+        writer.writeSegment("other", archived);
+
+        // Assert: la búsqueda fallida vuelve a leer el directorio.
+        assertThat(reader.findAll(List.of(archived.get(2).id(), missing))).containsOnlyKeys(archived.get(2).id());
+        assertThat(reader.find(archived.get(4).id()).orElseThrow().version()).isEqualTo(archived.get(4).version());
+    }
+
+    private static List<LoanArchive.ArchivedLoan> loans(int count) {
+        List<LoanArchive.ArchivedLoan> loans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID id = UuidV7Generator.nextUuid();
+            String json = "{\"id\":\"" + id + "\",\"amount\":" + (1000 + i) + ".00,\"status\":\"COMPLETED\","
+                    + "\"paymentPlan\":{\"commissionAmount\":100.00,\"installments\":[]},\"padding\":\"" + "x".repeat(80) + "\"}";
+            loans.add(new LoanArchive.ArchivedLoan(id, i, json.getBytes(StandardCharsets.UTF_8)));
+        }
+        return loans;
+    }
+}
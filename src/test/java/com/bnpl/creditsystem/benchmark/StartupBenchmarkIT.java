@@ -0,0 +1,258 @@
+package com.bnpl.creditsystem.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Benchmark de arranque: jar normal vs jar con Spring AOT + AppCDS vs imagen nativa (si está compilada).
+ * Cada corrida lanza la aplicación en un proceso nuevo contra el mismo PostgreSQL y mide el tiempo hasta la primera
+ * respuesta HTTP (el contexto ya terminó de arrancar) y la latencia de la primera solicitud real: login más el
+ * registro de un customer, que todavía paga la carga de clases y el código sin JIT de esa ruta.
+ *
+ * No corre con la suite normal (sufijo IT) y usa el jar ya empaquetado, así que primero hay que construirlo con el
+ * perfil aot (el jar sirve para los dos modos de la JVM):
+ * ./mvnw -Paot package -DskipTests
+ * ./mvnw test -Dtest=StartupBenchmarkIT -Dbenchmark.runs=5 -Djacoco.skip=true
+ * El modo native se mide solo si existe target/creditsystem (./mvnw -Pnative native:compile -DskipTests).
+ */
+@Testcontainers
+class StartupBenchmarkIT {
+
+    private static final Path JAR = Path.of(System.getProperty("benchmark.jar", "target/creditsystem-0.0.1-SNAPSHOT.jar"));
+    private static final Path NATIVE = Path.of(System.getProperty("benchmark.native", "target/creditsystem"));
+    private static final Path WORK_DIR = Path.of("target/startup-benchmark");
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Container
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    @DisplayName("Benchmark: tiempo de arranque y latencia de la primera solicitud por modo de ejecución")
+    void compareStartupModes() throws Exception {
+        assertThat(JAR).as("Build the jar first: ./mvnw -Paot package -DskipTests").exists();
+        Files.createDirectories(WORK_DIR);
+
+        // El esquema se crea una sola vez, fuera de la medición; las corridas medidas lo validan (ddl-auto=validate).
+        exitAfterRefresh(List.of(JAVA, "-jar", JAR.toString(), "--spring.jpa.hibernate.ddl-auto=update"));
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("jar", List.of(JAVA, "-jar", JAR.toString())));
+        if (isAotProcessed(JAR)) {
+            modes.add(aotWithCds());
+        } else {
+            System.out.println("Skipping aot-cds: " + JAR + " was not built with -Paot");
+        }
+        if (Files.isExecutable(NATIVE)) {
+            modes.add(new Mode("native", List.of(NATIVE.toAbsolutePath().toString())));
+        } else {
+            System.out.println("Skipping native: " + NATIVE + " not found");
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Mode mode : modes) {
+            long[] startup = new long[RUNS];
+            long[] firstRequest = new long[RUNS];
+            long[] rss = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                Sample sample = measure(mode);
+                startup[run] = sample.startupNanos();
+                firstRequest[run] = sample.firstRequestNanos();
+                rss[run] = sample.rssKb();
+            }
+            results.add(new Result(mode.name(), median(startup), min(startup), median(firstRequest), median(rss)));
+        }
+
+        System.out.printf("%n%-8s %14s %14s %18s %10s%n", "mode", "startup p50", "startup min", "1st request p50", "rss (MB)");
+        results.forEach(Result::print);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.startupMedianNanos()).isPositive());
+    }
+
+    /**
+     * Extrae el jar (AppCDS necesita un classpath de jars normales) y hace la corrida de entrenamiento que genera
+     * el archivo CDS, igual que Dockerfile.aot pero con la BD disponible.
+     */
+    private Mode aotWithCds() throws Exception {
+        Path extracted = WORK_DIR.resolve("extracted");
+        run(List.of(JAVA, "-Djarmode=tools", "-jar", JAR.toString(), "extract", "--destination", extracted.toString(), "--force"));
+        Path extractedJar = extracted.resolve(JAR.getFileName());
+        Path archive = WORK_DIR.resolve("app.jsa");
+        exitAfterRefresh(List.of(JAVA, "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+        return new Mode("aot-cds", List.of(JAVA, "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+    }
+
+    private Sample measure(Mode mode) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String baseUrl = "http://localhost:" + port;
+        List<String> command = new ArrayList<>(mode.command());
+        command.addAll(applicationArguments());
+        command.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = start(command, WORK_DIR.resolve(mode.name() + ".log"));
+        try {
+            awaitFirstResponse(process, baseUrl + "/actuator/health", start);
+            long startupNanos = System.nanoTime() - start;
+
+            long requestStart = System.nanoTime();
+            String token = extract(TOKEN, post(baseUrl + "/v1/auth/login", null, "{\"username\":\"testuser\",\"password\":\"testpass\"}"));
+            extract(ID, post(baseUrl + "/v1/customers", token, "{\"firstName\":\"Carlos\",\"lastName\":\"Valdez\","
+                    + "\"secondLastName\":\"Valdez\",\"dateOfBirth\":\"" + LocalDate.now().minusYears(35) + "\"}"));
+            long firstRequestNanos = System.nanoTime() - requestStart;
+
+            return new Sample(startupNanos, firstRequestNanos, rssKb(process));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Cualquier respuesta HTTP sirve (sin token, /actuator/health responde 403): el servidor web se abre
+     * al final del refresh del contexto.
+     */
+    private void awaitFirstResponse(Process process, String url, long start) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).GET().build();
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            assertThat(process.isAlive()).as("Application exited during startup, see %s", WORK_DIR).isTrue();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (ConnectException notListeningYet) {
+                Thread.sleep(5);
+            }
+        }
+        throw new AssertionError("Application did not start within " + STARTUP_TIMEOUT);
+    }
+
+    private void exitAfterRefresh(List<String> command) throws Exception {
+        List<String> withArguments = new ArrayList<>(command);
+        withArguments.addAll(applicationArguments());
+        withArguments.add("--spring.context.exit=onRefresh");
+        run(withArguments);
+    }
+
+    private void run(List<String> command) throws Exception {
+        Process process = start(command, WORK_DIR.resolve("setup.log"));
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).as("%s timed out", command).isTrue();
+        assertThat(process.exitValue()).as("%s failed, see %s", command, WORK_DIR.resolve("setup.log")).isZero();
+    }
+
+    private static Process start(List<String> command, Path log) throws IOException {
+        File logFile = log.toFile();
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile).start();
+    }
+
+    /**
+     * La BD del contenedor y el perfil prod (sin show-sql y logs asíncronos), como en un despliegue.
+     */
+    private static List<String> applicationArguments() {
+        return List.of(
+                "--spring.datasource.url=" + postgresContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + postgresContainer.getUsername(),
+                "--spring.datasource.password=" + postgresContainer.getPassword(),
+                "--spring.profiles.active=prod");
+    }
+
+    /**
+     * Spring AOT agrega el inicializador generado del contexto a las clases del jar.
+     */
+    private static boolean isAotProcessed(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.getEntry("BOOT-INF/classes/com/bnpl/creditsystem/CreditsystemApplication__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    /**
+     * Memoria residente del proceso después de la primera solicitud (solo Linux; 0 en otros sistemas).
+     */
+    private static long rssKb(Process process) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst().orElse(0);
+    }
+
+    private String post(String url, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("POST %s: %s", url, response.body()).isBetween(200, 201);
+        return response.body();
+    }
+
+    private static String extract(Pattern pattern, String json) {
+        Matcher matcher = pattern.matcher(json);
+        assertThat(matcher.find()).as("%s in %s", pattern, json).isTrue();
+        return matcher.group(1);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long min(long[] values) {
+        return Arrays.stream(values).min().orElse(0);
+    }
+
+    private record Mode(String name, List<String> command) {
+    }
+
+    private record Sample(long startupNanos, long firstRequestNanos, long rssKb) {
+    }
+
+    private record Result(String mode, long startupMedianNanos, long startupMinNanos, long firstRequestMedianNanos, long rssMedianKb) {
+
+        void print() {
+            System.out.printf("%-8s %11.0f ms %11.0f ms %15.1f ms %10.0f%n", mode, startupMedianNanos / 1e6, startupMinNanos / 1e6,
+                    firstRequestMedianNanos / 1e6, rssMedianKb / 1024.0);
+        }
+    }
+}
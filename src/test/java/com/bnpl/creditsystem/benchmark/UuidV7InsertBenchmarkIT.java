@@ -0,0 +1,111 @@
+package com.bnpl.creditsystem.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.bnpl.creditsystem.entity.UuidV7Generator;
+
+/**
+ * Benchmark de inserción: UUID v4 aleatorio vs UUID v7 ordenado por tiempo como llave primaria.
+ * Inserta la misma cantidad de filas con la forma de la tabla installments y compara
+ * el throughput y el tamaño final del índice de la llave primaria.
+ *
+ * No corre con la suite normal (sufijo IT). Para ejecutarlo con Docker disponible:
+ * ./mvnw test -Dtest=UuidV7InsertBenchmarkIT -Dbenchmark.rows=10000000 -Djacoco.skip=true
+ */
+@Testcontainers
+class UuidV7InsertBenchmarkIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int BATCH_SIZE = 10_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Test
+    @DisplayName("Benchmark: throughput de inserción y tamaño del índice con UUID v4 vs v7")
+    void compareUuidV4AndV7Inserts() throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                postgresContainer.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                postgresContainer.getUsername(),
+                postgresContainer.getPassword())) {
+            connection.setAutoCommit(false);
+
+            Result v4 = run(connection, "bench_installments_v4", UUID::randomUUID);
+            Result v7 = run(connection, "bench_installments_v7", UuidV7Generator::nextUuid);
+
+            System.out.printf("%n%-8s %12s %14s %16s%n", "ids", "rows", "rows/s", "pk index (MB)");
+            v4.print("uuid v4");
+            v7.print("uuid v7");
+
+            assertThat(v4.indexBytes()).isPositive();
+            assertThat(v7.indexBytes()).isPositive();
+        }
+    }
+
+    private Result run(Connection connection, String table, Supplier<UUID> ids) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table " + table + " ("
+                    + "id uuid primary key, "
+                    + "loan_id uuid not null, "
+                    + "amount numeric(12, 2) not null, "
+                    + "scheduled_payment_date date not null, "
+                    + "status varchar(16) not null)");
+        }
+        connection.commit();
+
+        Date scheduledPaymentDate = Date.valueOf(LocalDate.now());
+        BigDecimal amount = new BigDecimal("226.00");
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + table
+                + " (id, loan_id, amount, scheduled_payment_date, status) values (?, ?, ?, ?, 'PENDING')")) {
+            UUID loanId = ids.get();
+            for (int i = 1; i <= ROWS; i++) {
+                // Cada préstamo tiene 5 cuotas, igual que en la aplicación.
+                if (i % 5 == 0) {
+                    loanId = ids.get();
+                }
+                insert.setObject(1, ids.get());
+                insert.setObject(2, loanId);
+                insert.setBigDecimal(3, amount);
+                insert.setDate(4, scheduledPaymentDate);
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        try (Statement statement = connection.createStatement();
+             ResultSet size = statement.executeQuery("select pg_relation_size('" + table + "_pkey')")) {
+            size.next();
+            return new Result(ROWS, ROWS / seconds, size.getLong(1));
+        }
+    }
+
+    private record Result(int rows, double rowsPerSecond, long indexBytes) {
+        void print(String label) {
+            System.out.printf("%-8s %12d %14.0f %16.1f%n", label, rows, rowsPerSecond, indexBytes / (1024.0 * 1024.0));
+        }
+    }
+}
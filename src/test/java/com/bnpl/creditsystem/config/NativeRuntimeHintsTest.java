@@ -0,0 +1,37 @@
+package com.bnpl.creditsystem.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.entity.UuidV7Generator;
+
+class NativeRuntimeHintsTest {
+
+    @Test
+    @DisplayName("Debe registrar las clases de jjwt que existen en el classpath, sus ServiceLoader y los tipos que usa Hibernate")
+    void shouldRegisterReflectiveTypesAndResources() {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+        ClassLoader classLoader = getClass().getClassLoader();
+
+        // Act
+        new NativeRuntimeHints().registerHints(hints, classLoader);
+
+        // Assert: si una versión nueva de jjwt renombra una clase, registerTypeIfPresent la omitiría sin avisar.
+        assertThat(NativeRuntimeHints.JJWT_REFLECTIVE_TYPES).allSatisfy(type -> {
+            assertThat(ClassUtils.isPresent(type, classLoader)).as(type).isTrue();
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))).accepts(hints);
+        });
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("reference.conf")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(UuidV7Generator.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(LoanResponse.class, "getPaymentPlan")).accepts(hints);
+    }
+}
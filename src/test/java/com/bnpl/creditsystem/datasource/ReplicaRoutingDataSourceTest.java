@@ -0,0 +1,312 @@
+package com.bnpl.creditsystem.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.entity.LoanStatus;
+import com.bnpl.creditsystem.service.CustomerService;
+import com.bnpl.creditsystem.service.LoanService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Enruta contra dos bases H2 en memoria ("primary" y "replica") y verifica a cuál llega cada transacción.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+    private final DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+
+    private ReplicaLagMonitor replicaLagMonitor;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor = new ReplicaLagMonitor(replica, "select 0", Duration.ofSeconds(2), Duration.ofMinutes(1));
+        replicaLagMonitor.checkLag();
+
+        readYourWritesTracker = new ReadYourWritesTracker(Duration.ofMinutes(1), 100);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, readYourWritesTracker);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debe enviar las transacciones de solo lectura a la réplica y las demás al primario")
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        assertThat(databaseIn(readOnly)).isEqualTo("REPLICA");
+        assertThat(databaseIn(readWrite)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("Debe leer del primario cuando la réplica está atrasada")
+    void shouldFallBackToPrimary_WhenReplicaLags() {
+        // Arrange
+        ReplicaLagMonitor laggingMonitor = new ReplicaLagMonitor(replica, "select 10", Duration.ofSeconds(2), Duration.ofMinutes(1));
+        laggingMonitor.checkLag();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, laggingMonitor,
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate laggingReadOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        laggingReadOnly.setReadOnly(true);
+
+        // Act & Assert
+        assertThat(laggingMonitor.isReplicaUsable()).isFalse();
+        String database = laggingReadOnly.execute(status -> new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+        assertThat(database).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("Debe leer del primario cuando la última medición del retraso es demasiado vieja")
+    void shouldFallBackToPrimary_WhenLagMeasurementIsStale() throws InterruptedException {
+        // Arrange: la réplica estaba al día, pero nadie la volvió a medir (scheduler ocupado).
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "select 0", Duration.ofSeconds(2), Duration.ofMillis(50));
+        monitor.checkLag();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+
+        // Act
+        Thread.sleep(100);
+
+        // Assert
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        monitor.checkLag();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe leer del primario lo recién escrito aunque lo lea otro usuario, y solo eso")
+    void shouldReadFromPrimary_WhatWasJustWritten_RegardlessOfWhoReads() {
+        // Arrange: merchant-a escribe el customer.
+        UUID written = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        authenticate("merchant-a");
+        readWrite.execute(status -> {
+            readYourWritesTracker.recordWrite(written);
+            return currentDatabase();
+        });
+
+        // Act & Assert: merchant-b lee ese customer del primario.
+        authenticate("merchant-b");
+        assertThat(readingIn(written)).isEqualTo("PRIMARY");
+        assertThat(readingIn(untouched)).isEqualTo("REPLICA");
+
+        // merchant-a, que acaba de escribir, sigue leyendo otros registros de la réplica.
+        authenticate("merchant-a");
+        assertThat(readingIn(untouched)).isEqualTo("REPLICA");
+        assertThat(databaseIn(readOnly)).isEqualTo("REPLICA");
+        assertThat(ReadYourWritesTracker.callReading(List.of(untouched, written), () -> databaseIn(readOnly))).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("No debe desviar lecturas por una escritura que hizo rollback")
+    void shouldKeepReadingFromReplica_WhenWriteRolledBack() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+
+        // Act
+        readWrite.execute(status -> {
+            readYourWritesTracker.recordWrite(id);
+            status.setRollbackOnly();
+            return currentDatabase();
+        });
+
+        // Assert
+        assertThat(readingIn(id)).isEqualTo("REPLICA");
+    }
+
+    private String readingIn(UUID id) {
+        return ReadYourWritesTracker.callReading(id, () -> databaseIn(readOnly));
+    }
+
+    private String databaseIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> currentDatabase());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select database()", String.class);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    /**
+     * Las lecturas de la API a través de los servicios, con la aplicación configurada con réplica. Los datos se
+     * crean en el primario y se copian a la réplica con otro valor, así la respuesta dice de dónde se leyó.
+     */
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+            "application.datasource.replica.enabled=true",
+            "application.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+            "application.datasource.replica.lag-query=select 0",
+            "application.datasource.replica.read-your-writes=PT1S"
+    })
+    class ThroughServices {
+
+        private static final BigDecimal REPLICA_CREDIT = new BigDecimal("1.23");
+        private static final long REPLICA_VERSION_OFFSET = 100;
+        private static final Duration STICKINESS = Duration.ofSeconds(1);
+
+        @Autowired
+        private CustomerService customerService;
+        @Autowired
+        private LoanService loanService;
+        @Autowired
+        private ReplicaLagMonitor replicaLagMonitor;
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+        @Autowired
+        @Qualifier("primaryDataSource")
+        private DataSource primaryDataSource;
+        @Autowired
+        @Qualifier("replicaDataSource")
+        private DataSource replicaDataSource;
+
+        @Test
+        @DisplayName("Debe leer customers, préstamos, versiones y batchGet de la réplica y escribir en el primario")
+        void shouldRouteServiceReadsToReplica() throws Exception {
+            // Arrange: el esquema de la réplica es el del primario; el customer y su préstamo se crean en el primario.
+            JdbcTemplate primaryJdbc = new JdbcTemplate(primaryDataSource);
+            JdbcTemplate replicaJdbc = new JdbcTemplate(replicaDataSource);
+            copySchema(primaryJdbc, replicaJdbc);
+            UUID customerId = registerCustomer();
+            UUID loanId = loanService.createLoan(loanRequest(customerId)).getId();
+            assertThat(replicaJdbc.queryForObject("select count(*) from customers where id = ?", Integer.class, customerId)).isZero();
+
+            // En la réplica, el customer con otro crédito disponible y ambos con otra versión y otro estatus.
+            copyRow(primaryJdbc, replicaJdbc, "customers", "id", customerId);
+            copyRow(primaryJdbc, replicaJdbc, "loans", "id", loanId);
+            copyRow(primaryJdbc, replicaJdbc, "installments", "loan_id", loanId);
+            replicaJdbc.update("update customers set available_credit_line_amount = ?, version = version + ? where id = ?",
+                    REPLICA_CREDIT, REPLICA_VERSION_OFFSET, customerId);
+            replicaJdbc.update("update loans set status = ?, version = version + ? where id = ?",
+                    LoanStatus.LATE.name(), REPLICA_VERSION_OFFSET, loanId);
+            long replicaCustomerVersion = replicaJdbc.queryForObject("select version from customers where id = ?", Long.class, customerId);
+            long replicaLoanVersion = replicaJdbc.queryForObject("select version from loans where id = ?", Long.class, loanId);
+
+            // El customer del cache de segundo nivel es el que se escribió en el primario, y durante la ventana de
+            // read-your-writes sus lecturas todavía van al primario.
+            entityManagerFactory.getCache().evictAll();
+            replicaLagMonitor.checkLag();
+            Thread.sleep(STICKINESS.plusMillis(100).toMillis());
+
+            // Act & Assert: cada lectura devuelve la copia de la réplica.
+            assertThat(customerService.findCustomerVersion(customerId)).isEqualTo(replicaCustomerVersion);
+            assertThat(customerService.findVersionedCustomerById(customerId).version()).isEqualTo(replicaCustomerVersion);
+            assertThat(customerService.findCustomerById(customerId).getAvailableCreditLineAmount()).isEqualByComparingTo(REPLICA_CREDIT);
+            assertThat(customerService.findCustomersByIds(List.of(customerId)).getResults().get(0).getItem().getAvailableCreditLineAmount())
+                    .isEqualByComparingTo(REPLICA_CREDIT);
+
+            assertThat(loanService.findLoanVersion(loanId)).isEqualTo(replicaLoanVersion);
+            assertThat(loanService.findLoanJsonById(loanId).version()).isEqualTo(replicaLoanVersion);
+            assertThat(loanService.findLoanById(loanId).getStatus()).isEqualTo(LoanStatus.LATE);
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            loanService.writeLoansByIds(List.of(loanId), batch);
+            assertThat(batch.toString(StandardCharsets.UTF_8)).contains("\"" + LoanStatus.LATE.name() + "\"");
+        }
+
+        @Test
+        @DisplayName("Debe leer del primario el customer y el préstamo recién creados aunque los consulte otro usuario")
+        void shouldReadFromPrimary_RightAfterAnotherUserCreatedTheLoan() {
+            // Arrange: merchant-a crea el préstamo; la réplica todavía tiene el customer de antes del préstamo.
+            JdbcTemplate primaryJdbc = new JdbcTemplate(primaryDataSource);
+            JdbcTemplate replicaJdbc = new JdbcTemplate(replicaDataSource);
+            copySchema(primaryJdbc, replicaJdbc);
+            authenticate("merchant-a");
+            UUID customerId = registerCustomer();
+            copyRow(primaryJdbc, replicaJdbc, "customers", "id", customerId);
+            UUID loanId = loanService.createLoan(loanRequest(customerId)).getId();
+            entityManagerFactory.getCache().evictAll();
+            replicaLagMonitor.checkLag();
+
+            // Act
+            authenticate("merchant-b");
+            long customerVersion = customerService.findCustomerVersion(customerId);
+            BigDecimal availableCredit = customerService.findCustomerById(customerId).getAvailableCreditLineAmount();
+            LoanStatus loanStatus = loanService.findLoanById(loanId).getStatus();
+
+            // Assert: nada viene de la réplica (que ni siquiera tiene el préstamo).
+            assertThat(customerVersion).isEqualTo(primaryJdbc.queryForObject("select version from customers where id = ?", Long.class, customerId));
+            assertThat(availableCredit).isEqualByComparingTo(primaryJdbc.queryForObject(
+                    "select available_credit_line_amount from customers where id = ?", BigDecimal.class, customerId));
+            assertThat(loanStatus).isEqualTo(LoanStatus.ACTIVE);
+        }
+
+        private UUID registerCustomer() {
+            CustomerRequest request = new CustomerRequest();
+            request.setFirstName("Carlos");
+            request.setLastName("Valdez");
+            request.setSecondLastName("Valdez");
+            request.setDateOfBirth(LocalDate.now().minusYears(35));
+            return customerService.registerCustomer(request).getId();
+        }
+
+        private static LoanRequest loanRequest(UUID customerId) {
+            LoanRequest request = new LoanRequest();
+            request.setCustomerId(customerId);
+            request.setAmount(new BigDecimal("100"));
+            return request;
+        }
+
+        private static void copySchema(JdbcTemplate primary, JdbcTemplate replica) {
+            if (replica.queryForObject("select count(*) from information_schema.tables where table_name = 'CUSTOMERS'", Integer.class) > 0) {
+                return;
+            }
+            primary.queryForList("script nodata", String.class).forEach(replica::execute);
+        }
+
+        private static void copyRow(JdbcTemplate primary, JdbcTemplate replica, String table, String column, UUID id) {
+            for (Map<String, Object> row : primary.queryForList("select * from " + table + " where " + column + " = ?", id)) {
+                String columns = String.join(", ", row.keySet());
+                String placeholders = String.join(", ", row.keySet().stream().map(name -> "?").toList());
+                replica.update("insert into " + table + " (" + columns + ") values (" + placeholders + ")", row.values().toArray());
+            }
+        }
+    }
+}
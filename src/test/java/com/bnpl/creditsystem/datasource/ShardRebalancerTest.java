@@ -0,0 +1,89 @@
+package com.bnpl.creditsystem.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.bnpl.creditsystem.entity.UuidV7Generator;
+
+/**
+ * Rebalanceo entre dos bases H2 en memoria: todos los customers empiezan en el shard "a" y
+ * después del rebalanceo cada uno debe estar (con sus préstamos, cuotas, resumen y eventos sin publicar) solo en su
+ * shard dueño.
+ */
+class ShardRebalancerTest {
+
+    private static final int CUSTOMERS = 50;
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+    private final ShardRing ring = new ShardRing(List.of("a", "b"), 128);
+
+    @BeforeEach
+    void setUp() {
+        for (String shard : List.of("a", "b")) {
+            DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:rebalance-" + shard + ";DB_CLOSE_DELAY=-1");
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("drop all objects");
+            jdbcTemplate.execute("create table customers (id uuid primary key, first_name varchar(50) not null)");
+            jdbcTemplate.execute("create table loans (id uuid primary key, customer_id uuid not null references customers (id))");
+            jdbcTemplate.execute("create table installments (id uuid primary key, loan_id uuid not null references loans (id))");
+            jdbcTemplate.execute("create table customer_credit_summaries (customer_id uuid primary key, open_loans int not null)");
+            jdbcTemplate.execute("create table outbox_events (sequence bigint generated by default as identity primary key, "
+                    + "event_type varchar(50) not null, aggregate_id uuid not null, payload varchar(4000) not null, "
+                    + "created_at timestamp not null, feed_position bigint unique)");
+            shards.put(shard, dataSource);
+        }
+
+        JdbcTemplate shardA = new JdbcTemplate(shards.get("a"));
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UUID customerId = UuidV7Generator.nextUuid();
+            UUID loanId = UuidV7Generator.nextUuid();
+            shardA.update("insert into customers (id, first_name) values (?, ?)", customerId, "Customer " + i);
+            shardA.update("insert into loans (id, customer_id) values (?, ?)", loanId, customerId);
+            shardA.update("insert into installments (id, loan_id) values (?, ?)", UuidV7Generator.nextUuid(), loanId);
+            shardA.update("insert into customer_credit_summaries (customer_id, open_loans) values (?, 1)", customerId);
+            // El registro del customer ya se publicó; el evento del préstamo todavía no.
+            shardA.update("insert into outbox_events (event_type, aggregate_id, payload, created_at, feed_position) "
+                    + "values ('CUSTOMER_REGISTERED', ?, '{}', current_timestamp, ?)", customerId, i + 1);
+            shardA.update("insert into outbox_events (event_type, aggregate_id, payload, created_at) "
+                    + "values ('LOAN_CREATED', ?, '{}', current_timestamp)", loanId);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe mover cada customer con sus préstamos y cuotas a su shard dueño")
+    void shouldMoveCustomersToTheirOwnerShard() {
+        ShardRebalancer rebalancer = new ShardRebalancer(shards, ring);
+
+        ShardRebalancer.Result dryRun = rebalancer.rebalance(true);
+        ShardRebalancer.Result result = rebalancer.rebalance(false);
+
+        assertThat(result.movedCustomers()).isEqualTo(dryRun.movedCustomers()).isPositive().isLessThan(CUSTOMERS);
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shard.getValue());
+            List<UUID> customerIds = jdbcTemplate.queryForList("select id from customers", UUID.class);
+            assertThat(customerIds).allSatisfy(customerId -> assertThat(ring.shardFor(customerId)).isEqualTo(shard.getKey()));
+            assertThat(jdbcTemplate.queryForObject("select count(*) from loans", Integer.class)).isEqualTo(customerIds.size());
+            assertThat(jdbcTemplate.queryForObject("select count(*) from installments", Integer.class)).isEqualTo(customerIds.size());
+            assertThat(jdbcTemplate.queryForList("select customer_id from customer_credit_summaries", UUID.class))
+                    .containsExactlyInAnyOrderElementsOf(customerIds);
+            assertThat(jdbcTemplate.queryForList("select aggregate_id from outbox_events where feed_position is null", UUID.class))
+                    .containsExactlyInAnyOrderElementsOf(jdbcTemplate.queryForList("select id from loans", UUID.class));
+        }
+        // Los eventos ya publicados se quedan en el shard donde se generaron.
+        assertThat(new JdbcTemplate(shards.get("a")).queryForObject("select count(*) from outbox_events where feed_position is not null",
+                Integer.class)).isEqualTo(CUSTOMERS);
+        assertThat(rebalancer.rebalance(false).movedCustomers()).isZero();
+    }
+}
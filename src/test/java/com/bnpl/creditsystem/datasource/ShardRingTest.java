@@ -0,0 +1,53 @@
+package com.bnpl.creditsystem.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bnpl.creditsystem.entity.UuidV7Generator;
+
+class ShardRingTest {
+
+    private static final int CUSTOMERS = 100_000;
+
+    @Test
+    @DisplayName("Debe repartir los customers de forma pareja entre los shards")
+    void shouldSpreadCustomersEvenly() {
+        ShardRing ring = new ShardRing(List.of("a", "b", "c", "d"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            counts.merge(ring.shardFor(UuidV7Generator.nextUuid()), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(CUSTOMERS / 4 * 8 / 10, CUSTOMERS / 4 * 12 / 10));
+    }
+
+    @Test
+    @DisplayName("Al agregar un shard solo deben moverse customers hacia el shard nuevo")
+    void shouldOnlyMoveCustomersToTheNewShard() {
+        ShardRing before = new ShardRing(List.of("a", "b", "c", "d"), 128);
+        ShardRing after = new ShardRing(List.of("a", "b", "c", "d", "e"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UUID customerId = UuidV7Generator.nextUuid();
+            String from = before.shardFor(customerId);
+            String to = after.shardFor(customerId);
+            if (!from.equals(to)) {
+                assertThat(to).isEqualTo("e");
+                moved++;
+            }
+        }
+
+        // Se espera que se mueva ~1/5 de los customers.
+        assertThat(moved).isBetween(CUSTOMERS / 5 * 8 / 10, CUSTOMERS / 5 * 12 / 10);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bnpl.creditsystem.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InstallmentScheduleConverterTest {
+
+    private final InstallmentScheduleConverter converter = new InstallmentScheduleConverter();
+
+    @Test
+    @DisplayName("Debe codificar y decodificar el calendario embebido sin perder datos")
+    void shouldRoundTripSchedule() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        InstallmentSchedule schedule = new InstallmentSchedule(
+                new long[] { 377L, 377L, 376L },
+                new int[] { (int) today.toEpochDay(), (int) today.plusDays(7).toEpochDay(), (int) today.plusDays(14).toEpochDay() },
+                new byte[] { (byte) InstallmentStatus.ERROR.ordinal(), (byte) InstallmentStatus.NEXT.ordinal(), (byte) InstallmentStatus.PENDING.ordinal() });
+
+        // Act
+        byte[] column = converter.convertToDatabaseColumn(schedule);
+        InstallmentSchedule decoded = converter.convertToEntityAttribute(column);
+
+        // Assert
+        assertThat(column).hasSize(3 + 3 * 13);
+        assertThat(decoded).isEqualTo(schedule);
+        assertThat(decoded.amount(2)).isEqualByComparingTo(new BigDecimal("3.76"));
+        assertThat(decoded.scheduledPaymentDate(1)).isEqualTo(today.plusDays(7));
+        assertThat(decoded.status(0)).isEqualTo(InstallmentStatus.ERROR);
+    }
+}
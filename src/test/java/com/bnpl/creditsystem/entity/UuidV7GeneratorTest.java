@@ -0,0 +1,47 @@
+package com.bnpl.creditsystem.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Debe generar UUID versión 7 con la variante RFC y el timestamp actual")
+    void shouldGenerateVersion7Uuid_WithCurrentTimestamp() {
+        // Arrange
+        long before = System.currentTimeMillis();
+
+        // Act
+        UUID uuid = UuidV7Generator.nextUuid();
+
+        // Assert
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertThat(timestamp).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    @DisplayName("Debe generar IDs estrictamente crecientes aunque se pidan en el mismo milisegundo")
+    void shouldGenerateMonotonicIds_WithinTheSameMillisecond() {
+        // Arrange
+        List<UUID> ids = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7Generator.nextUuid());
+        }
+
+        // Assert
+        // Se comparan como cadenas (orden de bytes sin signo), que es como los ordena el índice de Postgres.
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(ids.get(i).toString()).isGreaterThan(ids.get(i - 1).toString());
+        }
+    }
+}
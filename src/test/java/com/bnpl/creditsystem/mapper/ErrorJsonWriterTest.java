@@ -0,0 +1,50 @@
+package com.bnpl.creditsystem.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bnpl.creditsystem.dto.ErrorResponseDto;
+import com.bnpl.creditsystem.exception.ErrorCode;
+import com.bnpl.creditsystem.exception.InsufficientCreditException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ErrorJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorJsonWriter errorJsonWriter = new ErrorJsonWriter(objectMapper);
+
+    @Test
+    @DisplayName("Debe escribir el mismo JSON que ErrorResponseDto con el código del error de negocio")
+    void shouldWriteSameJsonAsErrorResponseDto() throws Exception {
+        // Arrange
+        InsufficientCreditException ex = new InsufficientCreditException("Insufficient credit line for \"this\" loan.");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        errorJsonWriter.write(ex.getErrorCode(), ex.getMessage(), "/v1/loans", out);
+
+        // Assert: mismos campos en el mismo orden; el timestamp se compara aparte porque cambia con el reloj.
+        JsonNode written = objectMapper.readTree(out.toByteArray());
+        ErrorResponseDto expected = new ErrorResponseDto("APZ000006", "INVALID_LOAN_REQUEST", written.get("timestamp").asLong(),
+                ex.getMessage(), "/v1/loans");
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(expected));
+        assertThat(written.get("timestamp").asLong()).isCloseTo(System.currentTimeMillis() / 1000, Offset.offset(5L));
+        assertThat(ex.getStatus()).isEqualTo(ErrorCode.INVALID_LOAN_REQUEST.status());
+    }
+
+    @Test
+    @DisplayName("Los errores de negocio no deben guardar stack trace")
+    void businessExceptionsShouldBeStackless() {
+        InsufficientCreditException ex = new InsufficientCreditException("Insufficient credit line for this loan.");
+
+        assertThat(ex.getStackTrace()).isEmpty();
+        ex.addSuppressed(new IllegalStateException());
+        assertThat(ex.getSuppressed()).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bnpl.creditsystem.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bnpl.creditsystem.entity.Customer;
+import com.bnpl.creditsystem.entity.Installment;
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.entity.InstallmentSchedule;
+import com.bnpl.creditsystem.entity.InstallmentStatus;
+import com.bnpl.creditsystem.entity.Loan;
+import com.bnpl.creditsystem.entity.LoanStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+class LoanJsonWriterTest {
+
+    // Misma configuración de fechas que aplica Spring Boot a su ObjectMapper.
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final LoanJsonWriter loanJsonWriter = new LoanJsonWriter(objectMapper);
+    private final LoanMapper loanMapper = new LoanMapper();
+
+    @Test
+    @DisplayName("Debe escribir el mismo JSON que LoanResponse cuando las cuotas son filas")
+    void shouldWriteSameJsonAsLoanResponse_WhenInstallmentsAreRows() throws Exception {
+        // Arrange
+        Loan loan = buildLoan();
+        List<Installment> installments = new ArrayList<>();
+        installments.add(new Installment(UUID.randomUUID(), new BigDecimal("37.71"), LocalDate.now().plusDays(7), InstallmentStatus.NEXT, loan));
+        installments.add(new Installment(UUID.randomUUID(), new BigDecimal("37.70"), LocalDate.now().plusDays(14), InstallmentStatus.PENDING, loan));
+        loan.setInstallments(installments);
+
+        // Act & Assert
+        assertThat(write(loan)).isEqualTo(objectMapper.writeValueAsString(loanMapper.toLoanResponse(loan)));
+    }
+
+    @Test
+    @DisplayName("Debe escribir el mismo JSON que LoanResponse cuando el calendario está embebido")
+    void shouldWriteSameJsonAsLoanResponse_WhenScheduleIsEmbedded() throws Exception {
+        // Arrange
+        Loan loan = buildLoan();
+        int today = (int) LocalDate.now().toEpochDay();
+        loan.setInstallmentSchedule(new InstallmentSchedule(
+                new long[] { 22600L, 5L, 123456789L },
+                new int[] { today, today + 15, today + 30 },
+                new byte[] { 0, 1, 2 }));
+        loan.setInstallments(new ArrayList<>());
+
+        // Act & Assert
+        assertThat(write(loan)).isEqualTo(objectMapper.writeValueAsString(loanMapper.toLoanResponse(loan)));
+    }
+
+    private Loan buildLoan() {
+        Customer customer = new Customer();
+        customer.setId(UUID.randomUUID());
+        return new Loan(UUID.randomUUID(), new BigDecimal("1000.00"), LocalDateTime.of(2026, 1, 2, 3, 4, 0),
+                LoanStatus.ACTIVE, new BigDecimal("0.13"), new BigDecimal("130.00"), new BigDecimal("1130.00"),
+                InstallmentPlan.DEFAULT, null, customer, null, 0L);
+    }
+
+    private String write(Loan loan) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        loanJsonWriter.write(loan, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bnpl.creditsystem.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long BASE_RTT = 10 * MILLIS;
+
+    @Test
+    @DisplayName("Debe rechazar al llegar al límite y admitir otra vez al liberar")
+    void shouldRejectAboveLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.9, 10_000 * MILLIS, 0);
+
+        AdaptiveConcurrencyLimit.Permit first = limit.tryAcquire(0);
+        assertThat(limit.tryAcquire(0)).isNotNull();
+        assertThat(limit.tryAcquire(0)).isNull();
+        assertThat(limit.inflight()).isEqualTo(2);
+
+        limit.release(first, BASE_RTT);
+        assertThat(limit.tryAcquire(BASE_RTT)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Debe converger a la capacidad del servicio y bajar cuando la capacidad baja")
+    void shouldConvergeToCapacity() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 500, 0.9, 1_000 * MILLIS, 0);
+
+        // Servicio que atiende 50 solicitudes a la vez en 10 ms; con más, la latencia crece en proporción (cola).
+        long now = simulate(limit, 50, 0, 2_000);
+        assertThat(limit.limit()).isBetween(45, 70);
+
+        // La capacidad baja a 20 (p. ej. la BD se degrada): el límite la sigue en lugar de dejar crecer la cola.
+        simulate(limit, 20, now, 2_000);
+        assertThat(limit.limit()).isBetween(15, 35);
+    }
+
+    @Test
+    @DisplayName("No debe bajar el límite por solicitudes asíncronas que liberan de inmediato")
+    void shouldIgnoreAsyncReleases() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 500, 0.9, 1_000 * MILLIS, 0);
+        long now = simulate(limit, 50, 0, 2_000);
+
+        // Streams SSE que sueltan el hilo casi al instante, mezclados con el tráfico normal. Al final de cada tanda se
+        // anota el límite, que debe seguir en la capacidad.
+        int converged = 0;
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 5; i++) {
+                if (limit.tryAcquire(now) != null) {
+                    limit.releaseWithoutSample();
+                }
+            }
+            now = simulate(limit, 50, now, 10);
+            if (limit.limit() >= 40 && limit.limit() <= 70) {
+                converged++;
+            }
+        }
+
+        assertThat(limit.inflight()).isZero();
+        assertThat(converged).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("No debe rechazar la carga normal mientras mide otra vez la latencia sin cola")
+    void shouldNotShedSteadyLoadWhileProbing() {
+        // Arrange: ya en la capacidad; en las siguientes rondas hay varias mediciones (una por segundo).
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 500, 0.9, 1_000 * MILLIS, 0);
+        long now = simulate(limit, 50, 0, 2_000);
+
+        // Act: 40 solicitudes a la vez (por debajo de la capacidad) durante 5 s.
+        int rejected = 0;
+        for (int round = 0; round < 500; round++) {
+            List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire(now);
+                if (permit == null) {
+                    rejected++;
+                } else {
+                    permits.add(permit);
+                }
+            }
+            now += BASE_RTT;
+            for (AdaptiveConcurrencyLimit.Permit permit : permits) {
+                limit.release(permit, now);
+            }
+        }
+
+        // Assert
+        assertThat(rejected).isZero();
+    }
+
+    /**
+     * Clientes sin fin: en cada ronda se admiten todas las solicitudes que permite el límite y terminan juntas.
+     */
+    private static long simulate(AdaptiveConcurrencyLimit limit, int capacity, long now, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+            AdaptiveConcurrencyLimit.Permit permit;
+            while ((permit = limit.tryAcquire(now)) != null) {
+                permits.add(permit);
+            }
+            long rtt = BASE_RTT * Math.max(capacity, permits.size()) / capacity;
+            now += rtt;
+            for (AdaptiveConcurrencyLimit.Permit admitted : permits) {
+                limit.release(admitted, now);
+            }
+        }
+        return now;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bnpl.creditsystem.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Debe permitir una ráfaga de capacity solicitudes y luego un token por intervalo de rellenado")
+    void shouldAllowBurstThenRefill() {
+        // 3 tokens, uno nuevo cada segundo.
+        TokenBucket bucket = new TokenBucket(3, SECOND, 0);
+
+        assertThat(bucket.tryAcquire(0).remaining()).isEqualTo(2);
+        assertThat(bucket.tryAcquire(0).remaining()).isEqualTo(1);
+        TokenBucket.Decision last = bucket.tryAcquire(0);
+        assertThat(last.allowed()).isTrue();
+        assertThat(last.remaining()).isZero();
+        assertThat(last.resetNanos()).isEqualTo(3 * SECOND);
+
+        // Sin tokens: rechaza e indica cuánto falta para el siguiente.
+        TokenBucket.Decision rejected = bucket.tryAcquire(SECOND / 4);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(3 * SECOND / 4);
+
+        // Un segundo después hay exactamente un token.
+        assertThat(bucket.tryAcquire(SECOND).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(SECOND).allowed()).isFalse();
+
+        // Después de mucho tiempo sin uso no acumula más de capacity.
+        assertThat(bucket.tryAcquire(100 * SECOND).remaining()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Con muchos hilos al mismo tiempo no debe entregar más tokens que la capacidad")
+    void shouldNotOverAdmitUnderContention() throws Exception {
+        // Rellenado de un token por hora: durante la prueba solo se pueden entregar los 50 iniciales.
+        TokenBucket bucket = new TokenBucket(50, 3600 * SECOND, System.nanoTime());
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (bucket.tryAcquire(System.nanoTime()).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed.get()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,104 @@
+package com.bnpl.creditsystem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.entity.Installment;
+import com.bnpl.creditsystem.entity.InstallmentPlan;
+import com.bnpl.creditsystem.entity.Loan;
+import com.bnpl.creditsystem.pricing.ScheduleTemplate;
+import com.bnpl.creditsystem.service.CustomerService;
+import com.bnpl.creditsystem.service.LoanService;
+
+/**
+ * Lectura de un préstamo con sus cuotas acotada por fechas (para descartar particiones): con cualquier plan, el
+ * rango que sale del ID debe contener todas las cuotas, y una cuota fuera del rango no se pierde.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class LoanRepositoryTest {
+
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID customerId;
+
+    @BeforeEach
+    void setUp() {
+        CustomerRequest customer = new CustomerRequest();
+        customer.setFirstName("Marta");
+        customer.setLastName("Soto");
+        customer.setSecondLastName("Soto");
+        customer.setDateOfBirth(LocalDate.now().minusYears(45));
+        customerId = customerService.registerCustomer(customer).getId();
+    }
+
+    @Test
+    @DisplayName("Debe leer todas las cuotas de cada plan con el rango de fechas que sale del ID")
+    void shouldFindAllInstallmentsWithinTheIdDateRange() {
+        for (InstallmentPlan plan : InstallmentPlan.values()) {
+            // Arrange
+            UUID loanId = loanService.createLoan(loanRequest(plan)).getId();
+
+            // Act
+            Loan loan = loanRepository.findWithInstallmentsById(loanId).orElseThrow();
+
+            // Assert: todas las cuotas están dentro del rango que se pide con UUID v7.
+            assertThat(loan.getInstallments()).as(plan.name()).hasSize(plan.getNumberOfInstallments());
+            assertThat(loan.getInstallments()).as(plan.name()).allSatisfy(installment -> assertThat(installment.getScheduledPaymentDate())
+                    .isBetween(LocalDate.now().minusDays(1), ScheduleTemplate.latestDueDate(LocalDate.now().plusDays(1))));
+        }
+    }
+
+    @Test
+    @DisplayName("Debe devolver todas las cuotas aunque alguna quede fuera del rango que sale del ID")
+    void shouldReturnAllInstallments_WhenSomeFallOutsideTheIdDateRange() {
+        // Arrange: una cuota antes del día de creación y otra después del plan más largo (p. ej. filas migradas).
+        UUID loanId = loanService.createLoan(loanRequest(InstallmentPlan.values()[0])).getId();
+        List<UUID> installmentIds = jdbcTemplate.queryForList("select id from installments where loan_id = ? order by scheduled_payment_date",
+                UUID.class, loanId);
+        jdbcTemplate.update("update installments set scheduled_payment_date = ? where id = ?", LocalDate.now().minusYears(1), installmentIds.get(0));
+        jdbcTemplate.update("update installments set scheduled_payment_date = ? where id = ?",
+                ScheduleTemplate.latestDueDate(LocalDate.now()).plusYears(1), installmentIds.get(installmentIds.size() - 1));
+
+        // Act
+        Loan loan = loanRepository.findWithInstallmentsById(loanId).orElseThrow();
+
+        // Assert
+        assertThat(loan.getInstallments()).extracting(Installment::getId).containsExactlyInAnyOrderElementsOf(installmentIds);
+    }
+
+    @Test
+    @DisplayName("Debe devolver vacío para un préstamo que no existe")
+    void shouldReturnEmpty_WhenLoanDoesNotExist() {
+        assertThat(loanRepository.findWithInstallmentsById(UUID.randomUUID())).isEmpty();
+    }
+
+    private LoanRequest loanRequest(InstallmentPlan plan) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal("50"));
+        request.setInstallmentPlan(plan);
+        return request;
+    }
+}
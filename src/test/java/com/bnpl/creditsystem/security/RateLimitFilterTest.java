@@ -0,0 +1,144 @@
+package com.bnpl.creditsystem.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.bnpl.creditsystem.mapper.ErrorJsonWriter;
+import com.bnpl.creditsystem.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // Tier standard de 3 solicitudes, partner de 100; 2 solicitudes por customer. Rellenado lento para que no cambie durante la prueba.
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("application.rate-limit.tier.standard.capacity", "3")
+                .withProperty("application.rate-limit.tier.standard.refill-per-second", "0.001")
+                .withProperty("application.rate-limit.tier.partner.capacity", "100")
+                .withProperty("application.rate-limit.tier.partner.refill-per-second", "0.001")
+                .withProperty("application.rate-limit.clients.big-merchant", "partner");
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(environment, meterRegistry, List.of("standard", "partner"), 2, 0.001, 1_000, Duration.ofMinutes(10));
+        ObjectMapper objectMapper = new ObjectMapper();
+        filter = new RateLimitFilter(rateLimiter, objectMapper, new ErrorJsonWriter(objectMapper));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar con 429 y Retry-After al agotar el tier del cliente, sin afectar a otros clientes")
+    void shouldLimitEachClientByItsTier() throws Exception {
+        authenticate("small-merchant");
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = call(new MockHttpServletRequest("GET", "/v1/customers/" + UUID.randomUUID()));
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("3");
+            assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo(String.valueOf(2 - i));
+        }
+
+        MockHttpServletResponse rejected = call(new MockHttpServletRequest("GET", "/v1/customers/" + UUID.randomUUID()));
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+        assertThat(rejected.getContentAsString()).contains("\"code\":\"APZ000010\"", "\"error\":\"TOO_MANY_REQUESTS\"");
+        assertThat(meterRegistry.get("http.server.requests.rate.limited").tag("key", "client").counter().count()).isEqualTo(1);
+
+        // Otro cliente, con tier partner, tiene su propio bucket.
+        authenticate("big-merchant");
+        MockHttpServletResponse other = call(new MockHttpServletRequest("GET", "/v1/customers/" + UUID.randomUUID()));
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(other.getHeader("RateLimit-Limit")).isEqualTo("100");
+    }
+
+    @Test
+    @DisplayName("Debe limitar las solicitudes de préstamo por customerId y dejar el body intacto para el controlador")
+    void shouldLimitLoanRequestsPerCustomer() throws Exception {
+        authenticate("big-merchant");
+        UUID customerId = UUID.randomUUID();
+        String body = "{\"amount\":100,\"customerId\":\"" + customerId + "\"}";
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(loanRequest("/v1/loans", body), first, chain);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("RateLimit-Limit")).isEqualTo("2");
+        assertThat(first.getHeader("RateLimit-Remaining")).isEqualTo("1");
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+
+        assertThat(call(loanRequest("/v1/loans/quote", body)).getStatus()).isEqualTo(200);
+        assertThat(call(loanRequest("/v1/loans", body)).getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get("http.server.requests.rate.limited").tag("key", "customer").counter().count()).isEqualTo(1);
+
+        // Otro customer del mismo cliente sigue pasando.
+        String otherBody = "{\"customerId\":\"" + UUID.randomUUID() + "\",\"amount\":100}";
+        assertThat(call(loanRequest("/v1/loans", otherBody)).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Debe responder 413 sin pasar al controlador cuando el body de un préstamo pasa del límite")
+    void shouldRejectOversizedLoanBody() throws Exception {
+        // Arrange: un campo de relleno después del customerId, enviado chunked (sin Content-Length que lo anuncie).
+        authenticate("big-merchant");
+        String body = "{\"customerId\":\"" + UUID.randomUUID() + "\",\"note\":\"" + "x".repeat(RateLimitFilter.MAX_LOAN_BODY_BYTES) + "\"}";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/loans") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(response.getContentAsString()).contains("\"code\":\"APZ000012\"", "\"error\":\"PAYLOAD_TOO_LARGE\"");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    private MockHttpServletResponse call(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest loanRequest(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static void authenticate(String subject) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(subject, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+}
@@ -0,0 +1,146 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.repository.InstallmentRepository;
+import com.bnpl.creditsystem.repository.LoanRepository;
+
+/**
+ * Reconciliación del flujo de efectivo sobre la BD embebida con préstamos que hacen commit en medio de ella.
+ * La reconciliación se construye aquí para intercalar un préstamo justo antes de leer los totales; en ambos casos
+ * el resultado debe ser igual al de una reconciliación sin concurrencia.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class CashFlowServiceImplTest {
+
+    @Autowired
+    private CashFlowProjection cashFlowProjection;
+    @Autowired
+    private InstallmentRepository installmentRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private LoanService loanService;
+
+    private UUID customerId;
+
+    @BeforeEach
+    void setUp() {
+        CustomerRequest request = new CustomerRequest();
+        request.setFirstName("Lucia");
+        request.setLastName("Rivas");
+        request.setSecondLastName("Rivas");
+        request.setDateOfBirth(LocalDate.now().minusYears(30));
+        customerId = customerService.registerCustomer(request).getId();
+    }
+
+    @Test
+    @DisplayName("No debe contar dos veces un préstamo que hace commit después de empezar la reconstrucción")
+    void shouldCountOnce_WhenLoanCommitsBeforeTheSnapshot() {
+        // Arrange: el préstamo se crea (y hace commit completo) cuando la reconstrucción ya empezó,
+        // justo antes de leer los totales.
+        AtomicBoolean created = new AtomicBoolean();
+        InstallmentRepository racing = mock(InstallmentRepository.class, delegatesTo(installmentRepository));
+        doAnswer(invocation -> {
+            if (created.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> loanService.createLoan(loanRequest("300"))).get(10, TimeUnit.SECONDS);
+            }
+            return installmentRepository.sumAmountsByScheduledPaymentDate(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+        }).when(racing).sumAmountsByScheduledPaymentDate(any(), any(), any());
+        CashFlowServiceImpl service = new CashFlowServiceImpl(cashFlowProjection, racing, loanRepository, shardRouter, transactionTemplate);
+
+        // Act
+        service.reconcile();
+        long[] afterRace = projectedCents();
+
+        // Assert: la proyección coincide con una reconciliación sin concurrencia.
+        assertThat(created).isTrue();
+        assertThat(afterRace).isEqualTo(reconciledCents());
+    }
+
+    @Test
+    @DisplayName("No debe contar dos veces un préstamo cuyo commit termina después de leer los totales")
+    void shouldCountOnce_WhenLoanCallbackArrivesAfterTheSnapshot() throws Exception {
+        // Arrange: el préstamo hace commit en la BD pero su afterCommit se detiene hasta que termina la reconciliación.
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> loan = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.countDown();
+                    await(release);
+                }
+            });
+            loanService.createLoan(loanRequest("450"));
+        }));
+        assertThat(committed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Act: se reconcilia con el préstamo ya en la BD y después llega su afterCommit.
+        CashFlowServiceImpl service = new CashFlowServiceImpl(cashFlowProjection, installmentRepository, loanRepository, shardRouter, transactionTemplate);
+        service.reconcile();
+        release.countDown();
+        loan.get(10, TimeUnit.SECONDS);
+        long[] afterCallback = projectedCents();
+
+        // Assert
+        assertThat(afterCallback).isEqualTo(reconciledCents());
+    }
+
+    private long[] projectedCents() {
+        return cashFlowProjection.dailyCents(LocalDate.now(), cashFlowProjection.getCapacityDays());
+    }
+
+    private long[] reconciledCents() {
+        new CashFlowServiceImpl(cashFlowProjection, installmentRepository, loanRepository, shardRouter, transactionTemplate).reconcile();
+        return projectedCents();
+    }
+
+    private LoanRequest loanRequest(String amount) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+import com.bnpl.creditsystem.entity.ReconciliationCheckpoint;
+import com.bnpl.creditsystem.logging.EventLog;
+import com.bnpl.creditsystem.repository.ReconciliationCheckpointRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Reconciliación sobre la BD embebida. El job se construye aquí (en la aplicación es opcional) con los beans del
+ * contexto de pruebas; las verificaciones se limitan a los customers de esta prueba porque el contexto se comparte.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class CreditReconciliationJobTest {
+
+    private static final int CUSTOMERS = 10;
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private EventOutbox eventOutbox;
+    @Autowired
+    private CustomerCreditCache customerCreditCache;
+    @Autowired
+    private SingleFlight<UUID, Long> customerVersions;
+    @Autowired
+    private SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EventLog eventLog;
+    @Autowired
+    private BatchJobLauncher batchJobLauncher;
+
+    @Test
+    @DisplayName("Debe reportar las diferencias, corregirlas con repair y reanudar desde el checkpoint")
+    void shouldReportRepairAndResumeFromCheckpoint() {
+        // Arrange: customers con préstamos, en el orden en que la BD los recorre.
+        List<UUID> registered = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UUID customerId = registerCustomer();
+            loanService.createLoan(loanRequest(customerId, "100"));
+            registered.add(customerId);
+        }
+        List<UUID> customers = new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(
+                "select id from customers where id in (:ids) order by id", Map.of("ids", registered), UUID.class);
+
+        // Tres customers con el crédito desviado: dos por una actualización parcial y uno con un préstamo
+        // que se completó sin devolver el crédito.
+        jdbcTemplate.update("update customers set available_credit_line_amount = available_credit_line_amount - 25, version = version + 1 where id = ?",
+                customers.get(1));
+        jdbcTemplate.update("update customers set available_credit_line_amount = available_credit_line_amount + 40, version = version + 1 where id = ?",
+                customers.get(6));
+        jdbcTemplate.update("update loans set status = 'COMPLETED' where customer_id = ?", customers.get(8));
+
+        // Act 1: solo reporte.
+        CreditReconciliationJob.Result report = job(false).reconcile();
+
+        // Assert 1: nada cambia y la corrida queda completa.
+        assertThat(report.completed()).isTrue();
+        assertThat(report.mismatches()).isGreaterThanOrEqualTo(3);
+        assertThat(report.repaired()).isZero();
+        assertThat(mismatched(customers)).containsExactly(customers.get(1), customers.get(6), customers.get(8));
+        assertThat(checkpointRepository.findById(CreditReconciliationJob.CHECKPOINT_NAME)).get()
+                .satisfies(checkpoint -> assertThat(checkpoint.getCompletedAt()).isNotNull());
+
+        // Act 2: una corrida interrumpida después del quinto customer; la siguiente reanuda desde ahí.
+        LocalDateTime now = LocalDateTime.now();
+        checkpointRepository.save(new ReconciliationCheckpoint(CreditReconciliationJob.CHECKPOINT_NAME, customers.get(4), 0, 0, 0, now, now, null));
+        job(true).reconcile();
+
+        // Assert 2: solo se corrigieron los customers posteriores al checkpoint.
+        assertThat(mismatched(customers)).containsExactly(customers.get(1));
+
+        // Act 3: la corrida anterior terminó, así que esta empieza desde el principio.
+        job(true).reconcile();
+
+        // Assert 3: todo cuadra, y un préstamo nuevo no choca con una copia vieja en cache.
+        assertThat(mismatched(customers)).isEmpty();
+        loanService.createLoan(loanRequest(customers.get(6), "100"));
+        assertThat(mismatched(customers)).isEmpty();
+    }
+
+    private CreditReconciliationJob job(boolean repair) {
+        return new CreditReconciliationJob(jdbcTemplate, transactionTemplate, checkpointRepository, shardRouter, eventOutbox,
+                customerCreditCache, customerVersions, customerReads, entityManagerFactory, eventLog, batchJobLauncher, new SimpleMeterRegistry(),
+                3, 2, Duration.ofMinutes(1), repair);
+    }
+
+    /**
+     * Customers cuyo crédito disponible no es la línea menos sus préstamos no COMPLETED, en orden de ID.
+     */
+    private List<UUID> mismatched(List<UUID> customers) {
+        List<UUID> mismatched = new ArrayList<>();
+        for (UUID customerId : customers) {
+            BigDecimal available = jdbcTemplate.queryForObject("select available_credit_line_amount from customers where id = ?",
+                    BigDecimal.class, customerId);
+            BigDecimal expected = jdbcTemplate.queryForObject("select c.credit_line_amount - coalesce((select sum(l.loan_amount) from loans l "
+                    + "where l.customer_id = c.id and l.status <> 'COMPLETED'), 0) from customers c where c.id = ?", BigDecimal.class, customerId);
+            if (available.compareTo(expected) != 0) {
+                mismatched.add(customerId);
+            }
+        }
+        return mismatched;
+    }
+
+    private UUID registerCustomer() {
+        CustomerRequest request = new CustomerRequest();
+        request.setFirstName("Carlos");
+        request.setLastName("Valdez");
+        request.setSecondLastName("Valdez");
+        request.setDateOfBirth(LocalDate.now().minusYears(35));
+        return customerService.registerCustomer(request).getId();
+    }
+
+    private static LoanRequest loanRequest(UUID customerId, String amount) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.entity.Customer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class CustomerSecondLevelCacheTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("createLoan debe leer al customer del cache de segundo nivel y no pisar el crédito con una copia vieja")
+    void shouldReadCustomerFromSecondLevelCache() {
+        CustomerRequest customerRequest = new CustomerRequest();
+        customerRequest.setFirstName("Carlos");
+        customerRequest.setLastName("Valdez");
+        customerRequest.setSecondLastName("Valdez");
+        customerRequest.setDateOfBirth(LocalDate.now().minusYears(35));
+        CustomerResponse customer = customerService.registerCustomer(customerRequest);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // 1. Dos préstamos seguidos: el customer sale del cache (el primero del registro, el segundo de la actualización).
+        loanService.createLoan(loanRequest(customer, "100"));
+        loanService.createLoan(loanRequest(customer, "100"));
+        assertThat(statistics.getDomainDataRegionStatistics(Customer.CACHE_REGION).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getEntityStatistics(Customer.class.getName()).getLoadCount()).isZero();
+
+        // 2. Si el crédito cambió fuera de esta instancia, la copia del cache está vieja: el UPDATE falla por versión,
+        // createLoan repite con el customer leído de la BD y la solicitud no termina en 409.
+        jdbcTemplate.update("update customers set available_credit_line_amount = available_credit_line_amount - 50, version = version + 1 where id = ?",
+                customer.getId());
+        assertDoesNotThrow(() -> loanService.createLoan(loanRequest(customer, "100")));
+
+        // 3. Lo mismo varias veces seguidas, como un customer cuyos préstamos alternan entre dos instancias.
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("update customers set available_credit_line_amount = available_credit_line_amount - 10, version = version + 1 where id = ?",
+                    customer.getId());
+            assertDoesNotThrow(() -> loanService.createLoan(loanRequest(customer, "10")));
+        }
+
+        BigDecimal available = jdbcTemplate.queryForObject("select available_credit_line_amount from customers where id = ?",
+                BigDecimal.class, customer.getId());
+        assertThat(available).isEqualByComparingTo(customer.getCreditLineAmount().subtract(new BigDecimal("410")));
+    }
+
+    private static LoanRequest loanRequest(CustomerResponse customer, String amount) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customer.getId());
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
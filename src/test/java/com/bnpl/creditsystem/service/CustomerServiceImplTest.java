@@ -3,11 +3,13 @@ package com.bnpl.creditsystem.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.DisplayName;
@@ -15,12 +17,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
 
+import com.bnpl.creditsystem.dto.BatchGetResponse;
 import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.datasource.ReadYourWritesTracker;
+import com.bnpl.creditsystem.datasource.ShardRouter;
 import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 import com.bnpl.creditsystem.entity.Customer;
 import com.bnpl.creditsystem.exception.InvalidAgeException;
+import com.bnpl.creditsystem.logging.EventLog;
 import com.bnpl.creditsystem.repository.CustomerRepository;
 
 @ExtendWith(MockitoExtension.class) // Activa la magia de Mockito
@@ -29,6 +39,27 @@ class CustomerServiceImplTest {
     @Mock // Le dice a Mockito: "Crea una simulación vacía de esta clase"
     private CustomerRepository customerRepository;
 
+    @Mock
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private SingleFlight<UUID, Long> customerVersions;
+
+    @Mock
+    private SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.unsharded();
+
+    @Spy
+    private EventLog eventLog = new EventLog(new MockEnvironment());
+
+    @Mock
+    private CustomerSummaryProjection customerSummaryProjection;
+
+    @Mock
+    private ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
     @InjectMocks // Le dice a Mockito: "Crea una instancia real de esta clase e inyéctale los @Mock que encuentre"
     private CustomerServiceImpl customerService;
 
@@ -53,7 +84,8 @@ class CustomerServiceImplTest {
             request.getDateOfBirth(),
             new BigDecimal("3000"),
             new BigDecimal("3000"),
-            LocalDateTime.now()
+            LocalDateTime.now(),
+            0L
             );
 
         when(customerRepository.save(any(Customer.class))).thenReturn(savedCustomer);
@@ -85,7 +117,8 @@ class CustomerServiceImplTest {
             request.getDateOfBirth(), 
             new BigDecimal("5000"), 
             new BigDecimal("5000"),
-            LocalDateTime.now()
+            LocalDateTime.now(),
+            0L
             );
             
         when(customerRepository.save(any(Customer.class))).thenReturn(savedCustomer);
@@ -115,4 +148,29 @@ class CustomerServiceImplTest {
         // Verificamos que el mensaje de la excepción es el correcto.
         assertThat(exception.getMessage()).isEqualTo("Customer must be between 18 and 65 years old.");
     }
-}
\ No newline at end of file
+
+    // --- PRUEBAS PARA LA CONSULTA MÚLTIPLE (batchGet) ---
+
+    @Test
+    @DisplayName("Debe devolver los customers en el orden solicitado y marcar los que no existen")
+    void shouldReturnCustomersInRequestOrder_WhenSomeIdsDoNotExist() {
+        // Arrange
+        UUID existingId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        Customer customer = new Customer(existingId, "Juan", "Perez", "Perez", LocalDate.now().minusYears(30),
+            new BigDecimal("5000"), new BigDecimal("4000"), LocalDateTime.now(), 0L);
+
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+
+        // Act
+        BatchGetResponse<CustomerResponse> response = customerService.findCustomersByIds(List.of(missingId, existingId));
+
+        // Assert
+        // Una sola consulta para todos los IDs, y los resultados respetan el orden de la petición.
+        verify(customerRepository).findAllById(any());
+        assertThat(response.getResults()).extracting(BatchGetResponse.Result::getId).containsExactly(missingId, existingId);
+        assertThat(response.getResults().get(0).isFound()).isFalse();
+        assertThat(response.getResults().get(0).getItem()).isNull();
+        assertThat(response.getResults().get(1).getItem().getAvailableCreditLineAmount()).isEqualByComparingTo(new BigDecimal("4000"));
+    }
+}
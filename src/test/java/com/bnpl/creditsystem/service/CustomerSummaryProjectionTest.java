@@ -0,0 +1,129 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerSummaryResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.VersionedResponse;
+
+/**
+ * Resumen de crédito sobre la BD embebida: se mantiene con cada préstamo, la reconstrucción corrige lo que cambió
+ * por fuera y un customer sin resumen lo obtiene al leerlo.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class CustomerSummaryProjectionTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private CustomerSummaryProjection customerSummaryProjection;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Debe mantener el resumen con cada préstamo y reconstruirlo cuando cambia por fuera")
+    void shouldMaintainAndRebuildSummary() {
+        // Arrange
+        UUID customerId = registerCustomer();
+        VersionedResponse<CustomerSummaryResponse> empty = customerService.findCustomerSummary(customerId);
+
+        // Act 1: dos préstamos.
+        loanService.createLoan(loanRequest(customerId, "100"));
+        loanService.createLoan(loanRequest(customerId, "250"));
+        VersionedResponse<CustomerSummaryResponse> afterLoans = customerService.findCustomerSummary(customerId);
+
+        // Assert 1: los totales coinciden con las tablas y la versión (ETag) cambió.
+        assertThat(empty.body().getOpenLoans()).isZero();
+        assertThat(empty.body().getNextDueDate()).isNull();
+        assertThat(afterLoans.version()).isGreaterThan(empty.version());
+        assertMatchesTables(afterLoans.body(), customerId, 2);
+        assertThat(afterLoans.body().getUsedCreditAmount()).isEqualByComparingTo("350");
+
+        // Act 2: un préstamo se completa fuera de la aplicación; la reconstrucción lo corrige.
+        jdbcTemplate.update("update loans set status = 'COMPLETED' where customer_id = ? and loan_amount = 100", customerId);
+        customerSummaryProjection.rebuild();
+        CustomerSummaryResponse rebuilt = customerService.findCustomerSummary(customerId).body();
+
+        // Assert 2
+        assertMatchesTables(rebuilt, customerId, 1);
+        assertThat(rebuilt.getUsedCreditAmount()).isEqualByComparingTo("250");
+
+        // Act 3: un customer sin resumen (anterior a la tabla) lo obtiene al leerlo.
+        jdbcTemplate.update("delete from customer_credit_summaries where customer_id = ?", customerId);
+        CustomerSummaryResponse recreated = customerService.findCustomerSummary(customerId).body();
+
+        // Assert 3
+        assertThat(recreated).isEqualTo(rebuilt);
+    }
+
+    @Test
+    @DisplayName("La próxima fecha de pago no debe ser una cuota vencida, al reconstruir ni al leer un resumen guardado")
+    void shouldIgnorePastDueInstallmentsInNextDueDate() {
+        // Arrange: la primera cuota del préstamo ya venció y sigue en NEXT.
+        UUID customerId = registerCustomer();
+        loanService.createLoan(loanRequest(customerId, "200"));
+        LocalDate firstDate = jdbcTemplate.queryForObject("select min(i.scheduled_payment_date) from installments i "
+                + "join loans l on l.id = i.loan_id where l.customer_id = ?", LocalDate.class, customerId);
+        LocalDate pastDate = LocalDate.now().minusDays(3);
+        jdbcTemplate.update("update installments set scheduled_payment_date = ? where scheduled_payment_date = ? "
+                + "and loan_id in (select id from loans where customer_id = ?)", pastDate, firstDate, customerId);
+
+        // Act 1
+        customerSummaryProjection.rebuild();
+        CustomerSummaryResponse rebuilt = customerService.findCustomerSummary(customerId).body();
+
+        // Assert 1: la fecha es la siguiente cuota por pagar y la vencida sigue en el saldo pendiente.
+        assertThat(rebuilt.getNextDueDate()).isAfterOrEqualTo(LocalDate.now());
+        assertMatchesTables(rebuilt, customerId, 1);
+
+        // Act 2: el resumen guardado se quedó con una fecha que ya pasó (p. ej. cambió el día desde la última escritura).
+        jdbcTemplate.update("update customer_credit_summaries set next_due_date = ? where customer_id = ?", pastDate, customerId);
+        CustomerSummaryResponse read = customerService.findCustomerSummary(customerId).body();
+
+        // Assert 2
+        assertThat(read).isEqualTo(rebuilt);
+    }
+
+    private void assertMatchesTables(CustomerSummaryResponse summary, UUID customerId, int openLoans) {
+        BigDecimal outstanding = jdbcTemplate.queryForObject("select sum(i.amount) from installments i join loans l on l.id = i.loan_id "
+                + "where l.customer_id = ? and l.status <> 'COMPLETED'", BigDecimal.class, customerId);
+        LocalDate nextDueDate = jdbcTemplate.queryForObject("select min(i.scheduled_payment_date) from installments i join loans l on l.id = i.loan_id "
+                + "where l.customer_id = ? and l.status <> 'COMPLETED' and i.status in ('NEXT', 'PENDING') and i.scheduled_payment_date >= ?",
+                LocalDate.class, customerId, LocalDate.now());
+        assertThat(summary.getCustomerId()).isEqualTo(customerId);
+        assertThat(summary.getOpenLoans()).isEqualTo(openLoans);
+        assertThat(summary.getOutstandingAmount()).isEqualByComparingTo(outstanding);
+        assertThat(summary.getNextDueDate()).isEqualTo(nextDueDate);
+    }
+
+    private UUID registerCustomer() {
+        CustomerRequest request = new CustomerRequest();
+        request.setFirstName("Carlos");
+        request.setLastName("Valdez");
+        request.setSecondLastName("Valdez");
+        request.setDateOfBirth(LocalDate.now().minusYears(35));
+        return customerService.registerCustomer(request).getId();
+    }
+
+    private static LoanRequest loanRequest(UUID customerId, String amount) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
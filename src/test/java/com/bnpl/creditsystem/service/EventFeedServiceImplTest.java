@@ -0,0 +1,205 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bnpl.creditsystem.datasource.ShardRing;
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.EventPageResponse;
+import com.bnpl.creditsystem.dto.EventResponse;
+import com.bnpl.creditsystem.entity.OutboxEventType;
+import com.bnpl.creditsystem.repository.OutboxEventRepository;
+
+/**
+ * Feed de eventos sobre la BD embebida. El servicio se construye aquí para elegir el tamaño de lote y la cola por
+ * consumidor (2 y 2); las verificaciones empiezan en la última posición publicada porque el contexto (y el outbox)
+ * se comparte. Los consumidores SSE son emitters que registran lo que reciben.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class EventFeedServiceImplTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private EventOutbox eventOutbox;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private EventFeedServiceImpl feed;
+    private long start;
+
+    @BeforeEach
+    void setUp() {
+        feed = new EventFeedServiceImpl(outboxEventRepository, jdbcTemplate, transactionTemplate, shardRouter,
+                Duration.ofDays(7), Duration.ofMinutes(1), 2, 2, false);
+        feed.publishPending();
+        start = jdbcTemplate.queryForObject("select coalesce(max(feed_position), 0) from outbox_events", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    @Test
+    @DisplayName("Debe paginar por posición y entregar después del offset un evento que hizo commit tarde")
+    void shouldDeliverLateCommitAfterTheReadersOffset() throws Exception {
+        // Arrange: una transacción escribe su evento (y recibe la secuencia menor) pero hace commit al final.
+        UUID late = UUID.randomUUID();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> lateTransaction = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            eventOutbox.record(OutboxEventType.LOAN_CREATED, late, "late");
+            recorded.countDown();
+            await(commit);
+        }));
+        assertThat(recorded.await(10, TimeUnit.SECONDS)).isTrue();
+        List<UUID> committed = List.of(record(), record(), record());
+
+        // Act 1: se publica y se lee mientras la primera transacción sigue abierta, en páginas de 2.
+        feed.publishPending();
+        EventPageResponse first = feed.readEvents(start, 2);
+        EventPageResponse second = feed.readEvents(first.getNextOffset(), 2);
+
+        // Assert 1: solo los eventos con commit, en orden y sin repetir.
+        assertThat(aggregates(first)).containsExactly(committed.get(0), committed.get(1));
+        assertThat(aggregates(second)).containsExactly(committed.get(2));
+        assertThat(feed.readEvents(second.getNextOffset(), 2).getEvents()).isEmpty();
+
+        // Act 2: la transacción hace commit (ya pasado cualquier retraso de visibilidad) y se vuelve a publicar.
+        commit.countDown();
+        lateTransaction.get(10, TimeUnit.SECONDS);
+        feed.publishPending();
+        EventPageResponse afterLateCommit = feed.readEvents(second.getNextOffset(), 2);
+
+        // Assert 2: el lector que ya había avanzado recibe el evento tardío.
+        assertThat(aggregates(afterLateCommit)).containsExactly(late);
+        assertThat(afterLateCommit.getNextOffset()).isGreaterThan(second.getNextOffset());
+    }
+
+    @Test
+    @DisplayName("Debe enviar a cada consumidor en su propio hilo y desconectar al que se queda atrás")
+    void shouldRelayWithoutBlockingOnSlowSubscriber() throws Exception {
+        // Arrange: dos consumidores al día; el lento se bloquea en su primer envío.
+        RecordingEmitter fast = new RecordingEmitter(null);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(unblock);
+        feed.subscribe(start, fast);
+        feed.subscribe(start, slow);
+        feed.relay();
+        List<UUID> recorded = List.of(record(), record(), record(), record(), record());
+
+        // Act: el relay nunca espera al consumidor lento.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (fast.received.size() < recorded.size() && System.nanoTime() < deadline) {
+            long relayStart = System.nanoTime();
+            feed.relay();
+            assertThat(Duration.ofNanos(System.nanoTime() - relayStart)).isLessThan(Duration.ofSeconds(2));
+            Thread.sleep(20);
+        }
+        unblock.countDown();
+
+        // Assert: el rápido recibió todo en orden; el lento, solo lo que alcanzó antes de quedarse atrás.
+        assertThat(fast.received).containsExactlyElementsOf(recorded);
+        assertThat(fast.completed).isFalse();
+        awaitCompletion(slow);
+        assertThat(slow.received).hasSizeLessThan(recorded.size());
+        assertThat(recorded).startsWith(slow.received.toArray(UUID[]::new));
+    }
+
+    /**
+     * Emitter sin conexión HTTP que registra los aggregateId enviados; si tiene un latch, el primer envío
+     * se bloquea hasta que se libera (cliente lento).
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch blockFirstSend;
+        private final List<UUID> received = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        private RecordingEmitter(CountDownLatch blockFirstSend) {
+            this.blockFirstSend = blockFirstSend;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (blockFirstSend != null && received.isEmpty()) {
+                EventFeedServiceImplTest.await(blockFirstSend);
+            }
+            builder.build().stream()
+                    .filter(item -> item.getData() instanceof EventResponse)
+                    .forEach(item -> received.add(((EventResponse) item.getData()).getAggregateId()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private static void awaitCompletion(RecordingEmitter emitter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!emitter.completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(emitter.completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("No debe arrancar con varios shards a menos que se acepte que el feed solo publica el primero")
+    void shouldRefuseToStart_WhenEventsOfOtherShardsWouldBeLost() {
+        // Arrange
+        ShardRouter sharded = new ShardRouter(new ShardRing(List.of("shard-0", "shard-1"), 16), null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> new EventFeedServiceImpl(outboxEventRepository, jdbcTemplate, transactionTemplate, sharded,
+                Duration.ofDays(7), Duration.ofMinutes(1), 2, 2, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[shard-1]");
+        new EventFeedServiceImpl(outboxEventRepository, jdbcTemplate, transactionTemplate, sharded,
+                Duration.ofDays(7), Duration.ofMinutes(1), 2, 2, true).stop();
+    }
+
+    private UUID record() {
+        UUID aggregateId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> eventOutbox.record(OutboxEventType.LOAN_CREATED, aggregateId, "committed"));
+        return aggregateId;
+    }
+
+    private static List<UUID> aggregates(EventPageResponse page) {
+        return page.getEvents().stream().map(EventResponse::getAggregateId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.pricing.ScheduleTemplate;
+import com.bnpl.creditsystem.repository.LoanRepository;
+
+/**
+ * Convierte installments en tabla particionada con el script de db/postgres, ejecuta el mantenimiento
+ * y verifica las particiones creadas, que las consultas por fecha descarten particiones y que solo se separen meses
+ * antiguos cuyos préstamos ya no están en la BD.
+ */
+@SpringBootTest
+@Testcontainers
+class InstallmentPartitionMaintenanceIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+        registry.add("application.installments.partitioning.enabled", () -> "true");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InstallmentPartitionMaintenance maintenance;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Test
+    @DisplayName("Debe particionar installments por mes, descartar particiones fuera del rango y separar meses antiguos")
+    void shouldMaintainMonthlyPartitions() throws Exception {
+        String script = new ClassPathResource("db/postgres/installments_partitioned.sql").getContentAsString(StandardCharsets.UTF_8);
+        jdbcTemplate.execute(script);
+        YearMonth currentMonth = YearMonth.now();
+
+        // 1. Se crean el mes actual y los 13 siguientes.
+        maintenance.maintain();
+        assertThat(partitions()).contains(
+                InstallmentPartitionMaintenance.partitionName(currentMonth),
+                InstallmentPartitionMaintenance.partitionName(currentMonth.plusMonths(13)));
+
+        // 2. Las cuotas de un préstamo nuevo quedan en sus particiones mensuales, no en la default.
+        CustomerRequest customerRequest = new CustomerRequest();
+        customerRequest.setFirstName("Ana");
+        customerRequest.setLastName("Lopez");
+        customerRequest.setSecondLastName("Diaz");
+        customerRequest.setDateOfBirth(LocalDate.now().minusYears(40));
+        CustomerResponse customer = customerService.registerCustomer(customerRequest);
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setCustomerId(customer.getId());
+        loanRequest.setAmount(new BigDecimal("1000"));
+        LoanResponse loan = loanService.createLoan(loanRequest);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from installments", Integer.class)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from installments_default", Integer.class)).isZero();
+
+        // 3. Una consulta por rango de fechas solo toca las particiones del rango.
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "explain select sum(amount) from installments where scheduled_payment_date between ? and ?",
+                String.class, currentMonth.atDay(1), currentMonth.atEndOfMonth()));
+        assertThat(plan)
+                .contains(InstallmentPartitionMaintenance.partitionName(currentMonth))
+                .doesNotContain(InstallmentPartitionMaintenance.partitionName(currentMonth.plusMonths(2)));
+
+        // 4. El préstamo se lee con sus cuotas pidiendo solo los meses de su calendario.
+        assertThat(loanRepository.findWithInstallmentsById(loan.getId()).orElseThrow().getInstallments()).hasSize(5);
+        String loanPlan = String.join("\n", jdbcTemplate.queryForList(
+                "explain select * from installments where loan_id = ? and scheduled_payment_date between ? and ?",
+                String.class, loan.getId(), LocalDate.now().minusDays(1), ScheduleTemplate.latestDueDate(LocalDate.now().plusDays(1))));
+        assertThat(loanPlan).doesNotContain(InstallmentPartitionMaintenance.partitionName(currentMonth.minusMonths(1)));
+
+        // 5. Un mes fuera de la retención con un préstamo COMPLETED que sigue en la BD no se separa.
+        YearMonth oldMonth = currentMonth.minusMonths(30);
+        String oldPartition = InstallmentPartitionMaintenance.partitionName(oldMonth);
+        jdbcTemplate.execute("create table " + oldPartition + " partition of installments for values from ('"
+                + oldMonth.atDay(1) + "') to ('" + oldMonth.plusMonths(1).atDay(1) + "')");
+        jdbcTemplate.update("update loans set status = 'COMPLETED' where id = ?", loan.getId());
+        jdbcTemplate.update("update installments set scheduled_payment_date = ? where loan_id = ?", oldMonth.atDay(10), loan.getId());
+        maintenance.maintain();
+        assertThat(partitions()).contains(oldPartition);
+
+        // 6. Cuando el préstamo ya se archivó (no está en loans), el mes se separa de la tabla.
+        jdbcTemplate.update("delete from installments where loan_id = ?", loan.getId());
+        jdbcTemplate.update("delete from loans where id = ?", loan.getId());
+        maintenance.maintain();
+        assertThat(partitions()).doesNotContain(oldPartition);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from pg_class where relname = ?", Integer.class, oldPartition)).isEqualTo(1);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                select c.relname from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                join pg_class p on p.oid = i.inhparent
+                where p.relname = 'installments'
+                """, String.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bnpl.creditsystem.repository.JobLeaseRepository;
+
+/**
+ * Leases de procesos sobre la BD embebida; cada JobLeases hace de una instancia distinta.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class JobLeasesTest {
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Test
+    @DisplayName("Debe dar el lease a una sola instancia hasta que lo libere o venza")
+    void shouldGrantLeaseToOneInstanceAtATime() throws Exception {
+        // Arrange
+        JobLeases first = new JobLeases(jobLeaseRepository);
+        JobLeases second = new JobLeases(jobLeaseRepository);
+
+        // Act & Assert: la primera crea el lease y lo renueva; la segunda no lo obtiene mientras esté vigente.
+        assertThat(first.tryAcquire("test-job", Duration.ofMinutes(1))).isTrue();
+        assertThat(first.tryAcquire("test-job", Duration.ofMinutes(1))).isTrue();
+        assertThat(second.tryAcquire("test-job", Duration.ofMinutes(1))).isFalse();
+
+        // Liberado, lo toma la segunda; si no lo libera, la primera lo recupera cuando vence.
+        first.release("test-job");
+        assertThat(second.tryAcquire("test-job", Duration.ofMillis(50))).isTrue();
+        assertThat(first.tryAcquire("test-job", Duration.ofMinutes(1))).isFalse();
+        Thread.sleep(100);
+        assertThat(first.tryAcquire("test-job", Duration.ofMinutes(1))).isTrue();
+    }
+}
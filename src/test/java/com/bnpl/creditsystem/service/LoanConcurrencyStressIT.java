@@ -0,0 +1,182 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bnpl.creditsystem.dto.CustomerRequest;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.exception.InsufficientCreditException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prueba de estrés de createLoan contra la BD embebida: miles de solicitudes concurrentes, la mayoría sobre unos
+ * pocos customers "calientes" (agotan su crédito y compiten por la misma fila) y el resto repartidas entre muchos
+ * customers "fríos". Cada conflicto (409 en la API) se reintenta como lo haría un cliente, con un backoff corto.
+ *
+ * Al final, para cada customer: disponible = línea de crédito − suma de sus préstamos ACTIVE, y nunca negativo, y
+ * ninguna solicitud se rindió después de MAX_ATTEMPTS conflictos. Registra en el log el throughput y los conteos de
+ * conflictos, reintentos y rechazos, como base para ajustar la contención.
+ *
+ * No corre con la suite normal (sufijo IT). Para ejecutarlo:
+ * ./mvnw test -Dtest=LoanConcurrencyStressIT -Djacoco.skip=true
+ * Se puede escalar con -Dstress.requests, -Dstress.threads, -Dstress.hot-customers y -Dstress.cold-customers.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class LoanConcurrencyStressIT {
+    private static final Logger log = LoggerFactory.getLogger(LoanConcurrencyStressIT.class);
+
+
+    private static final int REQUESTS = Integer.getInteger("stress.requests", 2_000);
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int HOT_CUSTOMERS = Integer.getInteger("stress.hot-customers", 4);
+    private static final int COLD_CUSTOMERS = Integer.getInteger("stress.cold-customers", 400);
+    // Fracción de las solicitudes que van a los customers calientes.
+    private static final double HOT_SHARE = 0.8;
+    private static final int MAX_ATTEMPTS = 20;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder optimisticConflicts = new LongAdder();
+    private final LongAdder lockConflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    @Test
+    @DisplayName("Con miles de préstamos concurrentes, el crédito disponible siempre es la línea menos los préstamos activos y nunca negativo")
+    void shouldKeepCreditInvariantUnderConcurrentLoans() throws Exception {
+        // Arrange
+        List<UUID> hot = registerCustomers(HOT_CUSTOMERS);
+        List<UUID> cold = registerCustomers(COLD_CUSTOMERS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<UUID> customers = random.nextDouble() < HOT_SHARE ? hot : cold;
+            LoanRequest request = loanRequest(customers.get(random.nextInt(customers.size())), random.nextInt(10, 300));
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                createWithRetry(request);
+                return null;
+            }));
+        }
+
+        // Act
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        log.info("Stress: {} requests, {} threads, {} hot / {} cold customers", REQUESTS, THREADS, HOT_CUSTOMERS, COLD_CUSTOMERS);
+        log.info("Stress: {} requests/s ({} s), {} created, {} rejected (insufficient credit)",
+                String.format("%.0f", REQUESTS / seconds), String.format("%.1f", seconds), created.sum(), rejected.sum());
+        log.info("Stress: {} optimistic conflicts, {} lock conflicts, {} retries, {} gave up after {} attempts",
+                optimisticConflicts.sum(), lockConflicts.sum(), retries.sum(), exhausted.sum(), MAX_ATTEMPTS);
+
+        // Assert
+        assertThat(exhausted.sum()).as("requests that gave up after %d attempts", MAX_ATTEMPTS).isZero();
+        assertThat(created.sum() + rejected.sum()).isEqualTo(REQUESTS);
+        List<UUID> all = new ArrayList<>(hot);
+        all.addAll(cold);
+        long loans = 0;
+        for (UUID customerId : all) {
+            Map<String, Object> credit = jdbcTemplate.queryForMap("select c.credit_line_amount, c.available_credit_line_amount, "
+                    + "coalesce(sum(l.loan_amount), 0) as active_amount, count(l.id) as active_loans "
+                    + "from customers c left join loans l on l.customer_id = c.id and l.status = 'ACTIVE' "
+                    + "where c.id = ? group by c.credit_line_amount, c.available_credit_line_amount", customerId);
+            BigDecimal creditLine = (BigDecimal) credit.get("credit_line_amount");
+            BigDecimal available = (BigDecimal) credit.get("available_credit_line_amount");
+            BigDecimal activeAmount = (BigDecimal) credit.get("active_amount");
+            assertThat(available).as("available credit of %s", customerId).isEqualByComparingTo(creditLine.subtract(activeAmount));
+            assertThat(available).as("available credit of %s", customerId).isNotNegative();
+            loans += ((Number) credit.get("active_loans")).longValue();
+        }
+        assertThat(loans).isEqualTo(created.sum());
+    }
+
+    /**
+     * Reintenta los conflictos como un cliente ante un 409: el bloqueo optimista (otra solicitud cambió la versión)
+     * y la espera de bloqueo de la fila que vence en la BD.
+     */
+    private void createWithRetry(LoanRequest request) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                loanService.createLoan(request);
+                created.increment();
+                return;
+            } catch (InsufficientCreditException ex) {
+                rejected.increment();
+                return;
+            } catch (OptimisticLockingFailureException ex) {
+                optimisticConflicts.increment();
+            } catch (ConcurrencyFailureException ex) {
+                lockConflicts.increment();
+            }
+            if (attempt < MAX_ATTEMPTS) {
+                retries.increment();
+                // Backoff exponencial con jitter, acotado a 128 ms: con un tope de pocos milisegundos una solicitud sobre
+                // un customer caliente puede perder la carrera por la fila en todos sus intentos.
+                Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L << Math.min(attempt, 7)));
+            }
+        }
+        exhausted.increment();
+    }
+
+    private List<UUID> registerCustomers(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CustomerRequest request = new CustomerRequest();
+            request.setFirstName("Carlos");
+            request.setLastName("Valdez");
+            request.setSecondLastName("Valdez");
+            request.setDateOfBirth(LocalDate.now().minusYears(35));
+            ids.add(customerService.registerCustomer(request).getId());
+        }
+        return ids;
+    }
+
+    private static LoanRequest loanRequest(UUID customerId, int amount) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(BigDecimal.valueOf(amount));
+        return request;
+    }
+}
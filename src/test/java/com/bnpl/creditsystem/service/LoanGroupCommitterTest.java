@@ -0,0 +1,119 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.LoanRequest;
+import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.exception.InsufficientCreditException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoanGroupCommitterTest {
+
+    private final LoanService loanService = mock(LoanService.class);
+    private final LoanGroupCommitter committer = new LoanGroupCommitter(
+            loanService, ShardRouter.unsharded(), new SimpleMeterRegistry(), 64, Duration.ofMillis(50), 1024);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        committer.stop();
+    }
+
+    @Test
+    @DisplayName("Debe agrupar las solicitudes concurrentes en pocas transacciones y completar cada future por separado")
+    void shouldCommitConcurrentRequestsTogether() throws Exception {
+        // Arrange: el primer lote se bloquea para que las demás solicitudes se acumulen en la cola.
+        UUID rejectedCustomer = UUID.randomUUID();
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        AtomicInteger batches = new AtomicInteger();
+        when(loanService.createLoanBatch(anyList())).thenAnswer(invocation -> {
+            if (batches.incrementAndGet() == 1) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            }
+            List<LoanRequest> requests = invocation.getArgument(0);
+            List<LoanService.BatchResult> results = new ArrayList<>();
+            for (LoanRequest request : requests) {
+                results.add(request.getCustomerId().equals(rejectedCustomer)
+                        ? new LoanService.BatchResult(null, new InsufficientCreditException("Insufficient credit line for this loan."))
+                        : new LoanService.BatchResult(loan(request), null));
+            }
+            return results;
+        });
+
+        // Act
+        List<LoanRequest> requests = new ArrayList<>();
+        List<CompletableFuture<LoanResponse>> results = new ArrayList<>();
+        requests.add(request(UUID.randomUUID()));
+        results.add(committer.submit(requests.get(0)));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 30; i++) {
+            requests.add(request(i == 10 ? rejectedCustomer : UUID.randomUUID()));
+            results.add(committer.submit(requests.get(i)));
+        }
+        releaseFirstBatch.countDown();
+
+        // Assert: una transacción para la primera y otra para las 29 que esperaban.
+        for (int i = 0; i < results.size(); i++) {
+            if (i == 10) {
+                CompletableFuture<LoanResponse> rejected = results.get(i);
+                assertThrows(Exception.class, () -> rejected.get(5, TimeUnit.SECONDS));
+                assertThat(rejected.isCompletedExceptionally()).isTrue();
+            } else {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS).getCustomerId()).isEqualTo(requests.get(i).getCustomerId());
+            }
+        }
+        assertThat(batches.get()).isEqualTo(2);
+
+        // createLoan relanza el rechazo tal cual, sin envolverlo en CompletionException.
+        assertThrows(InsufficientCreditException.class, () -> committer.createLoan(request(rejectedCustomer)));
+    }
+
+    @Test
+    @DisplayName("Si falla la transacción del lote debe reintentar cada solicitud por separado")
+    void shouldRetryOneByOne_WhenBatchFails() throws Exception {
+        when(loanService.createLoanBatch(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        when(loanService.createLoan(any(LoanRequest.class))).thenAnswer(invocation -> loan(invocation.getArgument(0)));
+
+        LoanRequest request = request(UUID.randomUUID());
+        LoanResponse response = committer.createLoan(request);
+
+        assertThat(response.getCustomerId()).isEqualTo(request.getCustomerId());
+        verify(loanService, times(1)).createLoan(request);
+    }
+
+    private static LoanRequest request(UUID customerId) {
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal("100"));
+        return request;
+    }
+
+    private static LoanResponse loan(LoanRequest request) {
+        return new LoanResponse(UUID.randomUUID(), request.getCustomerId(), request.getAmount(), null, null, null);
+    }
+}
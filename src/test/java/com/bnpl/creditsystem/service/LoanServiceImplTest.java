@@ -18,15 +18,31 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.bnpl.creditsystem.archive.LoanArchive;
+import com.bnpl.creditsystem.datasource.ReadYourWritesTracker;
+import com.bnpl.creditsystem.datasource.ShardRouter;
+import com.bnpl.creditsystem.dto.CustomerResponse;
+import com.bnpl.creditsystem.dto.LoanQuoteResponse;
 import com.bnpl.creditsystem.dto.LoanRequest;
 import com.bnpl.creditsystem.dto.LoanResponse;
+import com.bnpl.creditsystem.dto.VersionedResponse;
 import com.bnpl.creditsystem.entity.Customer;
+import com.bnpl.creditsystem.entity.Installment;
+import com.bnpl.creditsystem.entity.InstallmentPlan;
 import com.bnpl.creditsystem.entity.Loan;
 import com.bnpl.creditsystem.exception.InsufficientCreditException;
+import com.bnpl.creditsystem.logging.EventLog;
 import com.bnpl.creditsystem.repository.CustomerRepository;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import com.bnpl.creditsystem.mapper.LoanJsonWriter;
 import com.bnpl.creditsystem.mapper.LoanMapper;
 import com.bnpl.creditsystem.repository.LoanRepository;
 
@@ -42,6 +58,57 @@ class LoanServiceImplTest {
     @Mock
     private LoanMapper loanMapper;
 
+    @Mock
+    private LoanJsonWriter loanJsonWriter;
+
+    @Mock
+    private CashFlowProjection cashFlowProjection;
+
+    @Spy
+    private LoanPricingCalculator loanPricingCalculator = new LoanPricingCalculator(100);
+
+    @Mock
+    private CustomerCreditCache customerCreditCache;
+
+    @Mock
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private SingleFlight<UUID, Long> loanVersions;
+
+    @Mock
+    private SingleFlight<UUID, VersionedResponse<byte[]>> loanReads;
+
+    @Mock
+    private SingleFlight<UUID, Long> customerVersions;
+
+    @Mock
+    private SingleFlight<UUID, VersionedResponse<CustomerResponse>> customerReads;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.unsharded();
+
+    @Mock
+    private LoanArchive loanArchive;
+
+    @Mock
+    private CustomerSummaryProjection customerSummaryProjection;
+
+    @Spy
+    private EventLog eventLog = new EventLog(new MockEnvironment());
+
+    // Corre el callback sin transacción: los repositorios son mocks.
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    };
+
+    @Mock
+    private ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
     @InjectMocks
     private LoanServiceImpl loanService;
 
@@ -67,7 +134,8 @@ class LoanServiceImplTest {
             LocalDate.now().minusYears(35),
             new BigDecimal("8000"),
             new BigDecimal("8000"),
-            LocalDateTime.now()
+            LocalDateTime.now(),
+            0L
             );
 
         when(customerRepository.findById(any(UUID.class))).thenReturn(Optional.of(mockCustomer));
@@ -123,7 +191,8 @@ class LoanServiceImplTest {
             LocalDate.now().minusYears(40),
             new BigDecimal("8000"),
             new BigDecimal("8000"),
-            LocalDateTime.now()
+            LocalDateTime.now(),
+            0L
             );
 
         when(customerRepository.findById(any(UUID.class))).thenReturn(Optional.of(mockCustomer));
@@ -136,4 +205,71 @@ class LoanServiceImplTest {
 
         assertThat(exception.getMessage()).isEqualTo("Insufficient credit line for this loan.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Debe cotizar un préstamo sin guardar nada ni descontar crédito")
+    void shouldQuoteLoan_WithoutSideEffects() {
+        // Arrange
+        UUID customerId = UUID.randomUUID();
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal("1000"));
+
+        when(customerCreditCache.find(customerId)).thenReturn(Optional.of(
+            new CustomerCreditCache.CreditSnapshot(customerId, "Carlos", new BigDecimal("8000"))));
+
+        // Act
+        LoanQuoteResponse quote = loanService.quoteLoan(request);
+
+        // Assert
+        // Scheme 1 (13%): 1000 + 130 = 1130 en 5 cuotas de 226
+        assertThat(quote.getInterestRate()).isEqualByComparingTo(new BigDecimal("0.13"));
+        assertThat(quote.getTotalAmount()).isEqualByComparingTo(new BigDecimal("1130"));
+        assertThat(quote.getPaymentPlan().getInstallments()).hasSize(5);
+        assertThat(quote.getPaymentPlan().getInstallments().get(0).getAmount()).isEqualByComparingTo(new BigDecimal("226"));
+
+        // La cotización no toca los repositorios
+        verifyNoInteractions(customerRepository, loanRepository);
+    }
+
+    @Test
+    @DisplayName("Debe repartir el residuo del redondeo para que la suma de las cuotas sea igual al total")
+    void shouldDistributeRoundingRemainder_WhenTotalIsNotDivisible() {
+        // Arrange
+        UUID customerId = UUID.randomUUID();
+        LoanRequest request = new LoanRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal("10"));
+        request.setInstallmentPlan(InstallmentPlan.WEEKLY_3);
+
+        Customer mockCustomer = new Customer(
+            customerId,
+            "Carlos",
+            "Valdez",
+            "Valdez",
+            LocalDate.now().minusYears(35),
+            new BigDecimal("8000"),
+            new BigDecimal("8000"),
+            LocalDateTime.now(),
+            0L
+            );
+
+        when(customerRepository.findById(any(UUID.class))).thenReturn(Optional.of(mockCustomer));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        loanService.createLoan(request);
+
+        // Assert
+        verify(loanRepository).save(loanArgumentCaptor.capture());
+        Loan capturedLoan = loanArgumentCaptor.getValue();
+
+        // 10 + 13% = 11.30 en 3 cuotas semanales: 3.77 + 3.77 + 3.76
+        assertThat(capturedLoan.getInstallmentPlan()).isEqualTo(InstallmentPlan.WEEKLY_3);
+        assertThat(capturedLoan.getInstallments()).extracting(Installment::getAmount)
+            .containsExactly(new BigDecimal("3.77"), new BigDecimal("3.77"), new BigDecimal("3.76"));
+        assertThat(capturedLoan.getInstallments().stream().map(Installment::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+            .isEqualByComparingTo(capturedLoan.getTotalAmount());
+        assertThat(capturedLoan.getInstallments().get(2).getScheduledPaymentDate()).isEqualTo(LocalDate.now().plusDays(21));
+    }
+}
@@ -0,0 +1,117 @@
+package com.bnpl.creditsystem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bnpl.creditsystem.exception.LoanNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ofMinutes(1), 100, meterRegistry);
+
+    @Test
+    @DisplayName("Debe ejecutar una sola carga para peticiones concurrentes de la misma llave")
+    void shouldLoadOnce_WhenRequestsAreConcurrent() throws Exception {
+        // Arrange
+        int threads = 16;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            results.add(executor.submit(() -> singleFlight.get("loan-1", key -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "value";
+            })));
+            loaderStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> singleFlight.get("loan-1", key -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Damos tiempo a que todas las peticiones se unan a la carga en vuelo antes de liberarla.
+            Thread.sleep(200);
+            releaseLoader.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Después de la carga, la micro-cache responde sin volver a cargar.
+        assertThat(singleFlight.get("loan-1", key -> "reloaded")).isEqualTo("value");
+
+        // Assert
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("coalescing.requests").tag("outcome", "loaded").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("coalescing.ratio").gauge().value()).isEqualTo(1.0 - 1.0 / (threads + 1));
+    }
+
+    @Test
+    @DisplayName("No debe cachear una carga que falla")
+    void shouldNotCacheFailures() {
+        // Act & Assert
+        assertThrows(LoanNotFoundException.class, () -> singleFlight.get("missing", key -> {
+            throw new LoanNotFoundException(key);
+        }));
+        assertThat(singleFlight.get("missing", key -> "created")).isEqualTo("created");
+    }
+
+    @Test
+    @DisplayName("No debe cachear una carga que empezó antes de descartar la llave")
+    void shouldNotCacheLoadStartedBeforeEvict() throws Exception {
+        // Arrange: una carga lee el valor anterior y se detiene.
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> singleFlight.get("loan-2", key -> {
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "before";
+            }));
+            loaderStarted.await(5, TimeUnit.SECONDS);
+
+            // Act: la llave cambia mientras la carga sigue en vuelo.
+            singleFlight.evict("loan-2");
+            releaseLoader.countDown();
+
+            // Assert: quien esperaba esa carga la recibe, pero la siguiente petición vuelve a cargar.
+            assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("before");
+            assertThat(singleFlight.get("loan-2", key -> "after")).isEqualTo("after");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}